@@ -0,0 +1,77 @@
+package com.homeservices.config;
+
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+
+import java.time.Duration;
+
+/**
+ * Encodeur BCrypt dont le coût est calibré au démarrage
+ *
+ * Le coût retenu est le plus élevé dont la durée de hachage mesurée sur la
+ * machine reste dans le budget configuré. Un hash stocké avec un autre coût
+ * est signalé par upgradeEncoding et ré-encodé à la connexion suivante.
+ */
+public class CalibratedBCryptPasswordEncoder extends BCryptPasswordEncoder {
+
+    private static final int SAMPLES = 3;
+
+    private final int strength;
+
+    public CalibratedBCryptPasswordEncoder(int strength) {
+        super(strength);
+        this.strength = strength;
+    }
+
+    /**
+     * Mesure le coût minimal puis extrapole (chaque +1 double la durée)
+     * pour trouver le coût le plus élevé tenant dans le budget
+     */
+    public static CalibratedBCryptPasswordEncoder calibrate(Duration budget, int minStrength, int maxStrength) {
+        long baseNanos = measure(minStrength);
+        long budgetNanos = budget.toNanos();
+
+        int strength = minStrength;
+        long estimate = baseNanos;
+        while (strength < maxStrength && estimate * 2 <= budgetNanos) {
+            strength++;
+            estimate *= 2;
+        }
+
+        System.out.println("🔐 Coût BCrypt calibré: " + strength + " (~" + estimate / 1_000_000
+                + " ms, budget " + budget.toMillis() + " ms)");
+        return new CalibratedBCryptPasswordEncoder(strength);
+    }
+
+    private static long measure(int strength) {
+        BCryptPasswordEncoder encoder = new BCryptPasswordEncoder(strength);
+        encoder.encode("calibration"); // préchauffage JIT
+
+        long best = Long.MAX_VALUE;
+        for (int i = 0; i < SAMPLES; i++) {
+            long start = System.nanoTime();
+            encoder.encode("calibration");
+            best = Math.min(best, System.nanoTime() - start);
+        }
+        return best;
+    }
+
+    public int getStrength() {
+        return strength;
+    }
+
+    /**
+     * Un hash est ré-encodé dès que son coût diffère du coût calibré
+     */
+    @Override
+    public boolean upgradeEncoding(String encodedPassword) {
+        if (encodedPassword == null || encodedPassword.length() < 7 || encodedPassword.charAt(0) != '$') {
+            return super.upgradeEncoding(encodedPassword);
+        }
+        try {
+            int storedStrength = Integer.parseInt(encodedPassword.substring(4, 6));
+            return storedStrength != strength;
+        } catch (NumberFormatException e) {
+            return false;
+        }
+    }
+}
@@ -0,0 +1,67 @@
+package com.homeservices.config;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.CommandLineRunner;
+import org.springframework.core.annotation.Order;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+/**
+ * Contraintes de base de données non exprimables avec JPA
+ * Appliquées au démarrage, uniquement sur PostgreSQL, de façon idempotente
+ */
+@Component
+@Order(0)
+public class DatabaseConstraintsInitializer implements CommandLineRunner {
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Override
+    public void run(String... args) {
+        if (!isPostgreSQL()) {
+            return;
+        }
+        try {
+            backfillReservations();
+            createNoOverlapConstraint();
+        } catch (DataAccessException e) {
+            System.err.println("⚠️ Contraintes de base non appliquées : " + e.getMostSpecificCause().getMessage());
+        }
+    }
+
+    /**
+     * Renseigne provider_id et ends_at sur les réservations antérieures à ces colonnes
+     */
+    private void backfillReservations() {
+        jdbcTemplate.update("UPDATE reservations r SET provider_id = ps.user_id FROM provider_services ps "
+                + "WHERE r.provider_service_id = ps.id AND r.provider_id IS NULL");
+        jdbcTemplate.update("UPDATE reservations SET ends_at = scheduled_date + make_interval(mins => duration_minutes) "
+                + "WHERE ends_at IS NULL");
+    }
+
+    /**
+     * Interdit en base deux réservations actives qui se chevauchent pour un même prestataire
+     */
+    private void createNoOverlapConstraint() {
+        Boolean exists = jdbcTemplate.queryForObject(
+                "SELECT EXISTS (SELECT 1 FROM pg_constraint WHERE conname = 'reservations_no_overlap')",
+                Boolean.class);
+        if (Boolean.TRUE.equals(exists)) {
+            return;
+        }
+        jdbcTemplate.execute("CREATE EXTENSION IF NOT EXISTS btree_gist");
+        jdbcTemplate.execute("ALTER TABLE reservations ADD CONSTRAINT reservations_no_overlap "
+                + "EXCLUDE USING gist (provider_id WITH =, tsrange(scheduled_date, ends_at) WITH &&) "
+                + "WHERE (status IN ('EN_ATTENTE', 'CONFIRMEE', 'EN_COURS'))");
+        System.out.println("🔒 Contrainte anti-chevauchement des réservations créée");
+    }
+
+    private boolean isPostgreSQL() {
+        String product = jdbcTemplate.execute(
+                (ConnectionCallback<String>) connection -> connection.getMetaData().getDatabaseProductName());
+        return "PostgreSQL".equals(product);
+    }
+}
@@ -1,15 +1,20 @@
 package com.homeservices.config;
 
 import com.homeservices.service.CustomUserDetailsService;
+import com.homeservices.service.TokenRevocationService;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpMethod;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.web.authentication.WebAuthenticationDetailsSource;
+import org.springframework.security.web.util.matcher.AntPathRequestMatcher;
+import org.springframework.security.web.util.matcher.OrRequestMatcher;
+import org.springframework.security.web.util.matcher.RequestMatcher;
 import org.springframework.stereotype.Component;
 import org.springframework.util.StringUtils;
 import org.springframework.web.filter.OncePerRequestFilter;
@@ -26,9 +31,34 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
     @Autowired
     private JwtUtils jwtUtils;
 
+    @Autowired
+    private VerifiedTokenCache verifiedTokenCache;
+
     @Autowired
     private CustomUserDetailsService userDetailsService;
 
+    @Autowired
+    private TokenRevocationService tokenRevocationService;
+
+    /**
+     * Routes publiques qui n'utilisent pas l'utilisateur courant :
+     * inutile d'y vérifier un token. /api/auth/me et /api/auth/logout
+     * restent filtrés.
+     */
+    private static final RequestMatcher PUBLIC_ROUTES = new OrRequestMatcher(
+            new AntPathRequestMatcher("/**", HttpMethod.OPTIONS.name()),
+            new AntPathRequestMatcher("/api/services"),
+            new AntPathRequestMatcher("/api/services/**"),
+            new AntPathRequestMatcher("/api/auth/login"),
+            new AntPathRequestMatcher("/api/auth/register"),
+            new AntPathRequestMatcher("/api/auth/refresh"),
+            new AntPathRequestMatcher("/actuator/health"));
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return PUBLIC_ROUTES.matches(request);
+    }
+
     @Override
     protected void doFilterInternal(HttpServletRequest request,
             HttpServletResponse response,
@@ -38,17 +68,8 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
         try {
             String jwt = getJwtFromRequest(request);
 
-            if (StringUtils.hasText(jwt) && jwtUtils.validateToken(jwt)) {
-                String email = jwtUtils.getEmailFromToken(jwt);
-
-                UserDetails userDetails = userDetailsService.loadUserByUsername(email);
-                UsernamePasswordAuthenticationToken authentication = new UsernamePasswordAuthenticationToken(
-                        userDetails,
-                        null,
-                        userDetails.getAuthorities());
-                authentication.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
-
-                SecurityContextHolder.getContext().setAuthentication(authentication);
+            if (StringUtils.hasText(jwt)) {
+                authenticate(jwt, request);
             }
         } catch (Exception e) {
             System.err.println("Erreur d'authentification JWT: " + e.getMessage());
@@ -57,6 +78,42 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
         filterChain.doFilter(request, response);
     }
 
+    /**
+     * Vérifie le token (au plus une vérification HMAC, aucune si le token est
+     * déjà en cache) et place l'authentification dans le contexte de sécurité
+     */
+    private void authenticate(String jwt, HttpServletRequest request) {
+        TokenVerification verification = verifiedTokenCache.verify(jwt);
+        if (!verification.isValid()) {
+            System.err.println("Token JWT refusé (" + verification.getFailure() + "): " + verification.getMessage());
+            return;
+        }
+
+        // Un refresh token ne sert pas à authentifier une requête
+        if (jwtUtils.isRefreshToken(verification.getClaims())) {
+            return;
+        }
+
+        // Session révoquée (déconnexion, changement de mot de passe) : O(1) sans I/O dans le cas courant
+        if (tokenRevocationService.isRevoked(jwtUtils.getFamilyId(verification.getClaims()))) {
+            return;
+        }
+
+        // Claims récents : pas d'accès à la base. Sinon, revérification en base.
+        UserDetails userDetails = jwtUtils.getPrincipalFromClaims(verification.getClaims());
+        if (userDetails == null) {
+            userDetails = userDetailsService.loadUserByUsername(verification.getClaims().getSubject());
+        }
+
+        UsernamePasswordAuthenticationToken authentication = new UsernamePasswordAuthenticationToken(
+                userDetails,
+                null,
+                userDetails.getAuthorities());
+        authentication.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
+
+        SecurityContextHolder.getContext().setAuthentication(authentication);
+    }
+
     /**
      * Extrait le token JWT de l'en-tête Authorization
      */
@@ -1,14 +1,17 @@
 package com.homeservices.config;
 
+import com.homeservices.entity.User;
+import com.homeservices.enums.UserRole;
 import io.jsonwebtoken.*;
-import io.jsonwebtoken.io.Decoders;
 import io.jsonwebtoken.security.Keys;
+import io.jsonwebtoken.security.SecurityException;
+import jakarta.annotation.PostConstruct;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.core.Authentication;
-import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.stereotype.Component;
 
 import javax.crypto.SecretKey;
+import java.nio.charset.StandardCharsets;
 import java.util.Date;
 
 /**
@@ -17,6 +20,13 @@ import java.util.Date;
 @Component
 public class JwtUtils {
 
+    public static final String CLAIM_USER_ID = "uid";
+    public static final String CLAIM_ROLE = "role";
+    public static final String CLAIM_FAMILY = "fam";
+    public static final String CLAIM_TYPE = "typ";
+    public static final String TYPE_ACCESS = "access";
+    public static final String TYPE_REFRESH = "refresh";
+
     @Value("${app.jwt.secret}")
     private String jwtSecret;
 
@@ -26,84 +36,158 @@ public class JwtUtils {
     @Value("${app.jwt.refresh-expiration}")
     private Long refreshExpiration;
 
+    @Value("${app.jwt.claims-max-age}")
+    private Long claimsMaxAge;
+
+    private SecretKey signingKey;
+
+    private JwtParser parser;
+
     /**
-     * Génère la clé secrète à partir de la configuration
+     * Construit la clé de signature et le parser une seule fois au démarrage
+     * (tous deux sont immuables et thread-safe)
      */
-    private SecretKey getSigningKey() {
-        byte[] keyBytes = Decoders.BASE64.decode(java.util.Base64.getEncoder().encodeToString(jwtSecret.getBytes()));
-        return Keys.hmacShaKeyFor(keyBytes);
+    @PostConstruct
+    void init() {
+        signingKey = Keys.hmacShaKeyFor(jwtSecret.getBytes(StandardCharsets.UTF_8));
+        parser = Jwts.parser()
+                .verifyWith(signingKey)
+                .build();
     }
 
     /**
      * Génère un token JWT pour un utilisateur authentifié
      */
     public String generateToken(Authentication authentication) {
-        UserDetails userDetails = (UserDetails) authentication.getPrincipal();
-        return generateToken(userDetails.getUsername());
+        UserPrincipal principal = (UserPrincipal) authentication.getPrincipal();
+        return generateToken(principal.getId(), principal.getEmail(), principal.getRole(), null);
+    }
+
+    /**
+     * Génère un token JWT pour un utilisateur, rattaché à une famille de session
+     */
+    public String generateToken(User user, String familyId) {
+        return generateToken(user.getId(), user.getEmail(), user.getRole(), familyId);
     }
 
     /**
-     * Génère un token JWT à partir de l'email
+     * Génère un token JWT portant l'ID et le rôle de l'utilisateur,
+     * ce qui permet au filtre d'authentifier sans accès à la base
      */
-    public String generateToken(String email) {
+    public String generateToken(Long userId, String email, UserRole role, String familyId) {
         Date now = new Date();
         Date expiryDate = new Date(now.getTime() + jwtExpiration);
 
         return Jwts.builder()
                 .subject(email)
+                .claim(CLAIM_TYPE, TYPE_ACCESS)
+                .claim(CLAIM_USER_ID, userId)
+                .claim(CLAIM_ROLE, role.name())
+                .claim(CLAIM_FAMILY, familyId)
                 .issuedAt(now)
                 .expiration(expiryDate)
-                .signWith(getSigningKey())
+                .signWith(signingKey)
                 .compact();
     }
 
     /**
-     * Génère un refresh token
+     * Génère un refresh token identifié (jti) et rattaché à sa famille de rotation
      */
-    public String generateRefreshToken(String email) {
-        Date now = new Date();
-        Date expiryDate = new Date(now.getTime() + refreshExpiration);
-
+    public String generateRefreshToken(String email, String tokenId, String familyId, Date expiryDate) {
         return Jwts.builder()
+                .id(tokenId)
                 .subject(email)
-                .issuedAt(now)
+                .claim(CLAIM_TYPE, TYPE_REFRESH)
+                .claim(CLAIM_FAMILY, familyId)
+                .issuedAt(new Date())
                 .expiration(expiryDate)
-                .signWith(getSigningKey())
+                .signWith(signingKey)
                 .compact();
     }
 
+    /**
+     * Vérifie la signature et l'expiration du token en une seule passe
+     * et retourne les claims, ou la cause de l'échec
+     */
+    public TokenVerification verify(String token) {
+        if (token == null || token.isBlank()) {
+            return TokenVerification.failed(TokenVerification.Failure.EMPTY, "Token JWT vide");
+        }
+        try {
+            return TokenVerification.valid(parser.parseSignedClaims(token).getPayload());
+        } catch (ExpiredJwtException e) {
+            return TokenVerification.failed(TokenVerification.Failure.EXPIRED, e.getMessage());
+        } catch (MalformedJwtException e) {
+            return TokenVerification.failed(TokenVerification.Failure.MALFORMED, e.getMessage());
+        } catch (UnsupportedJwtException e) {
+            return TokenVerification.failed(TokenVerification.Failure.UNSUPPORTED, e.getMessage());
+        } catch (SecurityException e) {
+            return TokenVerification.failed(TokenVerification.Failure.INVALID_SIGNATURE, e.getMessage());
+        } catch (JwtException | IllegalArgumentException e) {
+            return TokenVerification.failed(TokenVerification.Failure.MALFORMED, e.getMessage());
+        }
+    }
+
+    /**
+     * Construit le principal à partir des claims d'un token vérifié.
+     * Retourne null si le token ne porte pas l'ID et le rôle, ou s'il a été
+     * émis depuis plus de app.jwt.claims-max-age : l'appelant doit alors
+     * recharger l'utilisateur depuis la base.
+     */
+    public UserPrincipal getPrincipalFromClaims(Claims claims) {
+        Number userId = claims.get(CLAIM_USER_ID, Number.class);
+        String role = claims.get(CLAIM_ROLE, String.class);
+        Date issuedAt = claims.getIssuedAt();
+        if (userId == null || role == null || issuedAt == null) {
+            return null;
+        }
+        if (System.currentTimeMillis() - issuedAt.getTime() > claimsMaxAge) {
+            return null;
+        }
+        try {
+            return new UserPrincipal(userId.longValue(), claims.getSubject(), null, UserRole.valueOf(role));
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+
     /**
      * Extrait l'email du token
      */
     public String getEmailFromToken(String token) {
-        Claims claims = Jwts.parser()
-                .verifyWith(getSigningKey())
-                .build()
-                .parseSignedClaims(token)
-                .getPayload();
-        return claims.getSubject();
+        return parser.parseSignedClaims(token).getPayload().getSubject();
     }
 
     /**
      * Valide un token JWT
      */
     public boolean validateToken(String token) {
-        try {
-            Jwts.parser()
-                    .verifyWith(getSigningKey())
-                    .build()
-                    .parseSignedClaims(token);
-            return true;
-        } catch (MalformedJwtException e) {
-            System.err.println("Token JWT malformé: " + e.getMessage());
-        } catch (ExpiredJwtException e) {
-            System.err.println("Token JWT expiré: " + e.getMessage());
-        } catch (UnsupportedJwtException e) {
-            System.err.println("Token JWT non supporté: " + e.getMessage());
-        } catch (IllegalArgumentException e) {
-            System.err.println("Token JWT vide: " + e.getMessage());
+        TokenVerification verification = verify(token);
+        if (!verification.isValid()) {
+            System.err.println("Token JWT refusé (" + verification.getFailure() + "): " + verification.getMessage());
         }
-        return false;
+        return verification.isValid();
+    }
+
+    /**
+     * Indique si les claims sont ceux d'un refresh token
+     */
+    public boolean isRefreshToken(Claims claims) {
+        return TYPE_REFRESH.equals(claims.get(CLAIM_TYPE, String.class));
+    }
+
+    /**
+     * Famille de session portée par le token (null pour un ancien token)
+     */
+    public String getFamilyId(Claims claims) {
+        return claims.get(CLAIM_FAMILY, String.class);
+    }
+
+    /**
+     * Retourne la durée d'expiration des refresh tokens
+     */
+    public Long getRefreshExpirationMs() {
+        return refreshExpiration;
     }
 
     /**
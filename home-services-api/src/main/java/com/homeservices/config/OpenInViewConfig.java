@@ -0,0 +1,30 @@
+package com.homeservices.config;
+
+import jakarta.persistence.EntityManagerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.orm.jpa.support.OpenEntityManagerInViewInterceptor;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+/**
+ * EntityManager ouvert pendant toute la requête, sauf sur /api/auth/**
+ *
+ * Remplace spring.jpa.open-in-view (désactivé) : Hibernate garde la connexion
+ * JDBC acquise jusqu'à la fermeture de l'EntityManager, donc une connexion
+ * prise pour charger l'utilisateur serait tenue pendant le hachage BCrypt.
+ * Les services d'authentification ne lisent rien hors de leurs transactions.
+ */
+@Configuration
+public class OpenInViewConfig implements WebMvcConfigurer {
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Override
+    public void addInterceptors(InterceptorRegistry registry) {
+        OpenEntityManagerInViewInterceptor interceptor = new OpenEntityManagerInViewInterceptor();
+        interceptor.setEntityManagerFactory(entityManagerFactory);
+        registry.addWebRequestInterceptor(interceptor).excludePathPatterns("/api/auth/**");
+    }
+}
@@ -0,0 +1,20 @@
+package com.homeservices.config;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Relance la méthode (et donc sa transaction) lorsqu'une écriture concurrente
+ * a modifié la même entité versionnée (@Version) entre-temps.
+ *
+ * La méthode doit pouvoir être rejouée depuis le début : elle relit ses
+ * entités à chaque tentative.
+ */
+@Documented
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+public @interface RetryOnConflict {
+}
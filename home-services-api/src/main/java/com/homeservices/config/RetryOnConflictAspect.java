@@ -0,0 +1,84 @@
+package com.homeservices.config;
+
+import com.homeservices.exception.ConflictException;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Relance des méthodes @RetryOnConflict sur conflit de version
+ *
+ * Placé avant l'intercepteur transactionnel : chaque tentative ouvre une
+ * nouvelle transaction. Appelé dans une transaction déjà ouverte, il laisse
+ * le conflit remonter à l'appelant (rejouer seul la fin de la transaction
+ * n'aurait pas de sens).
+ */
+@Aspect
+@Component
+@Order(Ordered.LOWEST_PRECEDENCE - 1)
+public class RetryOnConflictAspect {
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${app.optimistic-lock.max-attempts}")
+    private int maxAttempts;
+
+    @Value("${app.optimistic-lock.backoff}")
+    private Duration backoff;
+
+    @Around("@annotation(com.homeservices.config.RetryOnConflict)")
+    public Object retry(ProceedingJoinPoint joinPoint) throws Throwable {
+        if (TransactionSynchronizationManager.isActualTransactionActive()) {
+            return joinPoint.proceed();
+        }
+
+        String method = joinPoint.getSignature().getDeclaringType().getSimpleName()
+                + "." + joinPoint.getSignature().getName();
+        for (int attempt = 1; ; attempt++) {
+            try {
+                return joinPoint.proceed();
+            } catch (OptimisticLockingFailureException e) {
+                if (attempt >= maxAttempts) {
+                    meterRegistry.counter("optimistic_lock.conflicts", "method", method, "outcome", "exhausted")
+                            .increment();
+                    System.err.println("⚠️ Conflit de version persistant sur " + method + " après " + attempt
+                            + " tentatives");
+                    throw new ConflictException("La ressource a été modifiée simultanément, veuillez réessayer");
+                }
+                meterRegistry.counter("optimistic_lock.conflicts", "method", method, "outcome", "retried")
+                        .increment();
+                if (!pause(attempt)) {
+                    throw new ConflictException("La ressource a été modifiée simultanément, veuillez réessayer");
+                }
+            }
+        }
+    }
+
+    /**
+     * Attente croissante et aléatoire pour désynchroniser les écritures concurrentes
+     */
+    private boolean pause(int attempt) {
+        long max = backoff.toMillis() * attempt;
+        if (max > 0) {
+            try {
+                Thread.sleep(ThreadLocalRandom.current().nextLong(max / 2, max + 1));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return false;
+            }
+        }
+        return true;
+    }
+}
@@ -1,6 +1,9 @@
 package com.homeservices.config;
 
+import com.homeservices.dto.CursorPage;
+import io.micrometer.core.instrument.MeterRegistry;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.http.HttpMethod;
@@ -12,11 +15,18 @@ import org.springframework.security.config.annotation.method.configuration.Enabl
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
 import org.springframework.security.config.annotation.web.configuration.EnableWebSecurity;
 import org.springframework.security.config.http.SessionCreationPolicy;
+import org.springframework.security.core.userdetails.UserDetailsPasswordService;
 import org.springframework.security.core.userdetails.UserDetailsService;
-import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.DelegatingPasswordEncoder;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.security.web.SecurityFilterChain;
 import org.springframework.security.web.authentication.UsernamePasswordAuthenticationFilter;
+import org.springframework.web.cors.CorsConfiguration;
+import org.springframework.web.cors.CorsConfigurationSource;
+import org.springframework.web.cors.UrlBasedCorsConfigurationSource;
+
+import java.time.Duration;
+import java.util.Map;
 
 /**
  * Configuration Spring Security
@@ -33,24 +43,42 @@ public class SecurityConfig {
     @Autowired
     private UserDetailsService userDetailsService;
 
+    @Value("${app.security.password-hashing.threads}")
+    private int hashingThreads;
+
+    @Value("${app.security.password-hashing.queue-capacity}")
+    private int hashingQueueCapacity;
+
+    @Value("${app.security.password-hashing.max-wait}")
+    private Duration hashingMaxWait;
+
+    @Value("${app.security.password-hashing.budget}")
+    private Duration hashingBudget;
+
+    @Value("${app.security.password-hashing.min-strength}")
+    private int hashingMinStrength;
+
+    @Value("${app.security.password-hashing.max-strength}")
+    private int hashingMaxStrength;
+
+    @Value("${app.security.password-hashing.strength:0}")
+    private int hashingStrength;
+
+    @Value("${app.cors.max-age}")
+    private Duration corsMaxAge;
+
     /**
      * Configure la chaîne de filtres de sécurité
      */
     @Bean
-    public SecurityFilterChain filterChain(HttpSecurity http) throws Exception {
+    public SecurityFilterChain filterChain(HttpSecurity http, AuthenticationProvider authenticationProvider)
+            throws Exception {
         http
                 // Désactive CSRF pour l'API REST
                 .csrf(csrf -> csrf.disable())
 
                 // Configuration CORS
-                .cors(cors -> cors.configurationSource(request -> {
-                    var corsConfig = new org.springframework.web.cors.CorsConfiguration();
-                    corsConfig.addAllowedOriginPattern("*");
-                    corsConfig.addAllowedMethod("*");
-                    corsConfig.addAllowedHeader("*");
-                    corsConfig.setAllowCredentials(true);
-                    return corsConfig;
-                }))
+                .cors(cors -> cors.configurationSource(corsConfigurationSource()))
 
                 // Configuration des autorisations
                 .authorizeHttpRequests(auth -> auth
@@ -63,6 +91,8 @@ public class SecurityConfig {
 
                         // Endpoints Admin
                         .requestMatchers("/api/admin/**").hasAuthority("ADMINISTRATEUR")
+                        .requestMatchers("/actuator/health").permitAll()
+                        .requestMatchers("/actuator/**").hasAuthority("ADMINISTRATEUR")
 
                         // Endpoints Prestataire
                         .requestMatchers("/api/provider/**").hasAuthority("PRESTATAIRE")
@@ -76,7 +106,7 @@ public class SecurityConfig {
                         .sessionCreationPolicy(SessionCreationPolicy.STATELESS))
 
                 // Ajout du filtre JWT
-                .authenticationProvider(authenticationProvider())
+                .authenticationProvider(authenticationProvider)
                 .addFilterBefore(jwtAuthenticationFilter, UsernamePasswordAuthenticationFilter.class)
 
                 // Configuration pour H2 Console
@@ -86,21 +116,57 @@ public class SecurityConfig {
     }
 
     /**
-     * Encodeur de mot de passe BCrypt
+     * Politique CORS construite une seule fois
+     * Access-Control-Max-Age permet au navigateur de mettre en cache les requêtes préliminaires
+     */
+    @Bean
+    public CorsConfigurationSource corsConfigurationSource() {
+        CorsConfiguration corsConfig = new CorsConfiguration();
+        corsConfig.addAllowedOriginPattern("*");
+        corsConfig.addAllowedMethod("*");
+        corsConfig.addAllowedHeader("*");
+        corsConfig.setAllowCredentials(true);
+        corsConfig.addExposedHeader(CursorPage.NEXT_CURSOR_HEADER);
+        corsConfig.setMaxAge(corsMaxAge);
+
+        UrlBasedCorsConfigurationSource source = new UrlBasedCorsConfigurationSource();
+        source.registerCorsConfiguration("/**", corsConfig);
+        return source;
+    }
+
+    /**
+     * Encodeur de mot de passe BCrypt, exécuté sur un pool dédié et borné
+     *
+     * Les hashes sont stockés au format délégué ({bcrypt}$2a$...) ; les anciens
+     * hashes sans préfixe restent vérifiés par BCrypt. Le coût est calibré au
+     * démarrage selon le budget, sauf s'il est fixé par
+     * app.security.password-hashing.strength (utile pour un cluster hétérogène).
      */
     @Bean
-    public PasswordEncoder passwordEncoder() {
-        return new BCryptPasswordEncoder();
+    public PasswordEncoder passwordEncoder(MeterRegistry meterRegistry) {
+        CalibratedBCryptPasswordEncoder bcrypt = hashingStrength > 0
+                ? new CalibratedBCryptPasswordEncoder(hashingStrength)
+                : CalibratedBCryptPasswordEncoder.calibrate(hashingBudget, hashingMinStrength, hashingMaxStrength);
+
+        DelegatingPasswordEncoder delegating = new DelegatingPasswordEncoder("bcrypt", Map.of("bcrypt", bcrypt));
+        delegating.setDefaultPasswordEncoderForMatches(bcrypt);
+
+        return new BoundedPasswordEncoder(delegating,
+                hashingThreads, hashingQueueCapacity, hashingMaxWait, meterRegistry);
     }
 
     /**
      * Provider d'authentification
      */
     @Bean
-    public AuthenticationProvider authenticationProvider() {
+    public AuthenticationProvider authenticationProvider(PasswordEncoder passwordEncoder) {
         DaoAuthenticationProvider authProvider = new DaoAuthenticationProvider();
         authProvider.setUserDetailsService(userDetailsService);
-        authProvider.setPasswordEncoder(passwordEncoder());
+        authProvider.setPasswordEncoder(passwordEncoder);
+        // Ré-encode le mot de passe à la connexion si le coût a changé
+        if (userDetailsService instanceof UserDetailsPasswordService passwordService) {
+            authProvider.setUserDetailsPasswordService(passwordService);
+        }
         return authProvider;
     }
 
@@ -0,0 +1,55 @@
+package com.homeservices.config;
+
+import io.jsonwebtoken.Claims;
+
+/**
+ * Résultat de la vérification d'un token JWT
+ * Contient soit les claims vérifiés, soit la cause de l'échec
+ */
+public class TokenVerification {
+
+    /**
+     * Causes possibles d'échec de vérification
+     */
+    public enum Failure {
+        EMPTY,
+        MALFORMED,
+        EXPIRED,
+        UNSUPPORTED,
+        INVALID_SIGNATURE
+    }
+
+    private final Claims claims;
+    private final Failure failure;
+    private final String message;
+
+    private TokenVerification(Claims claims, Failure failure, String message) {
+        this.claims = claims;
+        this.failure = failure;
+        this.message = message;
+    }
+
+    public static TokenVerification valid(Claims claims) {
+        return new TokenVerification(claims, null, null);
+    }
+
+    public static TokenVerification failed(Failure failure, String message) {
+        return new TokenVerification(null, failure, message);
+    }
+
+    public boolean isValid() {
+        return claims != null;
+    }
+
+    public Claims getClaims() {
+        return claims;
+    }
+
+    public Failure getFailure() {
+        return failure;
+    }
+
+    public String getMessage() {
+        return message;
+    }
+}
@@ -0,0 +1,108 @@
+package com.homeservices.config;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import io.jsonwebtoken.Claims;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Base64;
+import java.util.Date;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cache des tokens JWT déjà vérifiés
+ *
+ * Un navigateur renvoie le même token des centaines de fois pendant sa durée
+ * de vie : les requêtes suivantes évitent la vérification HMAC et le parsing
+ * JSON. La clé est un condensé SHA-256 du token (le token lui-même n'est pas
+ * conservé) et chaque entrée expire à l'échéance (exp) de son token.
+ */
+@Component
+public class VerifiedTokenCache {
+
+    @Autowired
+    private JwtUtils jwtUtils;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${app.jwt.verified-cache.max-size}")
+    private long maxSize;
+
+    private Cache<String, Claims> cache;
+
+    private final ThreadLocal<MessageDigest> sha256 = ThreadLocal.withInitial(() -> {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    });
+
+    @PostConstruct
+    void init() {
+        cache = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfter(new Expiry<String, Claims>() {
+                    @Override
+                    public long expireAfterCreate(String key, Claims claims, long currentTime) {
+                        long remainingMs = claims.getExpiration().getTime() - System.currentTimeMillis();
+                        return TimeUnit.MILLISECONDS.toNanos(Math.max(remainingMs, 0));
+                    }
+
+                    @Override
+                    public long expireAfterUpdate(String key, Claims claims, long currentTime,
+                            long currentDuration) {
+                        return currentDuration;
+                    }
+
+                    @Override
+                    public long expireAfterRead(String key, Claims claims, long currentTime,
+                            long currentDuration) {
+                        return currentDuration;
+                    }
+                })
+                .recordStats()
+                .build();
+
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, "jwt.verified");
+    }
+
+    /**
+     * Vérifie un token en s'appuyant sur le cache ; seuls les tokens valides
+     * et portant une échéance sont mis en cache
+     */
+    public TokenVerification verify(String token) {
+        if (token == null || token.isBlank()) {
+            return jwtUtils.verify(token);
+        }
+
+        String key = digest(token);
+        Claims cached = cache.getIfPresent(key);
+        if (cached != null && cached.getExpiration().after(new Date())) {
+            return TokenVerification.valid(cached);
+        }
+
+        TokenVerification verification = jwtUtils.verify(token);
+        if (verification.isValid() && verification.getClaims().getExpiration() != null) {
+            cache.put(key, verification.getClaims());
+        }
+        return verification;
+    }
+
+    private String digest(String token) {
+        MessageDigest digest = sha256.get();
+        digest.reset();
+        byte[] hash = digest.digest(token.getBytes(StandardCharsets.US_ASCII));
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(hash);
+    }
+}
@@ -63,30 +63,36 @@ public class AdminController {
     }
 
     /**
-     * GET /api/admin/users
-     * Liste tous les utilisateurs
+     * GET /api/admin/users?cursor=&limit=
+     * Liste tous les utilisateurs, page par page (page suivante : en-tête X-Next-Cursor)
      */
     @GetMapping("/users")
-    public ResponseEntity<List<UserDTO>> getAllUsers() {
-        return ResponseEntity.ok(userService.getAllUsers());
+    public ResponseEntity<List<UserDTO>> getAllUsers(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer limit) {
+        return userService.getAllUsers(cursor, limit).toResponse();
     }
 
     /**
-     * GET /api/admin/reservations
-     * Liste toutes les réservations
+     * GET /api/admin/reservations?cursor=&limit=
+     * Liste toutes les réservations, page par page (page suivante : en-tête X-Next-Cursor)
      */
     @GetMapping("/reservations")
-    public ResponseEntity<List<ReservationDTO>> getAllReservations() {
-        return ResponseEntity.ok(reservationService.getAllReservations());
+    public ResponseEntity<List<ReservationDTO>> getAllReservations(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer limit) {
+        return reservationService.getAllReservations(cursor, limit).toResponse();
     }
 
     /**
-     * GET /api/admin/transactions
-     * Liste toutes les transactions
+     * GET /api/admin/transactions?cursor=&limit=
+     * Liste toutes les transactions, page par page (page suivante : en-tête X-Next-Cursor)
      */
     @GetMapping("/transactions")
-    public ResponseEntity<List<TransactionDTO>> getAllTransactions() {
-        return ResponseEntity.ok(paymentService.getAllTransactions());
+    public ResponseEntity<List<TransactionDTO>> getAllTransactions(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer limit) {
+        return paymentService.getAllTransactions(cursor, limit).toResponse();
     }
 
     /**
@@ -96,8 +102,8 @@ public class AdminController {
     @GetMapping("/activity")
     public ResponseEntity<ActivityDTO> getRecentActivity() {
         ActivityDTO activity = new ActivityDTO();
-        activity.setRecentReservations(reservationService.getAllReservations().stream().limit(10).toList());
-        activity.setRecentTransactions(paymentService.getAllTransactions().stream().limit(10).toList());
+        activity.setRecentReservations(reservationService.getAllReservations(null, 10).getItems());
+        activity.setRecentTransactions(paymentService.getAllTransactions(null, 10).getItems());
         return ResponseEntity.ok(activity);
     }
 
@@ -2,11 +2,14 @@ package com.homeservices.controller;
 
 import com.homeservices.dto.*;
 import com.homeservices.service.AuthService;
+import jakarta.servlet.http.HttpServletRequest;
 import jakarta.validation.Valid;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import java.util.Map;
+
 /**
  * Contrôleur d'authentification
  * Gère l'inscription, la connexion et le rafraîchissement des tokens
@@ -26,8 +29,9 @@ public class AuthController {
      * Inscription d'un nouvel utilisateur
      */
     @PostMapping("/register")
-    public ResponseEntity<AuthResponse> register(@Valid @RequestBody RegisterRequest request) {
-        AuthResponse response = authService.register(request);
+    public ResponseEntity<AuthResponse> register(@Valid @RequestBody RegisterRequest request,
+            HttpServletRequest httpRequest) {
+        AuthResponse response = authService.register(request, httpRequest.getRemoteAddr());
         return ResponseEntity.ok(response);
     }
 
@@ -36,8 +40,9 @@ public class AuthController {
      * Connexion d'un utilisateur
      */
     @PostMapping("/login")
-    public ResponseEntity<AuthResponse> login(@Valid @RequestBody LoginRequest request) {
-        AuthResponse response = authService.login(request);
+    public ResponseEntity<AuthResponse> login(@Valid @RequestBody LoginRequest request,
+            HttpServletRequest httpRequest) {
+        AuthResponse response = authService.login(request, httpRequest.getRemoteAddr());
         return ResponseEntity.ok(response);
     }
 
@@ -51,6 +56,16 @@ public class AuthController {
         return ResponseEntity.ok(response);
     }
 
+    /**
+     * POST /api/auth/logout
+     * Révoque la session associée au refresh token
+     */
+    @PostMapping("/logout")
+    public ResponseEntity<Map<String, String>> logout(@RequestBody RefreshTokenRequest request) {
+        authService.logout(request.getRefreshToken());
+        return ResponseEntity.ok(Map.of("message", "Déconnexion réussie"));
+    }
+
     /**
      * GET /api/auth/me
      * Récupère l'utilisateur connecté
@@ -0,0 +1,73 @@
+package com.homeservices.controller;
+
+import com.homeservices.dto.AvailabilityDTO;
+import com.homeservices.dto.AvailabilityExceptionDTO;
+import com.homeservices.service.AvailabilityService;
+import jakarta.validation.Valid;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Contrôleur des disponibilités
+ * Horaires hebdomadaires et exceptions du prestataire connecté
+ */
+@RestController
+@RequestMapping("/api/provider/availability")
+@CrossOrigin(origins = "*")
+@PreAuthorize("hasAuthority('PRESTATAIRE')")
+public class AvailabilityController {
+
+    @Autowired
+    private AvailabilityService availabilityService;
+
+    /**
+     * GET /api/provider/availability
+     * Horaires hebdomadaires du prestataire
+     */
+    @GetMapping
+    public ResponseEntity<List<AvailabilityDTO>> getWeeklyHours() {
+        return ResponseEntity.ok(availabilityService.getMyWeeklyHours());
+    }
+
+    /**
+     * PUT /api/provider/availability
+     * Remplace les horaires hebdomadaires du prestataire
+     */
+    @PutMapping
+    public ResponseEntity<List<AvailabilityDTO>> replaceWeeklyHours(@RequestBody List<AvailabilityDTO> hours) {
+        return ResponseEntity.ok(availabilityService.replaceMyWeeklyHours(hours));
+    }
+
+    /**
+     * GET /api/provider/availability/exceptions
+     * Exceptions à venir (congés, ouvertures ponctuelles)
+     */
+    @GetMapping("/exceptions")
+    public ResponseEntity<List<AvailabilityExceptionDTO>> getExceptions() {
+        return ResponseEntity.ok(availabilityService.getMyExceptions());
+    }
+
+    /**
+     * POST /api/provider/availability/exceptions
+     * Ajoute une exception
+     */
+    @PostMapping("/exceptions")
+    public ResponseEntity<AvailabilityExceptionDTO> addException(@Valid @RequestBody AvailabilityExceptionDTO request) {
+        return ResponseEntity.ok(availabilityService.addException(request));
+    }
+
+    /**
+     * DELETE /api/provider/availability/exceptions/{id}
+     * Supprime une exception
+     */
+    @DeleteMapping("/exceptions/{id}")
+    public ResponseEntity<Map<String, String>> deleteException(@PathVariable Long id) {
+        availabilityService.deleteException(id);
+        return ResponseEntity.ok(Map.of("message", "Exception supprimée"));
+    }
+}
@@ -36,12 +36,15 @@ public class PaymentController {
     }
 
     /**
-     * GET /api/payments/my
-     * Liste les transactions de l'utilisateur connecté
+     * GET /api/payments/my?cursor=&limit=
+     * Liste les transactions de l'utilisateur connecté, page par page
+     * (page suivante : en-tête X-Next-Cursor)
      */
     @GetMapping("/my")
-    public ResponseEntity<List<TransactionDTO>> getMyTransactions() {
-        return ResponseEntity.ok(paymentService.getMyTransactions());
+    public ResponseEntity<List<TransactionDTO>> getMyTransactions(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer limit) {
+        return paymentService.getMyTransactions(cursor, limit).toResponse();
     }
 
     /**
@@ -56,12 +59,14 @@ public class PaymentController {
     }
 
     /**
-     * GET /api/payments
-     * Liste toutes les transactions (admin uniquement)
+     * GET /api/payments?cursor=&limit=
+     * Liste toutes les transactions (admin uniquement), page par page
      */
     @GetMapping
     @PreAuthorize("hasAuthority('ADMINISTRATEUR')")
-    public ResponseEntity<List<TransactionDTO>> getAllTransactions() {
-        return ResponseEntity.ok(paymentService.getAllTransactions());
+    public ResponseEntity<List<TransactionDTO>> getAllTransactions(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer limit) {
+        return paymentService.getAllTransactions(cursor, limit).toResponse();
     }
 }
@@ -1,16 +1,26 @@
 package com.homeservices.controller;
 
+import com.homeservices.dto.CalendarDayDTO;
 import com.homeservices.dto.CreateReservationRequest;
+import com.homeservices.dto.DaySlotsDTO;
 import com.homeservices.dto.ReservationDTO;
+import com.homeservices.dto.StatusUpdateRequest;
+import com.homeservices.dto.StatusUpdateResultDTO;
 import com.homeservices.enums.ReservationStatus;
+import com.homeservices.service.AvailabilityService;
+import com.homeservices.service.IdempotencyService;
+import com.homeservices.service.ReservationCalendarService;
 import com.homeservices.service.ReservationService;
 import jakarta.validation.Valid;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
 
+import java.time.LocalDate;
 import java.util.List;
+import java.util.Map;
 
 /**
  * Contrôleur des réservations
@@ -21,26 +31,81 @@ import java.util.List;
 @CrossOrigin(origins = "*")
 public class ReservationController {
 
+    private static final String IDEMPOTENCY_KEY_HEADER = "Idempotency-Key";
+
     @Autowired
     private ReservationService reservationService;
 
+    @Autowired
+    private AvailabilityService availabilityService;
+
+    @Autowired
+    private IdempotencyService idempotencyService;
+
+    @Autowired
+    private ReservationCalendarService calendarService;
+
     /**
      * POST /api/reservations
      * Crée une nouvelle réservation (client uniquement)
+     * En-tête Idempotency-Key optionnel : les renvois de la même requête sont dédupliqués
      */
     @PostMapping
     @PreAuthorize("hasAuthority('CLIENT')")
-    public ResponseEntity<ReservationDTO> createReservation(@Valid @RequestBody CreateReservationRequest request) {
-        return ResponseEntity.ok(reservationService.createReservation(request));
+    public ResponseEntity<ReservationDTO> createReservation(@Valid @RequestBody CreateReservationRequest request,
+            @RequestHeader(value = IDEMPOTENCY_KEY_HEADER, required = false) String idempotencyKey) {
+        if (idempotencyKey == null) {
+            return ResponseEntity.ok(reservationService.createReservation(request));
+        }
+        // Un renvoi avec la même clé rejoue la réponse d'origine sans recréer de réservation
+        return ResponseEntity.ok(idempotencyService.execute("reservations.create", idempotencyKey, request,
+                ReservationDTO.class, () -> reservationService.createReservation(request)));
     }
 
     /**
-     * GET /api/reservations/my
-     * Liste les réservations de l'utilisateur connecté
+     * GET /api/reservations/my?cursor=&limit=
+     * Liste les réservations de l'utilisateur connecté, page par page
+     * (page suivante : en-tête X-Next-Cursor)
      */
     @GetMapping("/my")
-    public ResponseEntity<List<ReservationDTO>> getMyReservations() {
-        return ResponseEntity.ok(reservationService.getMyReservations());
+    public ResponseEntity<List<ReservationDTO>> getMyReservations(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer limit) {
+        return reservationService.getMyReservations(cursor, limit).toResponse();
+    }
+
+    /**
+     * GET /api/reservations/my/counts
+     * Nombre de réservations de l'utilisateur connecté par statut
+     */
+    @GetMapping("/my/counts")
+    public ResponseEntity<Map<ReservationStatus, Long>> getMyCounts() {
+        return ResponseEntity.ok(reservationService.getMyCounts());
+    }
+
+    /**
+     * GET /api/reservations/slots?providerServiceId=&from=&to=&durationMinutes=
+     * Créneaux réservables d'un service prestataire, jour par jour
+     */
+    @GetMapping("/slots")
+    public ResponseEntity<List<DaySlotsDTO>> getAvailableSlots(
+            @RequestParam Long providerServiceId,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+            @RequestParam(required = false) Integer durationMinutes) {
+        return ResponseEntity.ok(availabilityService.getAvailableSlots(providerServiceId, from, to, durationMinutes));
+    }
+
+    /**
+     * GET /api/reservations/calendar?from=&to=
+     * Réservations du prestataire connecté sur la période, regroupées par jour
+     */
+    @GetMapping("/calendar")
+    @PreAuthorize("hasAuthority('PRESTATAIRE')")
+    public ResponseEntity<List<CalendarDayDTO>> getCalendar(
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to) {
+        return ResponseEntity.ok(calendarService.getMyCalendar(from, to));
     }
 
     /**
@@ -64,6 +129,18 @@ public class ReservationController {
         return ResponseEntity.ok(reservationService.updateReservationStatus(id, request.getStatus()));
     }
 
+    /**
+     * PUT /api/reservations/status
+     * Met à jour le statut de plusieurs réservations en une fois (prestataire)
+     * Corps : [{"id": 1, "status": "TERMINEE"}, ...] ; résultat individuel par réservation
+     */
+    @PutMapping("/status")
+    @PreAuthorize("hasAuthority('PRESTATAIRE')")
+    public ResponseEntity<List<StatusUpdateResultDTO>> updateStatuses(
+            @RequestBody List<StatusUpdateRequest> changes) {
+        return ResponseEntity.ok(reservationService.updateReservationStatuses(changes));
+    }
+
     /**
      * PUT /api/reservations/{id}/cancel
      * Annule une réservation (client)
@@ -85,13 +162,15 @@ public class ReservationController {
     }
 
     /**
-     * GET /api/reservations
-     * Liste toutes les réservations (admin uniquement)
+     * GET /api/reservations?cursor=&limit=
+     * Liste toutes les réservations (admin uniquement), page par page
      */
     @GetMapping
     @PreAuthorize("hasAuthority('ADMINISTRATEUR')")
-    public ResponseEntity<List<ReservationDTO>> getAllReservations() {
-        return ResponseEntity.ok(reservationService.getAllReservations());
+    public ResponseEntity<List<ReservationDTO>> getAllReservations(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer limit) {
+        return reservationService.getAllReservations(cursor, limit).toResponse();
     }
 
     // ==================== DTO INTERNE ====================
@@ -0,0 +1,69 @@
+package com.homeservices.controller;
+
+import com.homeservices.dto.CreateReservationSeriesRequest;
+import com.homeservices.dto.ReservationSeriesDTO;
+import com.homeservices.dto.SeriesOccurrenceDTO;
+import com.homeservices.service.ReservationSeriesService;
+import jakarta.validation.Valid;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.*;
+
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * Contrôleur des réservations récurrentes
+ * Gère la création, la consultation des occurrences et l'annulation des séries
+ */
+@RestController
+@RequestMapping("/api/reservations/series")
+@CrossOrigin(origins = "*")
+public class ReservationSeriesController {
+
+    @Autowired
+    private ReservationSeriesService seriesService;
+
+    /**
+     * POST /api/reservations/series
+     * Crée une réservation récurrente (client uniquement)
+     */
+    @PostMapping
+    @PreAuthorize("hasAuthority('CLIENT')")
+    public ResponseEntity<ReservationSeriesDTO> createSeries(@Valid @RequestBody CreateReservationSeriesRequest request) {
+        return ResponseEntity.ok(seriesService.createSeries(request));
+    }
+
+    /**
+     * GET /api/reservations/series/my
+     * Liste les séries de l'utilisateur connecté
+     */
+    @GetMapping("/my")
+    public ResponseEntity<List<ReservationSeriesDTO>> getMySeries() {
+        return ResponseEntity.ok(seriesService.getMySeries());
+    }
+
+    /**
+     * GET /api/reservations/series/{id}/occurrences?from=&to=
+     * Occurrences d'une série sur une période (réservées ou à venir)
+     */
+    @GetMapping("/{id}/occurrences")
+    public ResponseEntity<List<SeriesOccurrenceDTO>> getOccurrences(
+            @PathVariable Long id,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to) {
+        return ResponseEntity.ok(seriesService.getOccurrences(id, from, to));
+    }
+
+    /**
+     * PUT /api/reservations/series/{id}/cancel
+     * Annule une série et ses occurrences à venir (client)
+     */
+    @PutMapping("/{id}/cancel")
+    @PreAuthorize("hasAuthority('CLIENT')")
+    public ResponseEntity<ReservationSeriesDTO> cancelSeries(@PathVariable Long id) {
+        return ResponseEntity.ok(seriesService.cancelSeries(id));
+    }
+}
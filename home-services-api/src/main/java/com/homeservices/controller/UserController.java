@@ -1,13 +1,16 @@
 package com.homeservices.controller;
 
+import com.homeservices.dto.ChangePasswordRequest;
 import com.homeservices.dto.UserDTO;
 import com.homeservices.service.UserService;
+import jakarta.validation.Valid;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
 
 import java.util.List;
+import java.util.Map;
 
 /**
  * Contrôleur utilisateur
@@ -39,6 +42,16 @@ public class UserController {
         return ResponseEntity.ok(userService.updateProfile(request));
     }
 
+    /**
+     * PUT /api/users/me/password
+     * Change le mot de passe et révoque toutes les sessions de l'utilisateur
+     */
+    @PutMapping("/me/password")
+    public ResponseEntity<Map<String, String>> changePassword(@Valid @RequestBody ChangePasswordRequest request) {
+        userService.changePassword(request.getCurrentPassword(), request.getNewPassword());
+        return ResponseEntity.ok(Map.of("message", "Mot de passe modifié avec succès"));
+    }
+
     /**
      * GET /api/users/providers
      * Liste tous les prestataires (pour les clients)
@@ -59,13 +72,15 @@ public class UserController {
     }
 
     /**
-     * GET /api/users
-     * Liste tous les utilisateurs (admin uniquement)
+     * GET /api/users?cursor=&limit=
+     * Liste tous les utilisateurs (admin uniquement), page par page
      */
     @GetMapping
     @PreAuthorize("hasAuthority('ADMINISTRATEUR')")
-    public ResponseEntity<List<UserDTO>> getAllUsers() {
-        return ResponseEntity.ok(userService.getAllUsers());
+    public ResponseEntity<List<UserDTO>> getAllUsers(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer limit) {
+        return userService.getAllUsers(cursor, limit).toResponse();
     }
 
     /**
@@ -0,0 +1,49 @@
+package com.homeservices.dto;
+
+import com.homeservices.entity.ProviderAvailability;
+import java.time.DayOfWeek;
+import java.time.LocalTime;
+
+/**
+ * DTO pour une plage de travail hebdomadaire
+ */
+public class AvailabilityDTO {
+
+    private DayOfWeek dayOfWeek;
+    private LocalTime startTime;
+    private LocalTime endTime;
+
+    public AvailabilityDTO() {
+    }
+
+    public AvailabilityDTO(ProviderAvailability a) {
+        this.dayOfWeek = a.getDayOfWeek();
+        this.startTime = a.getStartTime();
+        this.endTime = a.getEndTime();
+    }
+
+    // Getters et Setters
+    public DayOfWeek getDayOfWeek() {
+        return dayOfWeek;
+    }
+
+    public void setDayOfWeek(DayOfWeek dayOfWeek) {
+        this.dayOfWeek = dayOfWeek;
+    }
+
+    public LocalTime getStartTime() {
+        return startTime;
+    }
+
+    public void setStartTime(LocalTime startTime) {
+        this.startTime = startTime;
+    }
+
+    public LocalTime getEndTime() {
+        return endTime;
+    }
+
+    public void setEndTime(LocalTime endTime) {
+        this.endTime = endTime;
+    }
+}
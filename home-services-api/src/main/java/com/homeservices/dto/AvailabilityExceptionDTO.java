@@ -0,0 +1,83 @@
+package com.homeservices.dto;
+
+import com.homeservices.entity.AvailabilityException;
+import jakarta.validation.constraints.NotNull;
+import java.time.LocalDate;
+import java.time.LocalTime;
+
+/**
+ * DTO pour une exception de disponibilité (congé, ouverture ponctuelle)
+ */
+public class AvailabilityExceptionDTO {
+
+    private Long id;
+
+    @NotNull(message = "La date est obligatoire")
+    private LocalDate date;
+
+    private LocalTime startTime;
+    private LocalTime endTime;
+    private Boolean available = false;
+    private String reason;
+
+    public AvailabilityExceptionDTO() {
+    }
+
+    public AvailabilityExceptionDTO(AvailabilityException e) {
+        this.id = e.getId();
+        this.date = e.getDate();
+        this.startTime = e.getStartTime();
+        this.endTime = e.getEndTime();
+        this.available = e.getAvailable();
+        this.reason = e.getReason();
+    }
+
+    // Getters et Setters
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public LocalDate getDate() {
+        return date;
+    }
+
+    public void setDate(LocalDate date) {
+        this.date = date;
+    }
+
+    public LocalTime getStartTime() {
+        return startTime;
+    }
+
+    public void setStartTime(LocalTime startTime) {
+        this.startTime = startTime;
+    }
+
+    public LocalTime getEndTime() {
+        return endTime;
+    }
+
+    public void setEndTime(LocalTime endTime) {
+        this.endTime = endTime;
+    }
+
+    public Boolean getAvailable() {
+        return available;
+    }
+
+    public void setAvailable(Boolean available) {
+        this.available = available;
+    }
+
+    public String getReason() {
+        return reason;
+    }
+
+    public void setReason(String reason) {
+        this.reason = reason;
+    }
+}
@@ -0,0 +1,56 @@
+package com.homeservices.dto;
+
+import com.homeservices.entity.Reservation;
+
+import java.time.LocalDateTime;
+
+/**
+ * Créneau occupé d'un prestataire : [start, end)
+ */
+public class BookedInterval {
+
+    private final Long reservationId;
+    private final Long providerId;
+    private final LocalDateTime start;
+    private final LocalDateTime end;
+
+    public BookedInterval(Long reservationId, Long providerId, LocalDateTime start, LocalDateTime end) {
+        this.reservationId = reservationId;
+        this.providerId = providerId;
+        this.start = start;
+        this.end = end;
+    }
+
+    /**
+     * Constructeur de projection JPQL (ends_at peut être vide sur les anciennes lignes)
+     */
+    public BookedInterval(Long reservationId, Long providerId, LocalDateTime start, LocalDateTime end,
+            Integer durationMinutes) {
+        this(reservationId, providerId, start, end != null ? end : start.plusMinutes(durationMinutes));
+    }
+
+    public static BookedInterval of(Reservation reservation) {
+        return new BookedInterval(reservation.getId(), reservation.getProviderId(),
+                reservation.getScheduledDate(), reservation.getEndsAt());
+    }
+
+    public boolean overlaps(LocalDateTime otherStart, LocalDateTime otherEnd) {
+        return start.isBefore(otherEnd) && otherStart.isBefore(end);
+    }
+
+    public Long getReservationId() {
+        return reservationId;
+    }
+
+    public Long getProviderId() {
+        return providerId;
+    }
+
+    public LocalDateTime getStart() {
+        return start;
+    }
+
+    public LocalDateTime getEnd() {
+        return end;
+    }
+}
@@ -0,0 +1,38 @@
+package com.homeservices.dto;
+
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * DTO des réservations d'une journée du calendrier prestataire (triées par heure)
+ */
+public class CalendarDayDTO {
+
+    private LocalDate date;
+    private List<ReservationDTO> reservations;
+
+    public CalendarDayDTO() {
+    }
+
+    public CalendarDayDTO(LocalDate date, List<ReservationDTO> reservations) {
+        this.date = date;
+        this.reservations = reservations;
+    }
+
+    // Getters et Setters
+    public LocalDate getDate() {
+        return date;
+    }
+
+    public void setDate(LocalDate date) {
+        this.date = date;
+    }
+
+    public List<ReservationDTO> getReservations() {
+        return reservations;
+    }
+
+    public void setReservations(List<ReservationDTO> reservations) {
+        this.reservations = reservations;
+    }
+}
@@ -0,0 +1,39 @@
+package com.homeservices.dto;
+
+import java.util.Objects;
+
+/**
+ * Empreinte des réservations d'un prestataire sur une période (projection d'un agrégat)
+ *
+ * Toute création, suppression ou mise à jour d'une réservation de la période
+ * change le nombre de lignes, la somme des versions ou le plus grand ID,
+ * quelle que soit l'instance qui l'a faite.
+ */
+public class CalendarVersion {
+
+    private final long count;
+    private final long versionSum;
+    private final long maxId;
+
+    public CalendarVersion(Long count, Long versionSum, Long maxId) {
+        this.count = count != null ? count : 0;
+        this.versionSum = versionSum != null ? versionSum : 0;
+        this.maxId = maxId != null ? maxId : 0;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof CalendarVersion other)) {
+            return false;
+        }
+        return count == other.count && versionSum == other.versionSum && maxId == other.maxId;
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(count, versionSum, maxId);
+    }
+}
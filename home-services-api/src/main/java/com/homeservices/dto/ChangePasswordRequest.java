@@ -0,0 +1,36 @@
+package com.homeservices.dto;
+
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.Size;
+
+/**
+ * DTO pour la requête de changement de mot de passe
+ */
+public class ChangePasswordRequest {
+
+    @NotBlank(message = "Le mot de passe actuel est obligatoire")
+    private String currentPassword;
+
+    @NotBlank(message = "Le nouveau mot de passe est obligatoire")
+    @Size(min = 6, message = "Le mot de passe doit contenir au moins 6 caractères")
+    private String newPassword;
+
+    public ChangePasswordRequest() {
+    }
+
+    public String getCurrentPassword() {
+        return currentPassword;
+    }
+
+    public void setCurrentPassword(String currentPassword) {
+        this.currentPassword = currentPassword;
+    }
+
+    public String getNewPassword() {
+        return newPassword;
+    }
+
+    public void setNewPassword(String newPassword) {
+        this.newPassword = newPassword;
+    }
+}
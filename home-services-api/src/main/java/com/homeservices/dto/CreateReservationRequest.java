@@ -1,5 +1,7 @@
 package com.homeservices.dto;
 
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Min;
 import jakarta.validation.constraints.NotNull;
 import jakarta.validation.constraints.Positive;
 import java.time.LocalDateTime;
@@ -15,6 +17,10 @@ public class CreateReservationRequest {
     @NotNull(message = "La date de rendez-vous est obligatoire")
     private LocalDateTime scheduledDate;
 
+    @Min(value = 15, message = "La durée minimale est de 15 minutes")
+    @Max(value = 720, message = "La durée maximale est de 12 heures")
+    private Integer durationMinutes;
+
     private String notes;
     private String address;
 
@@ -37,6 +43,14 @@ public class CreateReservationRequest {
         this.scheduledDate = scheduledDate;
     }
 
+    public Integer getDurationMinutes() {
+        return durationMinutes;
+    }
+
+    public void setDurationMinutes(Integer durationMinutes) {
+        this.durationMinutes = durationMinutes;
+    }
+
     public String getNotes() {
         return notes;
     }
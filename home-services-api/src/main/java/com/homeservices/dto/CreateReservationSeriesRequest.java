@@ -0,0 +1,61 @@
+package com.homeservices.dto;
+
+import com.homeservices.enums.RecurrenceFrequency;
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.NotNull;
+import java.time.LocalDate;
+
+/**
+ * DTO pour créer une réservation récurrente
+ * scheduledDate est la date de la première occurrence
+ */
+public class CreateReservationSeriesRequest extends CreateReservationRequest {
+
+    @NotNull(message = "La fréquence est obligatoire")
+    private RecurrenceFrequency frequency;
+
+    @Min(value = 1, message = "L'intervalle minimal est de 1")
+    @Max(value = 12, message = "L'intervalle maximal est de 12")
+    private Integer repeatInterval;
+
+    private LocalDate untilDate;
+
+    @Min(value = 2, message = "Une série compte au moins 2 occurrences")
+    private Integer maxOccurrences;
+
+    public CreateReservationSeriesRequest() {
+    }
+
+    public RecurrenceFrequency getFrequency() {
+        return frequency;
+    }
+
+    public void setFrequency(RecurrenceFrequency frequency) {
+        this.frequency = frequency;
+    }
+
+    public Integer getRepeatInterval() {
+        return repeatInterval;
+    }
+
+    public void setRepeatInterval(Integer repeatInterval) {
+        this.repeatInterval = repeatInterval;
+    }
+
+    public LocalDate getUntilDate() {
+        return untilDate;
+    }
+
+    public void setUntilDate(LocalDate untilDate) {
+        this.untilDate = untilDate;
+    }
+
+    public Integer getMaxOccurrences() {
+        return maxOccurrences;
+    }
+
+    public void setMaxOccurrences(Integer maxOccurrences) {
+        this.maxOccurrences = maxOccurrences;
+    }
+}
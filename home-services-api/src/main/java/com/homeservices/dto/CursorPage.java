@@ -0,0 +1,103 @@
+package com.homeservices.dto;
+
+import com.homeservices.util.KeysetCursor;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.http.ResponseEntity;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * Page de résultats paginée par curseur
+ *
+ * Le corps de la réponse reste une liste (compatibilité avec les clients
+ * existants) ; le curseur de la page suivante est renvoyé dans l'en-tête
+ * X-Next-Cursor, absent sur la dernière page.
+ */
+public class CursorPage<T> {
+
+    public static final String NEXT_CURSOR_HEADER = "X-Next-Cursor";
+    public static final int DEFAULT_LIMIT = 50;
+    public static final int MAX_LIMIT = 200;
+
+    private final List<T> items;
+    private final String nextCursor;
+
+    public CursorPage(List<T> items, String nextCursor) {
+        this.items = items;
+        this.nextCursor = nextCursor;
+    }
+
+    /**
+     * Taille de page bornée à [1, MAX_LIMIT]
+     */
+    public static int clampLimit(Integer limit) {
+        if (limit == null) {
+            return DEFAULT_LIMIT;
+        }
+        return Math.max(1, Math.min(limit, MAX_LIMIT));
+    }
+
+    /**
+     * Requête d'une ligne de plus que la page, pour savoir s'il en reste
+     */
+    public static Pageable probe(int limit) {
+        return PageRequest.ofSize(limit + 1);
+    }
+
+    /**
+     * Construit la page à partir des lignes lues avec probe(limit)
+     */
+    public static <T> CursorPage<T> of(List<T> rows, int limit,
+            Function<T, LocalDateTime> timestamp, Function<T, Long> id) {
+        if (rows.size() <= limit) {
+            return new CursorPage<>(rows, null);
+        }
+        List<T> items = rows.subList(0, limit);
+        T last = items.get(limit - 1);
+        return new CursorPage<>(items, new KeysetCursor(timestamp.apply(last), id.apply(last)).encode());
+    }
+
+    /**
+     * Fusionne deux listes triées par (date, id) décroissants en gardant les max premières lignes
+     * (lignes lues depuis deux tables avec le même curseur)
+     */
+    public static <T> List<T> merge(List<T> first, List<T> second, int max,
+            Function<T, LocalDateTime> timestamp, Function<T, Long> id) {
+        Comparator<T> newestFirst = Comparator.comparing(timestamp).thenComparing(id).reversed();
+        List<T> merged = new ArrayList<>(Math.min(max, first.size() + second.size()));
+        int i = 0;
+        int j = 0;
+        while (merged.size() < max && (i < first.size() || j < second.size())) {
+            if (j == second.size() || (i < first.size() && newestFirst.compare(first.get(i), second.get(j)) <= 0)) {
+                merged.add(first.get(i++));
+            } else {
+                merged.add(second.get(j++));
+            }
+        }
+        return merged;
+    }
+
+    /**
+     * Réponse HTTP : liste dans le corps, curseur suivant dans l'en-tête
+     */
+    public ResponseEntity<List<T>> toResponse() {
+        ResponseEntity.BodyBuilder builder = ResponseEntity.ok();
+        if (nextCursor != null) {
+            builder.header(NEXT_CURSOR_HEADER, nextCursor);
+        }
+        return builder.body(items);
+    }
+
+    public List<T> getItems() {
+        return items;
+    }
+
+    public String getNextCursor() {
+        return nextCursor;
+    }
+}
@@ -0,0 +1,39 @@
+package com.homeservices.dto;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.List;
+
+/**
+ * DTO des créneaux réservables d'une journée (heures de début)
+ */
+public class DaySlotsDTO {
+
+    private LocalDate date;
+    private List<LocalTime> startTimes;
+
+    public DaySlotsDTO() {
+    }
+
+    public DaySlotsDTO(LocalDate date, List<LocalTime> startTimes) {
+        this.date = date;
+        this.startTimes = startTimes;
+    }
+
+    // Getters et Setters
+    public LocalDate getDate() {
+        return date;
+    }
+
+    public void setDate(LocalDate date) {
+        this.date = date;
+    }
+
+    public List<LocalTime> getStartTimes() {
+        return startTimes;
+    }
+
+    public void setStartTimes(List<LocalTime> startTimes) {
+        this.startTimes = startTimes;
+    }
+}
@@ -1,6 +1,7 @@
 package com.homeservices.dto;
 
 import com.homeservices.entity.ProviderService;
+import com.homeservices.enums.ServiceType;
 import java.math.BigDecimal;
 
 /**
@@ -41,6 +42,28 @@ public class ProviderServiceDTO {
         this.experienceYears = ps.getExperienceYears();
     }
 
+    /**
+     * Constructeur de projection JPQL (SELECT new ...) : aucune entité chargée
+     */
+    public ProviderServiceDTO(Long id, Long providerId, String providerFirstName, String providerLastName,
+            String providerEmail, String providerPhone, Long serviceId, String serviceName,
+            ServiceType serviceType, String serviceIcon, BigDecimal price, String description,
+            Boolean available, Integer experienceYears) {
+        this.id = id;
+        this.providerId = providerId;
+        this.providerName = providerFirstName + " " + providerLastName;
+        this.providerEmail = providerEmail;
+        this.providerPhone = providerPhone;
+        this.serviceId = serviceId;
+        this.serviceName = serviceName;
+        this.serviceType = serviceType.name();
+        this.serviceIcon = serviceIcon;
+        this.price = price;
+        this.description = description;
+        this.available = available;
+        this.experienceYears = experienceYears;
+    }
+
     // Getters et Setters
     public Long getId() {
         return id;
@@ -2,6 +2,7 @@ package com.homeservices.dto;
 
 import com.homeservices.entity.Reservation;
 import com.homeservices.enums.ReservationStatus;
+import com.homeservices.enums.ServiceType;
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
 
@@ -22,10 +23,13 @@ public class ReservationDTO {
     private String serviceType;
     private BigDecimal price;
     private LocalDateTime scheduledDate;
+    private Integer durationMinutes;
+    private LocalDateTime endsAt;
     private ReservationStatus status;
     private String notes;
     private String address;
     private LocalDateTime createdAt;
+    private Long seriesId;
     private Boolean isPaid;
 
     public ReservationDTO() {
@@ -44,13 +48,47 @@ public class ReservationDTO {
         this.serviceType = r.getProviderService().getServiceCatalog().getType().name();
         this.price = r.getProviderService().getPrice();
         this.scheduledDate = r.getScheduledDate();
+        this.durationMinutes = r.getDurationMinutes();
+        this.endsAt = r.getEndsAt();
         this.status = r.getStatus();
         this.notes = r.getNotes();
         this.address = r.getAddress();
         this.createdAt = r.getCreatedAt();
+        this.seriesId = r.getSeries() != null ? r.getSeries().getId() : null;
         this.isPaid = r.getTransaction() != null;
     }
 
+    /**
+     * Constructeur de projection JPQL (SELECT new ...) : aucune entité chargée
+     */
+    public ReservationDTO(Long id, Long clientId, String clientFirstName, String clientLastName,
+            String clientEmail, String clientPhone, Long providerServiceId, Long providerId,
+            String providerFirstName, String providerLastName, String serviceName, ServiceType serviceType,
+            BigDecimal price, LocalDateTime scheduledDate, Integer durationMinutes, LocalDateTime endsAt,
+            ReservationStatus status, String notes,
+            String address, LocalDateTime createdAt, Long seriesId, Long transactionId) {
+        this.id = id;
+        this.clientId = clientId;
+        this.clientName = clientFirstName + " " + clientLastName;
+        this.clientEmail = clientEmail;
+        this.clientPhone = clientPhone;
+        this.providerServiceId = providerServiceId;
+        this.providerId = providerId;
+        this.providerName = providerFirstName + " " + providerLastName;
+        this.serviceName = serviceName;
+        this.serviceType = serviceType.name();
+        this.price = price;
+        this.scheduledDate = scheduledDate;
+        this.durationMinutes = durationMinutes;
+        this.endsAt = endsAt;
+        this.status = status;
+        this.notes = notes;
+        this.address = address;
+        this.createdAt = createdAt;
+        this.seriesId = seriesId;
+        this.isPaid = transactionId != null;
+    }
+
     // Getters et Setters
     public Long getId() {
         return id;
@@ -148,6 +186,22 @@ public class ReservationDTO {
         this.scheduledDate = scheduledDate;
     }
 
+    public Integer getDurationMinutes() {
+        return durationMinutes;
+    }
+
+    public void setDurationMinutes(Integer durationMinutes) {
+        this.durationMinutes = durationMinutes;
+    }
+
+    public LocalDateTime getEndsAt() {
+        return endsAt;
+    }
+
+    public void setEndsAt(LocalDateTime endsAt) {
+        this.endsAt = endsAt;
+    }
+
     public ReservationStatus getStatus() {
         return status;
     }
@@ -180,6 +234,14 @@ public class ReservationDTO {
         this.createdAt = createdAt;
     }
 
+    public Long getSeriesId() {
+        return seriesId;
+    }
+
+    public void setSeriesId(Long seriesId) {
+        this.seriesId = seriesId;
+    }
+
     public Boolean getIsPaid() {
         return isPaid;
     }
@@ -0,0 +1,170 @@
+package com.homeservices.dto;
+
+import com.homeservices.entity.ReservationSeries;
+import com.homeservices.enums.RecurrenceFrequency;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+/**
+ * DTO pour les séries de réservations
+ */
+public class ReservationSeriesDTO {
+
+    private Long id;
+    private Long clientId;
+    private Long providerServiceId;
+    private Long providerId;
+    private LocalDateTime firstDate;
+    private RecurrenceFrequency frequency;
+    private Integer repeatInterval;
+    private LocalDate untilDate;
+    private Integer maxOccurrences;
+    private Integer durationMinutes;
+    private String notes;
+    private String address;
+    private LocalDateTime materializedUntil;
+    private LocalDateTime cancelledAt;
+    private LocalDateTime createdAt;
+
+    public ReservationSeriesDTO() {
+    }
+
+    public ReservationSeriesDTO(ReservationSeries s) {
+        this.id = s.getId();
+        this.clientId = s.getClient().getId();
+        this.providerServiceId = s.getProviderService().getId();
+        this.providerId = s.getProviderId();
+        this.firstDate = s.getFirstDate();
+        this.frequency = s.getFrequency();
+        this.repeatInterval = s.getRepeatInterval();
+        this.untilDate = s.getUntilDate();
+        this.maxOccurrences = s.getMaxOccurrences();
+        this.durationMinutes = s.getDurationMinutes();
+        this.notes = s.getNotes();
+        this.address = s.getAddress();
+        this.materializedUntil = s.getMaterializedUntil();
+        this.cancelledAt = s.getCancelledAt();
+        this.createdAt = s.getCreatedAt();
+    }
+
+    // Getters et Setters
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public Long getClientId() {
+        return clientId;
+    }
+
+    public void setClientId(Long clientId) {
+        this.clientId = clientId;
+    }
+
+    public Long getProviderServiceId() {
+        return providerServiceId;
+    }
+
+    public void setProviderServiceId(Long providerServiceId) {
+        this.providerServiceId = providerServiceId;
+    }
+
+    public Long getProviderId() {
+        return providerId;
+    }
+
+    public void setProviderId(Long providerId) {
+        this.providerId = providerId;
+    }
+
+    public LocalDateTime getFirstDate() {
+        return firstDate;
+    }
+
+    public void setFirstDate(LocalDateTime firstDate) {
+        this.firstDate = firstDate;
+    }
+
+    public RecurrenceFrequency getFrequency() {
+        return frequency;
+    }
+
+    public void setFrequency(RecurrenceFrequency frequency) {
+        this.frequency = frequency;
+    }
+
+    public Integer getRepeatInterval() {
+        return repeatInterval;
+    }
+
+    public void setRepeatInterval(Integer repeatInterval) {
+        this.repeatInterval = repeatInterval;
+    }
+
+    public LocalDate getUntilDate() {
+        return untilDate;
+    }
+
+    public void setUntilDate(LocalDate untilDate) {
+        this.untilDate = untilDate;
+    }
+
+    public Integer getMaxOccurrences() {
+        return maxOccurrences;
+    }
+
+    public void setMaxOccurrences(Integer maxOccurrences) {
+        this.maxOccurrences = maxOccurrences;
+    }
+
+    public Integer getDurationMinutes() {
+        return durationMinutes;
+    }
+
+    public void setDurationMinutes(Integer durationMinutes) {
+        this.durationMinutes = durationMinutes;
+    }
+
+    public String getNotes() {
+        return notes;
+    }
+
+    public void setNotes(String notes) {
+        this.notes = notes;
+    }
+
+    public String getAddress() {
+        return address;
+    }
+
+    public void setAddress(String address) {
+        this.address = address;
+    }
+
+    public LocalDateTime getMaterializedUntil() {
+        return materializedUntil;
+    }
+
+    public void setMaterializedUntil(LocalDateTime materializedUntil) {
+        this.materializedUntil = materializedUntil;
+    }
+
+    public LocalDateTime getCancelledAt() {
+        return cancelledAt;
+    }
+
+    public void setCancelledAt(LocalDateTime cancelledAt) {
+        this.cancelledAt = cancelledAt;
+    }
+
+    public LocalDateTime getCreatedAt() {
+        return createdAt;
+    }
+
+    public void setCreatedAt(LocalDateTime createdAt) {
+        this.createdAt = createdAt;
+    }
+}
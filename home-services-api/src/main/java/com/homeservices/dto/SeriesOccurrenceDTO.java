@@ -0,0 +1,56 @@
+package com.homeservices.dto;
+
+import com.homeservices.enums.ReservationStatus;
+import java.time.LocalDateTime;
+
+/**
+ * Occurrence d'une série de réservations
+ * reservationId et status sont null tant que l'occurrence n'est pas matérialisée
+ */
+public class SeriesOccurrenceDTO {
+
+    private LocalDateTime scheduledDate;
+    private Long reservationId;
+    private ReservationStatus status;
+
+    public SeriesOccurrenceDTO() {
+    }
+
+    /**
+     * Constructeur de projection JPQL (occurrence matérialisée)
+     */
+    public SeriesOccurrenceDTO(LocalDateTime scheduledDate, Long reservationId, ReservationStatus status) {
+        this.scheduledDate = scheduledDate;
+        this.reservationId = reservationId;
+        this.status = status;
+    }
+
+    // Getters et Setters
+    public LocalDateTime getScheduledDate() {
+        return scheduledDate;
+    }
+
+    public void setScheduledDate(LocalDateTime scheduledDate) {
+        this.scheduledDate = scheduledDate;
+    }
+
+    public Long getReservationId() {
+        return reservationId;
+    }
+
+    public void setReservationId(Long reservationId) {
+        this.reservationId = reservationId;
+    }
+
+    public ReservationStatus getStatus() {
+        return status;
+    }
+
+    public void setStatus(ReservationStatus status) {
+        this.status = status;
+    }
+
+    public boolean isMaterialized() {
+        return reservationId != null;
+    }
+}
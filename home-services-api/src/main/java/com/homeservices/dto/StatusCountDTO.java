@@ -0,0 +1,37 @@
+package com.homeservices.dto;
+
+import com.homeservices.enums.ReservationStatus;
+
+/**
+ * Nombre de réservations d'un statut (projection d'un GROUP BY)
+ */
+public class StatusCountDTO {
+
+    private ReservationStatus status;
+    private Long count;
+
+    public StatusCountDTO() {
+    }
+
+    public StatusCountDTO(ReservationStatus status, Long count) {
+        this.status = status;
+        this.count = count;
+    }
+
+    // Getters et Setters
+    public ReservationStatus getStatus() {
+        return status;
+    }
+
+    public void setStatus(ReservationStatus status) {
+        this.status = status;
+    }
+
+    public Long getCount() {
+        return count;
+    }
+
+    public void setCount(Long count) {
+        this.count = count;
+    }
+}
@@ -0,0 +1,37 @@
+package com.homeservices.dto;
+
+import com.homeservices.enums.ReservationStatus;
+
+/**
+ * Changement de statut demandé pour une réservation (mise à jour groupée)
+ */
+public class StatusUpdateRequest {
+
+    private Long id;
+    private ReservationStatus status;
+
+    public StatusUpdateRequest() {
+    }
+
+    public StatusUpdateRequest(Long id, ReservationStatus status) {
+        this.id = id;
+        this.status = status;
+    }
+
+    // Getters et Setters
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public ReservationStatus getStatus() {
+        return status;
+    }
+
+    public void setStatus(ReservationStatus status) {
+        this.status = status;
+    }
+}
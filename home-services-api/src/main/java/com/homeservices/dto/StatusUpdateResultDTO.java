@@ -0,0 +1,71 @@
+package com.homeservices.dto;
+
+import com.homeservices.enums.ReservationStatus;
+
+/**
+ * Résultat d'un changement de statut dans une mise à jour groupée
+ * (statut de la réservation après traitement, message en cas de refus)
+ */
+public class StatusUpdateResultDTO {
+
+    private Long id;
+    private ReservationStatus status;
+    private boolean updated;
+    private String message;
+
+    public StatusUpdateResultDTO() {
+    }
+
+    /**
+     * Constructeur de projection JPQL : statut courant d'une réservation
+     */
+    public StatusUpdateResultDTO(Long id, ReservationStatus status) {
+        this.id = id;
+        this.status = status;
+    }
+
+    public static StatusUpdateResultDTO applied(Long id, ReservationStatus status) {
+        StatusUpdateResultDTO result = new StatusUpdateResultDTO(id, status);
+        result.updated = true;
+        return result;
+    }
+
+    public static StatusUpdateResultDTO rejected(Long id, ReservationStatus status, String message) {
+        StatusUpdateResultDTO result = new StatusUpdateResultDTO(id, status);
+        result.message = message;
+        return result;
+    }
+
+    // Getters et Setters
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public ReservationStatus getStatus() {
+        return status;
+    }
+
+    public void setStatus(ReservationStatus status) {
+        this.status = status;
+    }
+
+    public boolean isUpdated() {
+        return updated;
+    }
+
+    public void setUpdated(boolean updated) {
+        this.updated = updated;
+    }
+
+    public String getMessage() {
+        return message;
+    }
+
+    public void setMessage(String message) {
+        this.message = message;
+    }
+}
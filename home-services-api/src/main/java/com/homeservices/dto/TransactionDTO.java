@@ -37,6 +37,25 @@ public class TransactionDTO {
         this.transactionDate = t.getTransactionDate();
     }
 
+    /**
+     * Constructeur de projection JPQL (SELECT new ...) : aucune entité chargée
+     */
+    public TransactionDTO(Long id, Long reservationId, String clientFirstName, String clientLastName,
+            String providerFirstName, String providerLastName, String serviceName, BigDecimal amount,
+            PaymentStatus status, String paymentMethod, String transactionReference,
+            LocalDateTime transactionDate) {
+        this.id = id;
+        this.reservationId = reservationId;
+        this.clientName = clientFirstName + " " + clientLastName;
+        this.providerName = providerFirstName + " " + providerLastName;
+        this.serviceName = serviceName;
+        this.amount = amount;
+        this.status = status;
+        this.paymentMethod = paymentMethod;
+        this.transactionReference = transactionReference;
+        this.transactionDate = transactionDate;
+    }
+
     // Getters et Setters
     public Long getId() {
         return id;
@@ -34,6 +34,19 @@ public class UserDTO {
         this.createdAt = user.getCreatedAt();
     }
 
+    // Constructeur de projection JPQL (SELECT new ...) : aucune entité chargée
+    public UserDTO(Long id, String email, String firstName, String lastName, String phone, String address,
+            UserRole role, LocalDateTime createdAt) {
+        this.id = id;
+        this.email = email;
+        this.firstName = firstName;
+        this.lastName = lastName;
+        this.phone = phone;
+        this.address = address;
+        this.role = role;
+        this.createdAt = createdAt;
+    }
+
     // Getters et Setters
     public Long getId() {
         return id;
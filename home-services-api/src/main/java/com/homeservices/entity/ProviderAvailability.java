@@ -0,0 +1,89 @@
+package com.homeservices.entity;
+
+import jakarta.persistence.*;
+import java.time.DayOfWeek;
+import java.time.LocalTime;
+
+/**
+ * Entité Disponibilité hebdomadaire
+ * Plage de travail récurrente d'un prestataire pour un jour de la semaine
+ *
+ * Relations:
+ * - Appartient à un prestataire (ManyToOne -> User)
+ */
+@Entity
+@Table(name = "provider_availabilities", indexes = {
+        @Index(name = "idx_provider_availabilities_user", columnList = "user_id")
+})
+public class ProviderAvailability {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "user_id", nullable = false)
+    private User provider;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "day_of_week", nullable = false, length = 10)
+    private DayOfWeek dayOfWeek;
+
+    @Column(name = "start_time", nullable = false)
+    private LocalTime startTime;
+
+    @Column(name = "end_time", nullable = false)
+    private LocalTime endTime;
+
+    // Constructeurs
+    public ProviderAvailability() {
+    }
+
+    public ProviderAvailability(User provider, DayOfWeek dayOfWeek, LocalTime startTime, LocalTime endTime) {
+        this.provider = provider;
+        this.dayOfWeek = dayOfWeek;
+        this.startTime = startTime;
+        this.endTime = endTime;
+    }
+
+    // Getters et Setters
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public User getProvider() {
+        return provider;
+    }
+
+    public void setProvider(User provider) {
+        this.provider = provider;
+    }
+
+    public DayOfWeek getDayOfWeek() {
+        return dayOfWeek;
+    }
+
+    public void setDayOfWeek(DayOfWeek dayOfWeek) {
+        this.dayOfWeek = dayOfWeek;
+    }
+
+    public LocalTime getStartTime() {
+        return startTime;
+    }
+
+    public void setStartTime(LocalTime startTime) {
+        this.startTime = startTime;
+    }
+
+    public LocalTime getEndTime() {
+        return endTime;
+    }
+
+    public void setEndTime(LocalTime endTime) {
+        this.endTime = endTime;
+    }
+}
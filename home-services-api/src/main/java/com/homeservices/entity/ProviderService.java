@@ -3,6 +3,7 @@ package com.homeservices.entity;
 import jakarta.persistence.*;
 import jakarta.validation.constraints.NotNull;
 import jakarta.validation.constraints.Positive;
+import org.hibernate.annotations.ColumnDefault;
 import java.math.BigDecimal;
 
 /**
@@ -45,6 +46,12 @@ public class ProviderService {
     @Column(name = "experience_years")
     private Integer experienceYears;
 
+    // Verrouillage optimiste : une écriture concurrente fait échouer la suivante
+    @Version
+    @ColumnDefault("0")
+    @Column(nullable = false)
+    private Long version;
+
     // Constructeurs
     public ProviderService() {
     }
@@ -112,4 +119,8 @@ public class ProviderService {
     public void setExperienceYears(Integer experienceYears) {
         this.experienceYears = experienceYears;
     }
+
+    public Long getVersion() {
+        return version;
+    }
 }
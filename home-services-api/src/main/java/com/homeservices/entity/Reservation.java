@@ -2,6 +2,7 @@ package com.homeservices.entity;
 
 import com.homeservices.enums.ReservationStatus;
 import jakarta.persistence.*;
+import org.hibernate.annotations.ColumnDefault;
 import java.time.LocalDateTime;
 
 /**
@@ -12,9 +13,23 @@ import java.time.LocalDateTime;
  * - Appartient à un client (ManyToOne -> User)
  * - Concerne un service prestataire (ManyToOne -> ProviderService)
  * - Peut avoir une transaction de paiement (OneToOne -> Transaction)
+ * - Peut être une occurrence d'une série (ManyToOne -> ReservationSeries)
  */
 @Entity
-@Table(name = "reservations")
+@Table(name = "reservations", indexes = {
+        // Pagination par clé (createdAt, id)
+        @Index(name = "idx_reservations_created", columnList = "created_at, id"),
+        @Index(name = "idx_reservations_client_created", columnList = "client_id, created_at, id"),
+        @Index(name = "idx_reservations_provider_service_created", columnList = "provider_service_id, created_at, id"),
+        // Calendrier du prestataire (tous ses services) par date
+        @Index(name = "idx_reservations_provider_scheduled", columnList = "provider_id, scheduled_date"),
+        // Expiration des réservations en attente
+        @Index(name = "idx_reservations_status_created", columnList = "status, created_at"),
+        // Clôture automatique des réservations passées
+        @Index(name = "idx_reservations_status_scheduled", columnList = "status, scheduled_date"),
+        // Occurrences matérialisées d'une série (une seule par date)
+        @Index(name = "idx_reservations_series_scheduled", columnList = "series_id, scheduled_date", unique = true)
+})
 public class Reservation {
 
     @Id
@@ -32,6 +47,18 @@ public class Reservation {
     @Column(name = "scheduled_date", nullable = false)
     private LocalDateTime scheduledDate;
 
+    @ColumnDefault("60")
+    @Column(name = "duration_minutes", nullable = false)
+    private Integer durationMinutes = 60;
+
+    // Fin du créneau (scheduledDate + durationMinutes), recalculée à chaque écriture
+    @Column(name = "ends_at")
+    private LocalDateTime endsAt;
+
+    // Prestataire dénormalisé (providerService.provider) : clé de la contrainte anti-chevauchement
+    @Column(name = "provider_id")
+    private Long providerId;
+
     @Enumerated(EnumType.STRING)
     @Column(nullable = false, length = 20)
     private ReservationStatus status = ReservationStatus.EN_ATTENTE;
@@ -48,6 +75,17 @@ public class Reservation {
     @Column(name = "updated_at")
     private LocalDateTime updatedAt;
 
+    // Verrouillage optimiste : une écriture concurrente fait échouer la suivante
+    @Version
+    @ColumnDefault("0")
+    @Column(nullable = false)
+    private Long version;
+
+    // Série dont la réservation est une occurrence (null pour une réservation simple)
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "series_id")
+    private ReservationSeries series;
+
     // Relation avec Transaction
     @OneToOne(mappedBy = "reservation", cascade = CascadeType.ALL, fetch = FetchType.LAZY)
     private Transaction transaction;
@@ -57,11 +95,13 @@ public class Reservation {
     protected void onCreate() {
         createdAt = LocalDateTime.now();
         updatedAt = LocalDateTime.now();
+        endsAt = scheduledDate.plusMinutes(durationMinutes);
     }
 
     @PreUpdate
     protected void onUpdate() {
         updatedAt = LocalDateTime.now();
+        endsAt = scheduledDate.plusMinutes(durationMinutes);
     }
 
     // Constructeurs
@@ -110,6 +150,26 @@ public class Reservation {
         this.scheduledDate = scheduledDate;
     }
 
+    public Integer getDurationMinutes() {
+        return durationMinutes;
+    }
+
+    public void setDurationMinutes(Integer durationMinutes) {
+        this.durationMinutes = durationMinutes;
+    }
+
+    public LocalDateTime getEndsAt() {
+        return endsAt;
+    }
+
+    public Long getProviderId() {
+        return providerId;
+    }
+
+    public void setProviderId(Long providerId) {
+        this.providerId = providerId;
+    }
+
     public ReservationStatus getStatus() {
         return status;
     }
@@ -138,6 +198,18 @@ public class Reservation {
         return createdAt;
     }
 
+    public ReservationSeries getSeries() {
+        return series;
+    }
+
+    public void setSeries(ReservationSeries series) {
+        this.series = series;
+    }
+
+    public Long getVersion() {
+        return version;
+    }
+
     public LocalDateTime getUpdatedAt() {
         return updatedAt;
     }
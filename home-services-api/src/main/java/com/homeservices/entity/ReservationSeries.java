@@ -0,0 +1,209 @@
+package com.homeservices.entity;
+
+import com.homeservices.enums.RecurrenceFrequency;
+import jakarta.persistence.*;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+/**
+ * Entité Série de réservations (réservation récurrente)
+ * Seule la règle est stockée : les occurrences sont calculées à la demande
+ * et ne deviennent des réservations qu'à courte échéance (materializedUntil).
+ *
+ * Relations:
+ * - Appartient à un client (ManyToOne -> User)
+ * - Concerne un service prestataire (ManyToOne -> ProviderService)
+ * - Ses occurrences matérialisées sont des Reservation (series_id)
+ */
+@Entity
+@Table(name = "reservation_series", indexes = {
+        @Index(name = "idx_reservation_series_client", columnList = "client_id"),
+        @Index(name = "idx_reservation_series_provider", columnList = "provider_id"),
+        // Séries actives à prolonger
+        @Index(name = "idx_reservation_series_materialized", columnList = "cancelled_at, materialized_until")
+})
+public class ReservationSeries {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "client_id", nullable = false)
+    private User client;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "provider_service_id", nullable = false)
+    private ProviderService providerService;
+
+    @Column(name = "provider_id", nullable = false)
+    private Long providerId;
+
+    @Column(name = "first_date", nullable = false)
+    private LocalDateTime firstDate;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 20)
+    private RecurrenceFrequency frequency;
+
+    // Toutes les N périodes
+    @Column(name = "repeat_interval", nullable = false)
+    private Integer repeatInterval = 1;
+
+    // Dernier jour possible (inclus), ou null
+    @Column(name = "until_date")
+    private LocalDate untilDate;
+
+    // Nombre maximal d'occurrences, ou null
+    @Column(name = "max_occurrences")
+    private Integer maxOccurrences;
+
+    @Column(name = "duration_minutes", nullable = false)
+    private Integer durationMinutes;
+
+    @Column(columnDefinition = "TEXT")
+    private String notes;
+
+    @Column(length = 255)
+    private String address;
+
+    // Occurrences antérieures à cette date déjà créées comme réservations
+    @Column(name = "materialized_until", nullable = false)
+    private LocalDateTime materializedUntil;
+
+    @Column(name = "cancelled_at")
+    private LocalDateTime cancelledAt;
+
+    @Column(name = "created_at", updatable = false)
+    private LocalDateTime createdAt;
+
+    // Lifecycle callbacks
+    @PrePersist
+    protected void onCreate() {
+        createdAt = LocalDateTime.now();
+        if (materializedUntil == null) {
+            materializedUntil = firstDate;
+        }
+    }
+
+    // Constructeurs
+    public ReservationSeries() {
+    }
+
+    // Getters et Setters
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public User getClient() {
+        return client;
+    }
+
+    public void setClient(User client) {
+        this.client = client;
+    }
+
+    public ProviderService getProviderService() {
+        return providerService;
+    }
+
+    public void setProviderService(ProviderService providerService) {
+        this.providerService = providerService;
+    }
+
+    public Long getProviderId() {
+        return providerId;
+    }
+
+    public void setProviderId(Long providerId) {
+        this.providerId = providerId;
+    }
+
+    public LocalDateTime getFirstDate() {
+        return firstDate;
+    }
+
+    public void setFirstDate(LocalDateTime firstDate) {
+        this.firstDate = firstDate;
+    }
+
+    public RecurrenceFrequency getFrequency() {
+        return frequency;
+    }
+
+    public void setFrequency(RecurrenceFrequency frequency) {
+        this.frequency = frequency;
+    }
+
+    public Integer getRepeatInterval() {
+        return repeatInterval;
+    }
+
+    public void setRepeatInterval(Integer repeatInterval) {
+        this.repeatInterval = repeatInterval;
+    }
+
+    public LocalDate getUntilDate() {
+        return untilDate;
+    }
+
+    public void setUntilDate(LocalDate untilDate) {
+        this.untilDate = untilDate;
+    }
+
+    public Integer getMaxOccurrences() {
+        return maxOccurrences;
+    }
+
+    public void setMaxOccurrences(Integer maxOccurrences) {
+        this.maxOccurrences = maxOccurrences;
+    }
+
+    public Integer getDurationMinutes() {
+        return durationMinutes;
+    }
+
+    public void setDurationMinutes(Integer durationMinutes) {
+        this.durationMinutes = durationMinutes;
+    }
+
+    public String getNotes() {
+        return notes;
+    }
+
+    public void setNotes(String notes) {
+        this.notes = notes;
+    }
+
+    public String getAddress() {
+        return address;
+    }
+
+    public void setAddress(String address) {
+        this.address = address;
+    }
+
+    public LocalDateTime getMaterializedUntil() {
+        return materializedUntil;
+    }
+
+    public void setMaterializedUntil(LocalDateTime materializedUntil) {
+        this.materializedUntil = materializedUntil;
+    }
+
+    public LocalDateTime getCancelledAt() {
+        return cancelledAt;
+    }
+
+    public void setCancelledAt(LocalDateTime cancelledAt) {
+        this.cancelledAt = cancelledAt;
+    }
+
+    public LocalDateTime getCreatedAt() {
+        return createdAt;
+    }
+}
@@ -0,0 +1,75 @@
+package com.homeservices.entity;
+
+import jakarta.persistence.*;
+import java.time.LocalDateTime;
+
+/**
+ * Entité Famille de tokens révoquée
+ * Une famille révoquée invalide ses refresh tokens et les access tokens émis avec eux
+ *
+ * La ligne peut être supprimée après expiresAt : plus aucun token de la
+ * famille n'est alors valide.
+ */
+@Entity
+@Table(name = "revoked_token_families", indexes = {
+        @Index(name = "idx_revoked_families_revoked_at", columnList = "revoked_at")
+})
+public class RevokedTokenFamily {
+
+    @Id
+    @Column(name = "family_id", length = 36)
+    private String familyId;
+
+    @Column(name = "user_id", nullable = false)
+    private Long userId;
+
+    @Column(name = "revoked_at", nullable = false)
+    private LocalDateTime revokedAt;
+
+    @Column(name = "expires_at", nullable = false)
+    private LocalDateTime expiresAt;
+
+    // Constructeurs
+    public RevokedTokenFamily() {
+    }
+
+    public RevokedTokenFamily(String familyId, Long userId, LocalDateTime revokedAt, LocalDateTime expiresAt) {
+        this.familyId = familyId;
+        this.userId = userId;
+        this.revokedAt = revokedAt;
+        this.expiresAt = expiresAt;
+    }
+
+    // Getters et Setters
+    public String getFamilyId() {
+        return familyId;
+    }
+
+    public void setFamilyId(String familyId) {
+        this.familyId = familyId;
+    }
+
+    public Long getUserId() {
+        return userId;
+    }
+
+    public void setUserId(Long userId) {
+        this.userId = userId;
+    }
+
+    public LocalDateTime getRevokedAt() {
+        return revokedAt;
+    }
+
+    public void setRevokedAt(LocalDateTime revokedAt) {
+        this.revokedAt = revokedAt;
+    }
+
+    public LocalDateTime getExpiresAt() {
+        return expiresAt;
+    }
+
+    public void setExpiresAt(LocalDateTime expiresAt) {
+        this.expiresAt = expiresAt;
+    }
+}
@@ -2,6 +2,7 @@ package com.homeservices.entity;
 
 import com.homeservices.enums.PaymentStatus;
 import jakarta.persistence.*;
+import org.hibernate.annotations.ColumnDefault;
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
 
@@ -13,7 +14,10 @@ import java.time.LocalDateTime;
  * - Liée à une réservation (OneToOne -> Reservation)
  */
 @Entity
-@Table(name = "transactions")
+@Table(name = "transactions", indexes = {
+        // Pagination par clé (transactionDate, id)
+        @Index(name = "idx_transactions_date", columnList = "transaction_date, id")
+})
 public class Transaction {
 
     @Id
@@ -43,6 +47,12 @@ public class Transaction {
     @Column(name = "created_at", updatable = false)
     private LocalDateTime createdAt;
 
+    // Verrouillage optimiste : une écriture concurrente fait échouer la suivante
+    @Version
+    @ColumnDefault("0")
+    @Column(nullable = false)
+    private Long version;
+
     // Lifecycle callbacks
     @PrePersist
     protected void onCreate() {
@@ -122,4 +132,8 @@ public class Transaction {
     public LocalDateTime getCreatedAt() {
         return createdAt;
     }
+
+    public Long getVersion() {
+        return version;
+    }
 }
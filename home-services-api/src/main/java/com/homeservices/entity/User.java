@@ -21,6 +21,9 @@ import java.util.List;
 @Entity
 @Table(name = "users", uniqueConstraints = {
         @UniqueConstraint(columnNames = "email")
+}, indexes = {
+        // Pagination par clé (createdAt, id)
+        @Index(name = "idx_users_created", columnList = "created_at, id")
 })
 public class User {
 
@@ -0,0 +1,43 @@
+package com.homeservices.enums;
+
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+
+/**
+ * Fréquences de récurrence des réservations
+ * - HEBDOMADAIRE: Toutes les N semaines
+ * - MENSUELLE: Tous les N mois (même jour, ramené au dernier jour du mois si besoin)
+ *
+ * Les occurrences sont calculées depuis la première (et non de proche en
+ * proche) : un 31 janvier donne 28/29 février puis 31 mars, sans dérive.
+ */
+public enum RecurrenceFrequency {
+    HEBDOMADAIRE("Hebdomadaire", ChronoUnit.WEEKS),
+    MENSUELLE("Mensuelle", ChronoUnit.MONTHS);
+
+    private final String label;
+    private final ChronoUnit unit;
+
+    RecurrenceFrequency(String label, ChronoUnit unit) {
+        this.label = label;
+        this.unit = unit;
+    }
+
+    public String getLabel() {
+        return label;
+    }
+
+    /**
+     * Date de l'occurrence située n périodes après la première
+     */
+    public LocalDateTime plus(LocalDateTime first, long periods) {
+        return first.plus(periods, unit);
+    }
+
+    /**
+     * Nombre de périodes complètes entre la première occurrence et une date
+     */
+    public long periodsBetween(LocalDateTime first, LocalDateTime date) {
+        return unit.between(first, date);
+    }
+}
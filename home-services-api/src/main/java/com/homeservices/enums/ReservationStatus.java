@@ -1,5 +1,11 @@
 package com.homeservices.enums;
 
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.EnumSet;
+import java.util.Map;
+import java.util.Set;
+
 /**
  * Statuts des réservations
  * - EN_ATTENTE: Réservation créée, en attente de confirmation
@@ -7,6 +13,10 @@ package com.homeservices.enums;
  * - EN_COURS: Prestation en cours
  * - TERMINEE: Prestation terminée
  * - ANNULEE: Réservation annulée
+ *
+ * Les transitions autorisées sont déclarées une fois ; la table inverse
+ * (prédécesseurs) est compilée au chargement de la classe et sert de
+ * condition "status IN (...)" aux mises à jour conditionnelles.
  */
 public enum ReservationStatus {
     EN_ATTENTE("En attente"),
@@ -15,6 +25,31 @@ public enum ReservationStatus {
     TERMINEE("Terminée"),
     ANNULEE("Annulée");
 
+    /**
+     * Statuts qui occupent le créneau du prestataire
+     */
+    public static final Set<ReservationStatus> ACTIVE =
+            Collections.unmodifiableSet(EnumSet.of(EN_ATTENTE, CONFIRMEE, EN_COURS));
+
+    private static final Map<ReservationStatus, Set<ReservationStatus>> NEXT = new EnumMap<>(ReservationStatus.class);
+
+    private static final Map<ReservationStatus, Set<ReservationStatus>> PREDECESSORS = new EnumMap<>(ReservationStatus.class);
+
+    static {
+        NEXT.put(EN_ATTENTE, EnumSet.of(CONFIRMEE, ANNULEE));
+        NEXT.put(CONFIRMEE, EnumSet.of(EN_COURS, TERMINEE, ANNULEE));
+        NEXT.put(EN_COURS, EnumSet.of(TERMINEE, ANNULEE));
+        NEXT.put(TERMINEE, EnumSet.noneOf(ReservationStatus.class));
+        NEXT.put(ANNULEE, EnumSet.noneOf(ReservationStatus.class));
+
+        for (ReservationStatus status : values()) {
+            PREDECESSORS.put(status, EnumSet.noneOf(ReservationStatus.class));
+        }
+        NEXT.forEach((from, targets) -> targets.forEach(to -> PREDECESSORS.get(to).add(from)));
+        NEXT.replaceAll((status, targets) -> Collections.unmodifiableSet(targets));
+        PREDECESSORS.replaceAll((status, sources) -> Collections.unmodifiableSet(sources));
+    }
+
     private final String label;
 
     ReservationStatus(String label) {
@@ -24,4 +59,19 @@ public enum ReservationStatus {
     public String getLabel() {
         return label;
     }
+
+    public boolean isActive() {
+        return ACTIVE.contains(this);
+    }
+
+    public boolean canTransitionTo(ReservationStatus target) {
+        return NEXT.get(this).contains(target);
+    }
+
+    /**
+     * Statuts depuis lesquels on peut passer à ce statut (vide : statut initial)
+     */
+    public Set<ReservationStatus> predecessors() {
+        return PREDECESSORS.get(this);
+    }
 }
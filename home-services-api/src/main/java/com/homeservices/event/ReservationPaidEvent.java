@@ -0,0 +1,24 @@
+package com.homeservices.event;
+
+/**
+ * Événement publié lorsqu'une réservation est payée
+ * Les écouteurs s'abonnent après commit (@TransactionalEventListener)
+ */
+public class ReservationPaidEvent {
+
+    private final Long reservationId;
+    private final Long providerId;
+
+    public ReservationPaidEvent(Long reservationId, Long providerId) {
+        this.reservationId = reservationId;
+        this.providerId = providerId;
+    }
+
+    public Long getReservationId() {
+        return reservationId;
+    }
+
+    public Long getProviderId() {
+        return providerId;
+    }
+}
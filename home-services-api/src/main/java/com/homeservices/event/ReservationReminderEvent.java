@@ -0,0 +1,32 @@
+package com.homeservices.event;
+
+import java.time.LocalDateTime;
+
+/**
+ * Événement publié quand arrive l'heure du rappel d'une réservation
+ * (app.reminders.lead-time avant sa date). Publié hors transaction.
+ */
+public class ReservationReminderEvent {
+
+    private final Long reservationId;
+    private final Long providerId;
+    private final LocalDateTime scheduledDate;
+
+    public ReservationReminderEvent(Long reservationId, Long providerId, LocalDateTime scheduledDate) {
+        this.reservationId = reservationId;
+        this.providerId = providerId;
+        this.scheduledDate = scheduledDate;
+    }
+
+    public Long getReservationId() {
+        return reservationId;
+    }
+
+    public Long getProviderId() {
+        return providerId;
+    }
+
+    public LocalDateTime getScheduledDate() {
+        return scheduledDate;
+    }
+}
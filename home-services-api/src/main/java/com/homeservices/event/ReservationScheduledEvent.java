@@ -0,0 +1,32 @@
+package com.homeservices.event;
+
+import java.time.LocalDateTime;
+
+/**
+ * Événement publié lorsqu'une réservation est créée (ou déplacée) à une date
+ * Les écouteurs s'abonnent après commit (@TransactionalEventListener)
+ */
+public class ReservationScheduledEvent {
+
+    private final Long reservationId;
+    private final Long providerId;
+    private final LocalDateTime scheduledDate;
+
+    public ReservationScheduledEvent(Long reservationId, Long providerId, LocalDateTime scheduledDate) {
+        this.reservationId = reservationId;
+        this.providerId = providerId;
+        this.scheduledDate = scheduledDate;
+    }
+
+    public Long getReservationId() {
+        return reservationId;
+    }
+
+    public Long getProviderId() {
+        return providerId;
+    }
+
+    public LocalDateTime getScheduledDate() {
+        return scheduledDate;
+    }
+}
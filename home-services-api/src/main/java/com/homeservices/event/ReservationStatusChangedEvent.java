@@ -0,0 +1,35 @@
+package com.homeservices.event;
+
+import com.homeservices.enums.ReservationStatus;
+
+/**
+ * Événement publié lorsqu'une réservation change de statut
+ * Les écouteurs s'abonnent après commit (@TransactionalEventListener)
+ *
+ * Le statut précédent n'est pas transmis : les transitions sont des UPDATE
+ * conditionnels qui ne le relisent pas.
+ */
+public class ReservationStatusChangedEvent {
+
+    private final Long reservationId;
+    private final Long providerId;
+    private final ReservationStatus newStatus;
+
+    public ReservationStatusChangedEvent(Long reservationId, Long providerId, ReservationStatus newStatus) {
+        this.reservationId = reservationId;
+        this.providerId = providerId;
+        this.newStatus = newStatus;
+    }
+
+    public Long getReservationId() {
+        return reservationId;
+    }
+
+    public Long getProviderId() {
+        return providerId;
+    }
+
+    public ReservationStatus getNewStatus() {
+        return newStatus;
+    }
+}
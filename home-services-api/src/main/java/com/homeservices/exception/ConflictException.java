@@ -0,0 +1,12 @@
+package com.homeservices.exception;
+
+/**
+ * Exception levée lorsqu'une opération entre en conflit avec l'état courant
+ * (créneau déjà réservé, modification concurrente...)
+ */
+public class ConflictException extends RuntimeException {
+
+    public ConflictException(String message) {
+        super(message);
+    }
+}
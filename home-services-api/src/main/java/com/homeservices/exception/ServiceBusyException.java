@@ -0,0 +1,19 @@
+package com.homeservices.exception;
+
+/**
+ * Exception levée lorsqu'une ressource bornée est saturée
+ * (la requête peut être retentée plus tard)
+ */
+public class ServiceBusyException extends RuntimeException {
+
+    private final long retryAfterSeconds;
+
+    public ServiceBusyException(String message, long retryAfterSeconds) {
+        super(message);
+        this.retryAfterSeconds = retryAfterSeconds;
+    }
+
+    public long getRetryAfterSeconds() {
+        return retryAfterSeconds;
+    }
+}
@@ -0,0 +1,23 @@
+package com.homeservices.repository;
+
+import com.homeservices.entity.AvailabilityException;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * Repository pour l'entité AvailabilityException
+ * Gère les exceptions aux horaires hebdomadaires (congés, ouvertures ponctuelles)
+ */
+@Repository
+public interface AvailabilityExceptionRepository extends JpaRepository<AvailabilityException, Long> {
+
+    /**
+     * Exceptions d'un prestataire à partir d'une date
+     */
+    @Query("SELECT e FROM AvailabilityException e WHERE e.provider.id = :providerId AND e.date >= :from " +
+            "ORDER BY e.date, e.startTime")
+    List<AvailabilityException> findByProviderIdFrom(Long providerId, LocalDate from);
+}
@@ -0,0 +1,37 @@
+package com.homeservices.repository;
+
+import com.homeservices.entity.IdempotencyRecord;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+import java.time.LocalDateTime;
+import java.util.Optional;
+
+/**
+ * Repository pour l'entité IdempotencyRecord
+ * Gère les réponses enregistrées des requêtes idempotentes
+ */
+@Repository
+public interface IdempotencyRecordRepository extends JpaRepository<IdempotencyRecord, String> {
+
+    /**
+     * Réponse enregistrée encore valide pour une clé
+     */
+    @Query("SELECT r FROM IdempotencyRecord r WHERE r.key = :key AND r.expiresAt > :now")
+    Optional<IdempotencyRecord> findValid(String key, LocalDateTime now);
+
+    /**
+     * Supprime une clé expirée avant de la réutiliser
+     */
+    @Modifying
+    @Query("DELETE FROM IdempotencyRecord r WHERE r.key = :key AND r.expiresAt <= :now")
+    int deleteExpiredKey(String key, LocalDateTime now);
+
+    /**
+     * Supprime les clés expirées
+     */
+    @Modifying
+    @Query("DELETE FROM IdempotencyRecord r WHERE r.expiresAt < :now")
+    int deleteExpired(LocalDateTime now);
+}
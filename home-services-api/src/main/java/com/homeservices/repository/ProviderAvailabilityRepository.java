@@ -0,0 +1,29 @@
+package com.homeservices.repository;
+
+import com.homeservices.entity.ProviderAvailability;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+import java.util.List;
+
+/**
+ * Repository pour l'entité ProviderAvailability
+ * Gère les horaires hebdomadaires des prestataires
+ */
+@Repository
+public interface ProviderAvailabilityRepository extends JpaRepository<ProviderAvailability, Long> {
+
+    /**
+     * Horaires hebdomadaires d'un prestataire
+     */
+    @Query("SELECT a FROM ProviderAvailability a WHERE a.provider.id = :providerId ORDER BY a.dayOfWeek, a.startTime")
+    List<ProviderAvailability> findByProviderId(Long providerId);
+
+    /**
+     * Supprime les horaires d'un prestataire (remplacement complet)
+     */
+    @Modifying
+    @Query("DELETE FROM ProviderAvailability a WHERE a.provider.id = :providerId")
+    int deleteByProviderId(Long providerId);
+}
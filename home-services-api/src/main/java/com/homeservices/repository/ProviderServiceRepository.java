@@ -1,5 +1,6 @@
 package com.homeservices.repository;
 
+import com.homeservices.dto.ProviderServiceDTO;
 import com.homeservices.entity.ProviderService;
 import com.homeservices.enums.ServiceType;
 import org.springframework.data.jpa.repository.JpaRepository;
@@ -15,6 +16,32 @@ import java.util.Optional;
 @Repository
 public interface ProviderServiceRepository extends JpaRepository<ProviderService, Long> {
 
+    /**
+     * Projection en lecture seule vers ProviderServiceDTO (jointures incluses)
+     */
+    String DTO_SELECT = "SELECT new com.homeservices.dto.ProviderServiceDTO(ps.id, p.id, p.firstName, p.lastName, " +
+            "p.email, p.phone, sc.id, sc.name, sc.type, sc.icon, ps.price, ps.description, ps.available, " +
+            "ps.experienceYears) " +
+            "FROM ProviderService ps JOIN ps.provider p JOIN ps.serviceCatalog sc ";
+
+    /**
+     * Services d'un prestataire, projetés en DTO
+     */
+    @Query(DTO_SELECT + "WHERE p.id = :providerId")
+    List<ProviderServiceDTO> findDTOsByProviderId(Long providerId);
+
+    /**
+     * Services disponibles, projetés en DTO
+     */
+    @Query(DTO_SELECT + "WHERE ps.available = true")
+    List<ProviderServiceDTO> findAvailableDTOs();
+
+    /**
+     * Services disponibles d'un type donné, projetés en DTO
+     */
+    @Query(DTO_SELECT + "WHERE sc.type = :serviceType AND ps.available = true")
+    List<ProviderServiceDTO> findAvailableDTOsByServiceType(ServiceType serviceType);
+
     /**
      * Liste les services d'un prestataire
      */
@@ -0,0 +1,44 @@
+package com.homeservices.repository;
+
+import com.homeservices.entity.RefreshToken;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Repository pour l'entité RefreshToken
+ * Gère les refresh tokens émis et leur rotation
+ */
+@Repository
+public interface RefreshTokenRepository extends JpaRepository<RefreshToken, Long> {
+
+    /**
+     * Recherche un refresh token par son identifiant (jti)
+     */
+    Optional<RefreshToken> findByTokenId(String tokenId);
+
+    /**
+     * Consomme un refresh token s'il ne l'a pas déjà été
+     * Retourne 0 si le token a déjà été utilisé (réutilisation)
+     */
+    @Modifying
+    @Query("UPDATE RefreshToken rt SET rt.usedAt = :now WHERE rt.id = :id AND rt.usedAt IS NULL")
+    int markUsed(Long id, LocalDateTime now);
+
+    /**
+     * Liste les familles de session encore valides d'un utilisateur
+     */
+    @Query("SELECT DISTINCT rt.familyId FROM RefreshToken rt WHERE rt.user.id = :userId AND rt.expiresAt > :now")
+    List<String> findActiveFamilyIds(Long userId, LocalDateTime now);
+
+    /**
+     * Supprime les refresh tokens expirés
+     */
+    @Modifying
+    @Query("DELETE FROM RefreshToken rt WHERE rt.expiresAt < :now")
+    int deleteExpired(LocalDateTime now);
+}
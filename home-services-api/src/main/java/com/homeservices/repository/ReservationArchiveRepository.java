@@ -0,0 +1,258 @@
+package com.homeservices.repository;
+
+import com.homeservices.dto.ReservationDTO;
+import com.homeservices.dto.StatusCountDTO;
+import com.homeservices.dto.TransactionDTO;
+import com.homeservices.enums.PaymentStatus;
+import com.homeservices.enums.ReservationStatus;
+import com.homeservices.enums.ServiceType;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.stereotype.Repository;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Archives des réservations terminées ou annulées et de leurs transactions
+ *
+ * Tables PostgreSQL partitionnées par mois (reservations_archive sur
+ * created_at, transactions_archive sur transaction_date), hors du modèle JPA :
+ * les requêtes courantes ne les voient pas. Les lignes y sont déplacées par
+ * DELETE ... RETURNING, dans la transaction de l'appelant.
+ */
+@Repository
+public class ReservationArchiveRepository {
+
+    private static final String RESERVATION_SELECT = "SELECT ra.id, c.id, c.first_name, c.last_name, c.email, " +
+            "c.phone, ps.id, p.id, p.first_name, p.last_name, sc.name, sc.type, ps.price, ra.scheduled_date, " +
+            "ra.duration_minutes, ra.ends_at, ra.status, ra.notes, ra.address, ra.created_at, ra.series_id, ta.id " +
+            "FROM reservations_archive ra JOIN users c ON c.id = ra.client_id " +
+            "JOIN provider_services ps ON ps.id = ra.provider_service_id JOIN users p ON p.id = ps.user_id " +
+            "JOIN service_catalog sc ON sc.id = ps.service_id " +
+            "LEFT JOIN transactions_archive ta ON ta.reservation_id = ra.id ";
+
+    private static final String TRANSACTION_SELECT = "SELECT ta.id, ta.reservation_id, c.first_name, c.last_name, " +
+            "p.first_name, p.last_name, sc.name, ta.amount, ta.status, ta.payment_method, " +
+            "ta.transaction_reference, ta.transaction_date " +
+            "FROM transactions_archive ta JOIN users c ON c.id = ta.client_id JOIN users p ON p.id = ta.provider_id " +
+            "JOIN provider_services ps ON ps.id = ta.provider_service_id " +
+            "JOIN service_catalog sc ON sc.id = ps.service_id ";
+
+    private static final RowMapper<ReservationDTO> RESERVATION_MAPPER = (rs, i) -> new ReservationDTO(
+            rs.getLong(1), rs.getLong(2), rs.getString(3), rs.getString(4), rs.getString(5), rs.getString(6),
+            rs.getLong(7), rs.getLong(8), rs.getString(9), rs.getString(10), rs.getString(11),
+            ServiceType.valueOf(rs.getString(12)), rs.getBigDecimal(13), rs.getObject(14, LocalDateTime.class),
+            rs.getInt(15), rs.getObject(16, LocalDateTime.class), ReservationStatus.valueOf(rs.getString(17)),
+            rs.getString(18), rs.getString(19), rs.getObject(20, LocalDateTime.class), rs.getObject(21, Long.class),
+            rs.getObject(22, Long.class));
+
+    private static final RowMapper<TransactionDTO> TRANSACTION_MAPPER = (rs, i) -> new TransactionDTO(
+            rs.getLong(1), rs.getLong(2), rs.getString(3), rs.getString(4), rs.getString(5), rs.getString(6),
+            rs.getString(7), rs.getBigDecimal(8), PaymentStatus.valueOf(rs.getString(9)), rs.getString(10),
+            rs.getString(11), rs.getObject(12, LocalDateTime.class));
+
+    private static final RowMapper<StatusCountDTO> STATUS_COUNT_MAPPER = (rs, i) -> new StatusCountDTO(
+            ReservationStatus.valueOf(rs.getString(1)), rs.getLong(2));
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    /**
+     * Crée les tables archives, leurs index et leurs partitions par défaut (idempotent)
+     */
+    public void createTables() {
+        jdbcTemplate.execute("CREATE TABLE IF NOT EXISTS reservations_archive ("
+                + "id BIGINT NOT NULL, client_id BIGINT NOT NULL, provider_service_id BIGINT NOT NULL, "
+                + "provider_id BIGINT, series_id BIGINT, scheduled_date TIMESTAMP NOT NULL, "
+                + "duration_minutes INTEGER NOT NULL, ends_at TIMESTAMP, status VARCHAR(20) NOT NULL, notes TEXT, "
+                + "address VARCHAR(255), created_at TIMESTAMP NOT NULL, updated_at TIMESTAMP, "
+                + "archived_at TIMESTAMP NOT NULL, PRIMARY KEY (created_at, id)"
+                + ") PARTITION BY RANGE (created_at)");
+        jdbcTemplate.execute("CREATE INDEX IF NOT EXISTS idx_reservations_archive_client "
+                + "ON reservations_archive (client_id, created_at, id)");
+        jdbcTemplate.execute("CREATE INDEX IF NOT EXISTS idx_reservations_archive_provider "
+                + "ON reservations_archive (provider_id, created_at, id)");
+        jdbcTemplate.execute("CREATE TABLE IF NOT EXISTS reservations_archive_default "
+                + "PARTITION OF reservations_archive DEFAULT");
+
+        jdbcTemplate.execute("CREATE TABLE IF NOT EXISTS transactions_archive ("
+                + "id BIGINT NOT NULL, reservation_id BIGINT NOT NULL, client_id BIGINT NOT NULL, "
+                + "provider_id BIGINT NOT NULL, provider_service_id BIGINT NOT NULL, amount NUMERIC(10, 2) NOT NULL, "
+                + "status VARCHAR(20) NOT NULL, payment_method VARCHAR(50), transaction_reference VARCHAR(100), "
+                + "transaction_date TIMESTAMP NOT NULL, created_at TIMESTAMP, archived_at TIMESTAMP NOT NULL, "
+                + "PRIMARY KEY (transaction_date, id)"
+                + ") PARTITION BY RANGE (transaction_date)");
+        jdbcTemplate.execute("CREATE INDEX IF NOT EXISTS idx_transactions_archive_reservation "
+                + "ON transactions_archive (reservation_id)");
+        jdbcTemplate.execute("CREATE INDEX IF NOT EXISTS idx_transactions_archive_client "
+                + "ON transactions_archive (client_id, transaction_date, id)");
+        jdbcTemplate.execute("CREATE INDEX IF NOT EXISTS idx_transactions_archive_provider "
+                + "ON transactions_archive (provider_id, transaction_date, id)");
+        jdbcTemplate.execute("CREATE TABLE IF NOT EXISTS transactions_archive_default "
+                + "PARTITION OF transactions_archive DEFAULT");
+    }
+
+    /**
+     * Crée la partition d'un mois dans les deux tables archives (idempotent)
+     */
+    public void createMonthPartitions(YearMonth month) {
+        String suffix = String.format("_p%04d%02d", month.getYear(), month.getMonthValue());
+        String bounds = "FOR VALUES FROM ('" + month.atDay(1) + "') TO ('" + month.plusMonths(1).atDay(1) + "')";
+        jdbcTemplate.execute("CREATE TABLE IF NOT EXISTS reservations_archive" + suffix
+                + " PARTITION OF reservations_archive " + bounds);
+        jdbcTemplate.execute("CREATE TABLE IF NOT EXISTS transactions_archive" + suffix
+                + " PARTITION OF transactions_archive " + bounds);
+    }
+
+    /**
+     * Date de création la plus ancienne parmi les réservations archivables
+     */
+    public LocalDateTime findOldestArchivable(Collection<ReservationStatus> statuses, LocalDateTime before) {
+        return jdbcTemplate.queryForObject("SELECT MIN(created_at) FROM reservations "
+                + "WHERE status = ANY (?) AND created_at < ?", LocalDateTime.class, names(statuses), before);
+    }
+
+    /**
+     * Verrouille un lot de réservations archivables, plus anciennes d'abord
+     * (les lignes déjà verrouillées par une autre instance sont sautées)
+     */
+    public List<Long> lockArchivable(Collection<ReservationStatus> statuses, LocalDateTime before, int limit) {
+        return jdbcTemplate.queryForList("SELECT id FROM reservations WHERE status = ANY (?) AND created_at < ? "
+                + "AND COALESCE(updated_at, created_at) < ? ORDER BY created_at LIMIT ? FOR UPDATE SKIP LOCKED",
+                Long.class, names(statuses), before, before, limit);
+    }
+
+    /**
+     * Déplace vers l'archive les transactions des réservations données
+     */
+    public int moveTransactions(List<Long> reservationIds, LocalDateTime now) {
+        return jdbcTemplate.update("WITH moved AS (DELETE FROM transactions WHERE reservation_id = ANY (?) "
+                + "RETURNING *) INSERT INTO transactions_archive (id, reservation_id, client_id, provider_id, "
+                + "provider_service_id, amount, status, payment_method, transaction_reference, transaction_date, "
+                + "created_at, archived_at) SELECT m.id, m.reservation_id, r.client_id, r.provider_id, "
+                + "r.provider_service_id, m.amount, m.status, m.payment_method, m.transaction_reference, "
+                + "COALESCE(m.transaction_date, m.created_at, ?), m.created_at, ? "
+                + "FROM moved m JOIN reservations r ON r.id = m.reservation_id",
+                reservationIds.toArray(new Long[0]), now, now);
+    }
+
+    /**
+     * Déplace vers l'archive les réservations données (après leurs transactions)
+     */
+    public int moveReservations(List<Long> reservationIds, LocalDateTime now) {
+        return jdbcTemplate.update("WITH moved AS (DELETE FROM reservations WHERE id = ANY (?) RETURNING *) "
+                + "INSERT INTO reservations_archive (id, client_id, provider_service_id, provider_id, series_id, "
+                + "scheduled_date, duration_minutes, ends_at, status, notes, address, created_at, updated_at, "
+                + "archived_at) SELECT id, client_id, provider_service_id, provider_id, series_id, scheduled_date, "
+                + "duration_minutes, ends_at, status, notes, address, created_at, updated_at, ? FROM moved",
+                reservationIds.toArray(new Long[0]), now);
+    }
+
+    /**
+     * Date de création de la réservation archivée la plus récente (null si l'archive est vide)
+     */
+    public LocalDateTime findReservationsHorizon() {
+        return jdbcTemplate.queryForObject("SELECT MAX(created_at) FROM reservations_archive", LocalDateTime.class);
+    }
+
+    /**
+     * Date de la transaction archivée la plus récente (null si l'archive est vide)
+     */
+    public LocalDateTime findTransactionsHorizon() {
+        return jdbcTemplate.queryForObject("SELECT MAX(transaction_date) FROM transactions_archive",
+                LocalDateTime.class);
+    }
+
+    /**
+     * Page de réservations archivées d'un client après le curseur (createdAt, id)
+     */
+    public List<ReservationDTO> findPageByClientId(Long clientId, LocalDateTime createdAt, Long id, int limit) {
+        return jdbcTemplate.query(RESERVATION_SELECT + "WHERE ra.client_id = ? AND (ra.created_at, ra.id) < (?, ?) "
+                + "ORDER BY ra.created_at DESC, ra.id DESC LIMIT ?", RESERVATION_MAPPER, clientId, createdAt, id, limit);
+    }
+
+    /**
+     * Page de réservations archivées d'un prestataire après le curseur (createdAt, id)
+     */
+    public List<ReservationDTO> findPageByProviderId(Long providerId, LocalDateTime createdAt, Long id, int limit) {
+        return jdbcTemplate.query(RESERVATION_SELECT + "WHERE ra.provider_id = ? AND (ra.created_at, ra.id) < (?, ?) "
+                + "ORDER BY ra.created_at DESC, ra.id DESC LIMIT ?", RESERVATION_MAPPER, providerId, createdAt, id, limit);
+    }
+
+    /**
+     * Page de transactions archivées d'un client après le curseur (transactionDate, id)
+     */
+    public List<TransactionDTO> findTransactionPageByClientId(Long clientId, LocalDateTime transactionDate, Long id,
+            int limit) {
+        return jdbcTemplate.query(TRANSACTION_SELECT + "WHERE ta.client_id = ? "
+                + "AND (ta.transaction_date, ta.id) < (?, ?) ORDER BY ta.transaction_date DESC, ta.id DESC LIMIT ?",
+                TRANSACTION_MAPPER, clientId, transactionDate, id, limit);
+    }
+
+    /**
+     * Page de transactions archivées d'un prestataire après le curseur (transactionDate, id)
+     */
+    public List<TransactionDTO> findTransactionPageByProviderId(Long providerId, LocalDateTime transactionDate,
+            Long id, int limit) {
+        return jdbcTemplate.query(TRANSACTION_SELECT + "WHERE ta.provider_id = ? "
+                + "AND (ta.transaction_date, ta.id) < (?, ?) ORDER BY ta.transaction_date DESC, ta.id DESC LIMIT ?",
+                TRANSACTION_MAPPER, providerId, transactionDate, id, limit);
+    }
+
+    /**
+     * Compte les réservations archivées d'un statut
+     */
+    public long countByStatus(ReservationStatus status) {
+        return jdbcTemplate.queryForObject("SELECT COUNT(*) FROM reservations_archive WHERE status = ?",
+                Long.class, status.name());
+    }
+
+    /**
+     * Compte les réservations archivées d'un client par statut
+     */
+    public List<StatusCountDTO> countByClientIdGroupByStatus(Long clientId) {
+        return jdbcTemplate.query("SELECT status, COUNT(*) FROM reservations_archive WHERE client_id = ? "
+                + "GROUP BY status", STATUS_COUNT_MAPPER, clientId);
+    }
+
+    /**
+     * Compte les réservations archivées d'un prestataire par statut
+     */
+    public List<StatusCountDTO> countByProviderIdGroupByStatus(Long providerId) {
+        return jdbcTemplate.query("SELECT status, COUNT(*) FROM reservations_archive WHERE provider_id = ? "
+                + "GROUP BY status", STATUS_COUNT_MAPPER, providerId);
+    }
+
+    /**
+     * Compte les transactions archivées d'un statut
+     */
+    public long countTransactionsByStatus(PaymentStatus status) {
+        return jdbcTemplate.queryForObject("SELECT COUNT(*) FROM transactions_archive WHERE status = ?",
+                Long.class, status.name());
+    }
+
+    /**
+     * Somme des transactions archivées réussies
+     */
+    public BigDecimal sumSuccessfulAmount() {
+        return jdbcTemplate.queryForObject("SELECT COALESCE(SUM(amount), 0) FROM transactions_archive "
+                + "WHERE status = ?", BigDecimal.class, PaymentStatus.REUSSI.name());
+    }
+
+    /**
+     * Somme des transactions archivées réussies d'un prestataire
+     */
+    public BigDecimal sumSuccessfulAmountByProviderId(Long providerId) {
+        return jdbcTemplate.queryForObject("SELECT COALESCE(SUM(amount), 0) FROM transactions_archive "
+                + "WHERE provider_id = ? AND status = ?", BigDecimal.class, providerId, PaymentStatus.REUSSI.name());
+    }
+
+    private static String[] names(Collection<ReservationStatus> statuses) {
+        return statuses.stream().map(Enum::name).toArray(String[]::new);
+    }
+}
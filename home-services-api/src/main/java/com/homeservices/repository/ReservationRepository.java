@@ -1,12 +1,22 @@
 package com.homeservices.repository;
 
+import com.homeservices.dto.BookedInterval;
+import com.homeservices.dto.CalendarVersion;
+import com.homeservices.dto.ReservationDTO;
+import com.homeservices.dto.SeriesOccurrenceDTO;
+import com.homeservices.dto.StatusCountDTO;
+import com.homeservices.dto.StatusUpdateResultDTO;
 import com.homeservices.entity.Reservation;
 import com.homeservices.enums.ReservationStatus;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
 
 /**
  * Repository pour l'entité Reservation
@@ -16,15 +26,174 @@ import java.util.List;
 public interface ReservationRepository extends JpaRepository<Reservation, Long> {
 
     /**
-     * Liste les réservations d'un client
+     * Projection en lecture seule vers ReservationDTO (jointures incluses)
      */
-    List<Reservation> findByClientIdOrderByCreatedAtDesc(Long clientId);
+    String DTO_SELECT = "SELECT new com.homeservices.dto.ReservationDTO(r.id, c.id, c.firstName, c.lastName, " +
+            "c.email, c.phone, ps.id, p.id, p.firstName, p.lastName, sc.name, sc.type, ps.price, " +
+            "r.scheduledDate, r.durationMinutes, r.endsAt, r.status, r.notes, r.address, r.createdAt, r.series.id, t.id) " +
+            "FROM Reservation r JOIN r.client c JOIN r.providerService ps JOIN ps.provider p " +
+            "JOIN ps.serviceCatalog sc LEFT JOIN r.transaction t ";
 
     /**
-     * Liste les réservations pour un prestataire
+     * Réservation projetée en DTO
      */
-    @Query("SELECT r FROM Reservation r WHERE r.providerService.provider.id = :providerId ORDER BY r.createdAt DESC")
-    List<Reservation> findByProviderId(Long providerId);
+    @Query(DTO_SELECT + "WHERE r.id = :id")
+    Optional<ReservationDTO> findDTOById(Long id);
+
+    /**
+     * Transition de statut par le prestataire : appliquée seulement si la
+     * réservation lui appartient et que son statut courant le permet
+     * (retourne le nombre de lignes modifiées, 0 ou 1)
+     */
+    @Modifying
+    @Query("UPDATE Reservation r SET r.status = :status, r.updatedAt = :now, r.version = r.version + 1 " +
+            "WHERE r.id = :id AND r.providerId = :providerId AND r.status IN :from")
+    int transitionAsProvider(Long id, Long providerId, Collection<ReservationStatus> from,
+            ReservationStatus status, LocalDateTime now);
+
+    /**
+     * Transition groupée par le prestataire : même statut cible pour toutes
+     * les réservations (retourne le nombre de lignes modifiées)
+     */
+    @Modifying
+    @Query("UPDATE Reservation r SET r.status = :status, r.updatedAt = :now, r.version = r.version + 1 " +
+            "WHERE r.id IN :ids AND r.providerId = :providerId AND r.status IN :from")
+    int transitionAllAsProvider(Collection<Long> ids, Long providerId, Collection<ReservationStatus> from,
+            ReservationStatus status, LocalDateTime now);
+
+    /**
+     * Transition groupée sans contrôle de propriétaire (tâches de fond)
+     */
+    @Modifying
+    @Query("UPDATE Reservation r SET r.status = :status, r.updatedAt = :now, r.version = r.version + 1 " +
+            "WHERE r.id IN :ids AND r.status IN :from")
+    int transitionAll(Collection<Long> ids, Collection<ReservationStatus> from, ReservationStatus status,
+            LocalDateTime now);
+
+    /**
+     * IDs passés au statut par une transition groupée datée de now : les lignes
+     * arrivées à ce statut par une autre écriture n'en font pas partie
+     */
+    @Query("SELECT r.id FROM Reservation r WHERE r.id IN :ids AND r.status = :status AND r.updatedAt = :now")
+    List<Long> findIdsTransitionedAt(Collection<Long> ids, ReservationStatus status, LocalDateTime now);
+
+    /**
+     * Statut courant des réservations parmi les IDs donnés
+     */
+    @Query("SELECT new com.homeservices.dto.StatusUpdateResultDTO(r.id, r.status) FROM Reservation r " +
+            "WHERE r.id IN :ids")
+    List<StatusUpdateResultDTO> findStatuses(Collection<Long> ids);
+
+    /**
+     * Réservations simples d'un statut créées avant une date, plus anciennes d'abord
+     * (parcours par lots via idx_reservations_status_created). Les occurrences
+     * de séries, créées d'avance, sont exclues : elles expirent à leur date
+     * (findByStatusScheduledBefore).
+     */
+    @Query("SELECT new com.homeservices.dto.BookedInterval(r.id, r.providerId, r.scheduledDate, r.endsAt, " +
+            "r.durationMinutes) FROM Reservation r " +
+            "WHERE r.status = :status AND r.createdAt < :before AND r.series IS NULL ORDER BY r.createdAt")
+    List<BookedInterval> findByStatusCreatedBefore(ReservationStatus status, LocalDateTime before,
+            Pageable pageable);
+
+    /**
+     * Réservations de ces statuts prévues avant une date, plus anciennes d'abord
+     * (parcours par lots via idx_reservations_status_scheduled)
+     */
+    @Query("SELECT new com.homeservices.dto.BookedInterval(r.id, r.providerId, r.scheduledDate, r.endsAt, " +
+            "r.durationMinutes) FROM Reservation r " +
+            "WHERE r.status IN :statuses AND r.scheduledDate < :before ORDER BY r.scheduledDate")
+    List<BookedInterval> findByStatusScheduledBefore(Collection<ReservationStatus> statuses, LocalDateTime before,
+            Pageable pageable);
+
+    /**
+     * Créneaux des réservations de ces statuts prévues dans [from, to)
+     */
+    @Query("SELECT new com.homeservices.dto.BookedInterval(r.id, r.providerId, r.scheduledDate, r.endsAt, " +
+            "r.durationMinutes) FROM Reservation r " +
+            "WHERE r.status IN :statuses AND r.scheduledDate >= :from AND r.scheduledDate < :to")
+    List<BookedInterval> findBookedIntervalsBetween(Collection<ReservationStatus> statuses, LocalDateTime from,
+            LocalDateTime to);
+
+    /**
+     * Occurrences matérialisées d'une série dans [from, to)
+     */
+    @Query("SELECT new com.homeservices.dto.SeriesOccurrenceDTO(r.scheduledDate, r.id, r.status) " +
+            "FROM Reservation r WHERE r.series.id = :seriesId " +
+            "AND r.scheduledDate >= :from AND r.scheduledDate < :to ORDER BY r.scheduledDate")
+    List<SeriesOccurrenceDTO> findSeriesOccurrences(Long seriesId, LocalDateTime from, LocalDateTime to);
+
+    /**
+     * Créneaux des occurrences d'une série de ces statuts, à partir d'une date
+     */
+    @Query("SELECT new com.homeservices.dto.BookedInterval(r.id, r.providerId, r.scheduledDate, r.endsAt, " +
+            "r.durationMinutes) FROM Reservation r " +
+            "WHERE r.series.id = :seriesId AND r.status IN :statuses AND r.scheduledDate >= :from")
+    List<BookedInterval> findSeriesIntervalsFrom(Long seriesId, Collection<ReservationStatus> statuses,
+            LocalDateTime from);
+
+    /**
+     * Statut courant des réservations du prestataire parmi les IDs donnés
+     */
+    @Query("SELECT new com.homeservices.dto.StatusUpdateResultDTO(r.id, r.status) FROM Reservation r " +
+            "WHERE r.id IN :ids AND r.providerId = :providerId")
+    List<StatusUpdateResultDTO> findStatusesForProvider(Collection<Long> ids, Long providerId);
+
+    /**
+     * Transition de statut par le client (annulation, confirmation par paiement)
+     */
+    @Modifying
+    @Query("UPDATE Reservation r SET r.status = :status, r.updatedAt = :now, r.version = r.version + 1 " +
+            "WHERE r.id = :id AND r.client.id = :clientId AND r.status IN :from")
+    int transitionAsClient(Long id, Long clientId, Collection<ReservationStatus> from,
+            ReservationStatus status, LocalDateTime now);
+
+    /**
+     * Condition de pagination par clé : lignes strictement après le curseur (createdAt, id)
+     */
+    String AFTER_CURSOR = "(r.createdAt < :createdAt OR (r.createdAt = :createdAt AND r.id < :id)) ";
+
+    String KEYSET_ORDER = "ORDER BY r.createdAt DESC, r.id DESC";
+
+    /**
+     * Page de réservations d'un client après le curseur
+     */
+    @Query(DTO_SELECT + "WHERE r.client.id = :clientId AND " + AFTER_CURSOR + KEYSET_ORDER)
+    List<ReservationDTO> findDTOPageByClientId(Long clientId, LocalDateTime createdAt, Long id, Pageable pageable);
+
+    /**
+     * Page de réservations d'un prestataire après le curseur
+     */
+    @Query(DTO_SELECT + "WHERE p.id = :providerId AND " + AFTER_CURSOR + KEYSET_ORDER)
+    List<ReservationDTO> findDTOPageByProviderId(Long providerId, LocalDateTime createdAt, Long id, Pageable pageable);
+
+    /**
+     * Page de toutes les réservations (pour admin) après le curseur
+     */
+    @Query(DTO_SELECT + "WHERE " + AFTER_CURSOR + KEYSET_ORDER)
+    List<ReservationDTO> findDTOPage(LocalDateTime createdAt, Long id, Pageable pageable);
+
+    /**
+     * Réservations d'un prestataire par statut, projetées en DTO
+     */
+    @Query(DTO_SELECT + "WHERE p.id = :providerId AND r.status = :status ORDER BY r.scheduledDate ASC")
+    List<ReservationDTO> findDTOsByProviderIdAndStatus(Long providerId, ReservationStatus status);
+
+    /**
+     * Réservations d'un prestataire prévues dans [from, to), par date
+     * (idx_reservations_provider_scheduled)
+     */
+    @Query(DTO_SELECT + "WHERE r.providerId = :providerId AND r.scheduledDate >= :from AND r.scheduledDate < :to " +
+            "ORDER BY r.scheduledDate ASC, r.id ASC")
+    List<ReservationDTO> findDTOsByProviderIdScheduledBetween(Long providerId, LocalDateTime from, LocalDateTime to);
+
+    /**
+     * Empreinte des réservations d'un prestataire prévues dans [from, to), sans jointure
+     * (idx_reservations_provider_scheduled)
+     */
+    @Query("SELECT new com.homeservices.dto.CalendarVersion(COUNT(r), SUM(r.version), MAX(r.id)) " +
+            "FROM Reservation r WHERE r.providerId = :providerId AND r.scheduledDate >= :from AND r.scheduledDate < :to")
+    CalendarVersion findCalendarVersion(Long providerId, LocalDateTime from, LocalDateTime to);
 
     /**
      * Liste les réservations par statut
@@ -36,6 +205,20 @@ public interface ReservationRepository extends JpaRepository<Reservation, Long>
      */
     Long countByStatus(ReservationStatus status);
 
+    /**
+     * Compte les réservations d'un client par statut
+     */
+    @Query("SELECT new com.homeservices.dto.StatusCountDTO(r.status, COUNT(r)) FROM Reservation r " +
+            "WHERE r.client.id = :clientId GROUP BY r.status")
+    List<StatusCountDTO> countByClientIdGroupByStatus(Long clientId);
+
+    /**
+     * Compte les réservations d'un prestataire par statut
+     */
+    @Query("SELECT new com.homeservices.dto.StatusCountDTO(r.status, COUNT(r)) FROM Reservation r " +
+            "WHERE r.providerId = :providerId GROUP BY r.status")
+    List<StatusCountDTO> countByProviderIdGroupByStatus(Long providerId);
+
     /**
      * Liste les réservations d'aujourd'hui
      */
@@ -49,16 +232,23 @@ public interface ReservationRepository extends JpaRepository<Reservation, Long>
     Long countTodayReservations(LocalDateTime startOfDay, LocalDateTime endOfDay);
 
     /**
-     * Liste les réservations récentes (pour admin)
+     * Créneaux d'un prestataire qui chevauchent [start, end), pour confirmer l'index en mémoire
+     * (earliest = start moins la durée maximale d'une réservation : reste sur l'index provider_id, scheduled_date)
      */
-    @Query("SELECT r FROM Reservation r ORDER BY r.createdAt DESC")
-    List<Reservation> findRecentReservations();
+    @Query("SELECT new com.homeservices.dto.BookedInterval(r.id, r.providerId, r.scheduledDate, r.endsAt, " +
+            "r.durationMinutes) FROM Reservation r " +
+            "WHERE r.providerId = :providerId AND r.scheduledDate >= :earliest AND r.scheduledDate < :end " +
+            "AND (r.endsAt IS NULL OR r.endsAt > :start) AND r.status IN :statuses")
+    List<BookedInterval> findBookedIntervalsOverlapping(Long providerId, Collection<ReservationStatus> statuses,
+            LocalDateTime earliest, LocalDateTime start, LocalDateTime end);
 
     /**
-     * Liste les réservations en attente pour un prestataire
+     * Créneaux occupés (statuts actifs) à partir d'une date, pour reconstruire l'index en mémoire
      */
-    @Query("SELECT r FROM Reservation r WHERE r.providerService.provider.id = :providerId AND r.status = :status ORDER BY r.scheduledDate ASC")
-    List<Reservation> findByProviderIdAndStatus(Long providerId, ReservationStatus status);
+    @Query("SELECT new com.homeservices.dto.BookedInterval(r.id, ps.provider.id, r.scheduledDate, r.endsAt, " +
+            "r.durationMinutes) FROM Reservation r JOIN r.providerService ps " +
+            "WHERE r.status IN :statuses AND r.scheduledDate >= :from")
+    List<BookedInterval> findBookedIntervalsFrom(Collection<ReservationStatus> statuses, LocalDateTime from);
 
     /**
      * Revenus d'un prestataire (réservations terminées)
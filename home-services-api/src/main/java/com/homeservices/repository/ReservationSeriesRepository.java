@@ -0,0 +1,67 @@
+package com.homeservices.repository;
+
+import com.homeservices.entity.ReservationSeries;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.EntityGraph;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Repository pour l'entité ReservationSeries
+ * Gère les réservations récurrentes
+ */
+@Repository
+public interface ReservationSeriesRepository extends JpaRepository<ReservationSeries, Long> {
+
+    /**
+     * Séries d'un client, plus récentes d'abord
+     */
+    @EntityGraph(attributePaths = { "client", "providerService" })
+    @Query("SELECT s FROM ReservationSeries s WHERE s.client.id = :clientId ORDER BY s.createdAt DESC")
+    List<ReservationSeries> findByClientId(Long clientId);
+
+    /**
+     * Séries d'un prestataire, plus récentes d'abord
+     */
+    @EntityGraph(attributePaths = { "client", "providerService" })
+    @Query("SELECT s FROM ReservationSeries s WHERE s.providerId = :providerId ORDER BY s.createdAt DESC")
+    List<ReservationSeries> findByProviderId(Long providerId);
+
+    /**
+     * Série verrouillée jusqu'à la fin de la transaction (SELECT ... FOR UPDATE) :
+     * une annulation concurrente attend ou est vue
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT s FROM ReservationSeries s WHERE s.id = :id")
+    Optional<ReservationSeries> findByIdForUpdate(Long id);
+
+    /**
+     * IDs des séries actives dont les occurrences ne sont pas créées jusqu'à l'horizon
+     */
+    @Query("SELECT s.id FROM ReservationSeries s " +
+            "WHERE s.cancelledAt IS NULL AND s.materializedUntil < :horizon AND s.id > :afterId ORDER BY s.id")
+    List<Long> findIdsToMaterialize(LocalDateTime horizon, Long afterId, Pageable pageable);
+
+    /**
+     * Avance la date de matérialisation (jamais en arrière)
+     */
+    @Modifying(clearAutomatically = true)
+    @Query("UPDATE ReservationSeries s SET s.materializedUntil = :until " +
+            "WHERE s.id = :id AND s.materializedUntil < :until")
+    int advanceMaterializedUntil(Long id, LocalDateTime until);
+
+    /**
+     * Annule une série du client (une seule ligne, quel que soit le nombre d'occurrences)
+     */
+    @Modifying(clearAutomatically = true)
+    @Query("UPDATE ReservationSeries s SET s.cancelledAt = :now " +
+            "WHERE s.id = :id AND s.client.id = :clientId AND s.cancelledAt IS NULL")
+    int cancel(Long id, Long clientId, LocalDateTime now);
+}
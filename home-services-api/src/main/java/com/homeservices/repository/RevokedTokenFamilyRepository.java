@@ -0,0 +1,36 @@
+package com.homeservices.repository;
+
+import com.homeservices.entity.RevokedTokenFamily;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Repository pour l'entité RevokedTokenFamily
+ * Source de vérité du filtre de révocation en mémoire
+ */
+@Repository
+public interface RevokedTokenFamilyRepository extends JpaRepository<RevokedTokenFamily, String> {
+
+    /**
+     * Familles révoquées encore actives (reconstruction du filtre)
+     */
+    @Query("SELECT f.familyId FROM RevokedTokenFamily f WHERE f.expiresAt > :now")
+    List<String> findActiveFamilyIds(LocalDateTime now);
+
+    /**
+     * Familles révoquées depuis une date (synchronisation entre noeuds)
+     */
+    @Query("SELECT f.familyId FROM RevokedTokenFamily f WHERE f.revokedAt >= :since")
+    List<String> findFamilyIdsRevokedSince(LocalDateTime since);
+
+    /**
+     * Supprime les révocations dont tous les tokens ont expiré
+     */
+    @Modifying
+    @Query("DELETE FROM RevokedTokenFamily f WHERE f.expiresAt < :now")
+    int deleteExpired(LocalDateTime now);
+}
@@ -1,11 +1,14 @@
 package com.homeservices.repository;
 
+import com.homeservices.dto.TransactionDTO;
 import com.homeservices.entity.Transaction;
 import com.homeservices.enums.PaymentStatus;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
 import java.math.BigDecimal;
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
 
@@ -16,6 +19,43 @@ import java.util.Optional;
 @Repository
 public interface TransactionRepository extends JpaRepository<Transaction, Long> {
 
+    /**
+     * Projection en lecture seule vers TransactionDTO (jointures incluses)
+     */
+    String DTO_SELECT = "SELECT new com.homeservices.dto.TransactionDTO(t.id, r.id, c.firstName, c.lastName, " +
+            "p.firstName, p.lastName, sc.name, t.amount, t.status, t.paymentMethod, " +
+            "t.transactionReference, t.transactionDate) " +
+            "FROM Transaction t JOIN t.reservation r JOIN r.client c JOIN r.providerService ps " +
+            "JOIN ps.provider p JOIN ps.serviceCatalog sc ";
+
+    /**
+     * Condition de pagination par clé : lignes strictement après le curseur (transactionDate, id)
+     */
+    String AFTER_CURSOR = "(t.transactionDate < :transactionDate " +
+            "OR (t.transactionDate = :transactionDate AND t.id < :id)) ";
+
+    String KEYSET_ORDER = "ORDER BY t.transactionDate DESC, t.id DESC";
+
+    /**
+     * Page de transactions d'un client après le curseur
+     */
+    @Query(DTO_SELECT + "WHERE c.id = :clientId AND " + AFTER_CURSOR + KEYSET_ORDER)
+    List<TransactionDTO> findDTOPageByClientId(Long clientId, LocalDateTime transactionDate, Long id,
+            Pageable pageable);
+
+    /**
+     * Page de transactions d'un prestataire après le curseur
+     */
+    @Query(DTO_SELECT + "WHERE p.id = :providerId AND " + AFTER_CURSOR + KEYSET_ORDER)
+    List<TransactionDTO> findDTOPageByProviderId(Long providerId, LocalDateTime transactionDate, Long id,
+            Pageable pageable);
+
+    /**
+     * Page de toutes les transactions (pour admin) après le curseur (transactionDate, id)
+     */
+    @Query(DTO_SELECT + "WHERE " + AFTER_CURSOR + KEYSET_ORDER)
+    List<TransactionDTO> findDTOPage(LocalDateTime transactionDate, Long id, Pageable pageable);
+
     /**
      * Recherche une transaction par réservation
      */
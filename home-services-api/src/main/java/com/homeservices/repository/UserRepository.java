@@ -1,10 +1,13 @@
 package com.homeservices.repository;
 
+import com.homeservices.dto.UserDTO;
 import com.homeservices.entity.User;
 import com.homeservices.enums.UserRole;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
 
@@ -15,6 +18,32 @@ import java.util.Optional;
 @Repository
 public interface UserRepository extends JpaRepository<User, Long> {
 
+    /**
+     * Projection en lecture seule vers UserDTO (sans mot de passe)
+     */
+    String DTO_SELECT = "SELECT new com.homeservices.dto.UserDTO(u.id, u.email, u.firstName, u.lastName, " +
+            "u.phone, u.address, u.role, u.createdAt) FROM User u ";
+
+    /**
+     * Page d'utilisateurs après le curseur (createdAt, id), plus récents d'abord
+     */
+    @Query(DTO_SELECT + "WHERE u.createdAt < :createdAt OR (u.createdAt = :createdAt AND u.id < :id) " +
+            "ORDER BY u.createdAt DESC, u.id DESC")
+    List<UserDTO> findDTOPage(LocalDateTime createdAt, Long id, Pageable pageable);
+
+    /**
+     * Utilisateurs d'un rôle donné, projetés en DTO
+     */
+    @Query(DTO_SELECT + "WHERE u.role = :role")
+    List<UserDTO> findDTOsByRole(UserRole role);
+
+    /**
+     * Recherche par nom ou prénom, projetée en DTO
+     */
+    @Query(DTO_SELECT + "WHERE LOWER(u.firstName) LIKE LOWER(CONCAT('%', :name, '%')) " +
+            "OR LOWER(u.lastName) LIKE LOWER(CONCAT('%', :name, '%'))")
+    List<UserDTO> searchDTOsByName(String name);
+
     /**
      * Recherche un utilisateur par son email
      */
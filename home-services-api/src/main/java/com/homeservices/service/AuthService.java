@@ -1,8 +1,10 @@
 package com.homeservices.service;
 
 import com.homeservices.config.JwtUtils;
+import com.homeservices.config.UserPrincipal;
 import com.homeservices.dto.*;
 import com.homeservices.entity.ProviderService;
+import com.homeservices.entity.RefreshToken;
 import com.homeservices.entity.ServiceCatalog;
 import com.homeservices.entity.User;
 import com.homeservices.enums.ServiceType;
@@ -10,6 +12,7 @@ import com.homeservices.enums.UserRole;
 import com.homeservices.repository.ProviderServiceRepository;
 import com.homeservices.repository.ServiceCatalogRepository;
 import com.homeservices.repository.UserRepository;
+import jakarta.annotation.PostConstruct;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
@@ -17,11 +20,17 @@ import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
 /**
  * Service d'authentification
  * Gère l'inscription, la connexion et la génération de tokens JWT
+ *
+ * Le hachage des mots de passe (jusqu'à max-wait d'attente sur son pool)
+ * se fait hors transaction : seules les écritures qui suivent prennent une
+ * connexion JDBC, le temps d'une courte transaction.
  */
 @Service
 public class AuthService {
@@ -44,99 +53,124 @@ public class AuthService {
     @Autowired
     private JwtUtils jwtUtils;
 
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private RefreshTokenService refreshTokenService;
+
+    @Autowired
+    private LoginThrottleService loginThrottleService;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private TransactionTemplate transactionTemplate;
+
+    @PostConstruct
+    void init() {
+        transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
     /**
      * Inscription d'un nouvel utilisateur
      * - Vérifie si l'email existe déjà
-     * - Hash le mot de passe
+     * - Hash le mot de passe (hors transaction)
      * - Crée le service prestataire si applicable
      */
-    @Transactional
-    public AuthResponse register(RegisterRequest request) {
-        // Vérifier si l'email existe
+    public AuthResponse register(RegisterRequest request, String clientIp) {
+        loginThrottleService.checkIp(clientIp);
+
+        // Vérifier si l'email existe (l'index unique reste l'arbitre en cas de course)
         if (userRepository.existsByEmail(request.getEmail())) {
             throw new RuntimeException("Cet email est déjà utilisé");
         }
-
-        // Créer l'utilisateur
-        User user = new User();
-        user.setEmail(request.getEmail());
-        user.setPassword(passwordEncoder.encode(request.getPassword()));
-        user.setFirstName(request.getFirstName());
-        user.setLastName(request.getLastName());
-        user.setPhone(request.getPhone());
-        user.setAddress(request.getAddress());
-        user.setRole(request.getRole());
-
-        user = userRepository.save(user);
-
-        // Si c'est un prestataire, créer son service
-        if (request.getRole() == UserRole.PRESTATAIRE && request.getServiceType() != null) {
-            ServiceCatalog catalog = serviceCatalogRepository.findByType(request.getServiceType())
-                    .orElseThrow(() -> new RuntimeException("Type de service non trouvé"));
-
-            ProviderService providerService = new ProviderService();
-            providerService.setProvider(user);
-            providerService.setServiceCatalog(catalog);
-            providerService.setPrice(request.getPrice());
-            providerService.setDescription(request.getServiceDescription());
-            providerService.setExperienceYears(request.getExperienceYears());
-            providerService.setAvailable(true);
-
-            providerServiceRepository.save(providerService);
-        }
-
-        // Générer les tokens
-        String token = jwtUtils.generateToken(user.getEmail());
-        String refreshToken = jwtUtils.generateRefreshToken(user.getEmail());
-
-        return new AuthResponse(token, refreshToken, jwtUtils.getExpirationMs(), new UserDTO(user));
+        String passwordHash = passwordEncoder.encode(request.getPassword());
+
+        return transactionTemplate.execute(status -> {
+            // Créer l'utilisateur
+            User user = new User();
+            user.setEmail(request.getEmail());
+            user.setPassword(passwordHash);
+            user.setFirstName(request.getFirstName());
+            user.setLastName(request.getLastName());
+            user.setPhone(request.getPhone());
+            user.setAddress(request.getAddress());
+            user.setRole(request.getRole());
+
+            user = userRepository.save(user);
+
+            // Si c'est un prestataire, créer son service
+            if (request.getRole() == UserRole.PRESTATAIRE && request.getServiceType() != null) {
+                ServiceCatalog catalog = serviceCatalogRepository.findByType(request.getServiceType())
+                        .orElseThrow(() -> new RuntimeException("Type de service non trouvé"));
+
+                ProviderService providerService = new ProviderService();
+                providerService.setProvider(user);
+                providerService.setServiceCatalog(catalog);
+                providerService.setPrice(request.getPrice());
+                providerService.setDescription(request.getServiceDescription());
+                providerService.setExperienceYears(request.getExperienceYears());
+                providerService.setAvailable(true);
+
+                providerServiceRepository.save(providerService);
+            }
+
+            // Générer les tokens
+            return issueTokens(user, refreshTokenService.newFamilyId());
+        });
     }
 
     /**
      * Connexion d'un utilisateur
-     * - Authentifie avec email/password
-     * - Génère un nouveau token JWT
+     * - Authentifie avec email/password (hors transaction)
+     * - Ouvre une nouvelle session (famille de refresh tokens)
      */
-    public AuthResponse login(LoginRequest request) {
+    public AuthResponse login(LoginRequest request, String clientIp) {
+        // Rejet avant tout hachage de mot de passe
+        loginThrottleService.checkLogin(request.getEmail(), clientIp);
+
         Authentication authentication = authenticationManager.authenticate(
                 new UsernamePasswordAuthenticationToken(request.getEmail(), request.getPassword()));
 
         SecurityContextHolder.getContext().setAuthentication(authentication);
 
-        User user = userRepository.findByEmail(request.getEmail())
-                .orElseThrow(() -> new RuntimeException("Utilisateur non trouvé"));
-
-        String token = jwtUtils.generateToken(user.getEmail());
-        String refreshToken = jwtUtils.generateRefreshToken(user.getEmail());
-
-        return new AuthResponse(token, refreshToken, jwtUtils.getExpirationMs(), new UserDTO(user));
+        Long userId = ((UserPrincipal) authentication.getPrincipal()).getId();
+        return transactionTemplate.execute(status -> issueTokens(
+                userRepository.findById(userId).orElseThrow(() -> new RuntimeException("Utilisateur non trouvé")),
+                refreshTokenService.newFamilyId()));
     }
 
     /**
      * Rafraîchit le token JWT
+     * - Consomme le refresh token (usage unique)
+     * - Émet une nouvelle paire dans la même session
      */
+    @Transactional
     public AuthResponse refreshToken(String refreshToken) {
-        if (!jwtUtils.validateToken(refreshToken)) {
-            throw new RuntimeException("Refresh token invalide");
-        }
+        RefreshToken consumed = refreshTokenService.consume(refreshToken);
+        return issueTokens(consumed.getUser(), consumed.getFamilyId());
+    }
 
-        String email = jwtUtils.getEmailFromToken(refreshToken);
-        User user = userRepository.findByEmail(email)
-                .orElseThrow(() -> new RuntimeException("Utilisateur non trouvé"));
+    /**
+     * Déconnexion : révoque la session du refresh token
+     * (ses refresh tokens et les access tokens émis avec eux)
+     */
+    public void logout(String refreshToken) {
+        refreshTokenService.revoke(refreshToken);
+    }
 
-        String newToken = jwtUtils.generateToken(email);
-        String newRefreshToken = jwtUtils.generateRefreshToken(email);
+    private AuthResponse issueTokens(User user, String familyId) {
+        String token = jwtUtils.generateToken(user, familyId);
+        String refreshToken = refreshTokenService.createRefreshToken(user, familyId);
 
-        return new AuthResponse(newToken, newRefreshToken, jwtUtils.getExpirationMs(), new UserDTO(user));
+        return new AuthResponse(token, refreshToken, jwtUtils.getExpirationMs(), new UserDTO(user));
     }
 
     /**
      * Récupère l'utilisateur actuellement connecté
      */
     public User getCurrentUser() {
-        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
-        String email = authentication.getName();
-        return userRepository.findByEmail(email)
-                .orElseThrow(() -> new RuntimeException("Utilisateur non trouvé"));
+        return userService.getCurrentUser();
     }
 }
@@ -0,0 +1,391 @@
+package com.homeservices.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.homeservices.dto.AvailabilityDTO;
+import com.homeservices.dto.AvailabilityExceptionDTO;
+import com.homeservices.dto.BookedInterval;
+import com.homeservices.dto.DaySlotsDTO;
+import com.homeservices.entity.AvailabilityException;
+import com.homeservices.entity.ProviderAvailability;
+import com.homeservices.entity.ProviderService;
+import com.homeservices.entity.User;
+import com.homeservices.repository.AvailabilityExceptionRepository;
+import com.homeservices.repository.ProviderAvailabilityRepository;
+import com.homeservices.repository.ProviderServiceRepository;
+import com.homeservices.util.DaySlots;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.DayOfWeek;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+/**
+ * Service de disponibilité des prestataires et de calcul des créneaux
+ *
+ * Les horaires hebdomadaires et les exceptions d'un prestataire sont compilés
+ * en bitsets journaliers (voir DaySlots) et mis en cache, comme le
+ * prestataire de chaque service. Les réservations sont retirées à partir de
+ * l'index en mémoire (ProviderScheduleIndex) : une recherche de créneaux
+ * n'accède pas à la base si le calendrier et le service sont en cache.
+ * Toute modification de la disponibilité d'un service doit appeler
+ * evictProviderService.
+ */
+@Service
+public class AvailabilityService {
+
+    // Bornes de durée d'un créneau, identiques à celles d'une réservation
+    private static final int MIN_DURATION_MINUTES = 15;
+    private static final int MAX_DURATION_MINUTES = 720;
+
+    @Autowired
+    private ProviderAvailabilityRepository availabilityRepository;
+
+    @Autowired
+    private AvailabilityExceptionRepository exceptionRepository;
+
+    @Autowired
+    private ProviderServiceRepository providerServiceRepository;
+
+    @Autowired
+    private ProviderScheduleIndex scheduleIndex;
+
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${app.availability.cache.max-size}")
+    private long cacheMaxSize;
+
+    @Value("${app.availability.cache.ttl}")
+    private Duration cacheTtl;
+
+    @Value("${app.availability.max-range-days}")
+    private int maxRangeDays;
+
+    @Value("${app.availability.default-hours}")
+    private String defaultHours;
+
+    @Value("${app.reservations.default-duration-minutes}")
+    private int defaultDurationMinutes;
+
+    private Cache<Long, ProviderCalendar> calendars;
+
+    private Cache<Long, ProviderServiceRef> providerServices;
+
+    // Horaires par défaut des prestataires sans horaires déclarés
+    private long defaultDay;
+
+    @PostConstruct
+    void initCache() {
+        String[] bounds = defaultHours.split("-");
+        defaultDay = DaySlots.inner(LocalTime.parse(bounds[0].trim()), LocalTime.parse(bounds[1].trim()));
+
+        calendars = Caffeine.newBuilder()
+                .maximumSize(cacheMaxSize)
+                .expireAfterWrite(cacheTtl)
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, calendars, "availability.calendars");
+
+        providerServices = Caffeine.newBuilder()
+                .maximumSize(cacheMaxSize)
+                .expireAfterWrite(cacheTtl)
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, providerServices, "availability.provider-services");
+    }
+
+    // ==================== PRESTATAIRE ====================
+
+    /**
+     * Horaires hebdomadaires du prestataire connecté
+     */
+    public List<AvailabilityDTO> getMyWeeklyHours() {
+        return availabilityRepository.findByProviderId(userService.getCurrentUserId())
+                .stream()
+                .map(AvailabilityDTO::new)
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * Remplace les horaires hebdomadaires du prestataire connecté
+     */
+    @Transactional
+    public List<AvailabilityDTO> replaceMyWeeklyHours(List<AvailabilityDTO> hours) {
+        Long providerId = userService.getCurrentUserId();
+        User provider = userService.getCurrentUserReference();
+
+        List<ProviderAvailability> entities = new ArrayList<>();
+        for (AvailabilityDTO h : hours) {
+            if (h.getDayOfWeek() == null) {
+                throw new RuntimeException("Le jour de la semaine est obligatoire");
+            }
+            validateRange(h.getStartTime(), h.getEndTime());
+            entities.add(new ProviderAvailability(provider, h.getDayOfWeek(), h.getStartTime(), h.getEndTime()));
+        }
+
+        availabilityRepository.deleteByProviderId(providerId);
+        availabilityRepository.saveAll(entities);
+        evictAfterCommit(providerId);
+
+        return entities.stream().map(AvailabilityDTO::new).collect(Collectors.toList());
+    }
+
+    /**
+     * Exceptions à venir du prestataire connecté
+     */
+    public List<AvailabilityExceptionDTO> getMyExceptions() {
+        return exceptionRepository.findByProviderIdFrom(userService.getCurrentUserId(), LocalDate.now())
+                .stream()
+                .map(AvailabilityExceptionDTO::new)
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * Ajoute une exception (congé, fermeture ou ouverture ponctuelle)
+     */
+    @Transactional
+    public AvailabilityExceptionDTO addException(AvailabilityExceptionDTO request) {
+        boolean wholeDay = request.getStartTime() == null && request.getEndTime() == null;
+        if (!wholeDay) {
+            validateRange(request.getStartTime(), request.getEndTime());
+        }
+
+        AvailabilityException exception = new AvailabilityException();
+        exception.setProvider(userService.getCurrentUserReference());
+        exception.setDate(request.getDate());
+        exception.setStartTime(request.getStartTime());
+        exception.setEndTime(request.getEndTime());
+        exception.setAvailable(Boolean.TRUE.equals(request.getAvailable()));
+        exception.setReason(request.getReason());
+
+        exception = exceptionRepository.save(exception);
+        evictAfterCommit(userService.getCurrentUserId());
+        return new AvailabilityExceptionDTO(exception);
+    }
+
+    /**
+     * Supprime une exception du prestataire connecté
+     */
+    @Transactional
+    public void deleteException(Long id) {
+        Long providerId = userService.getCurrentUserId();
+        AvailabilityException exception = exceptionRepository.findById(id)
+                .orElseThrow(() -> new RuntimeException("Exception de disponibilité non trouvée"));
+        if (!exception.getProvider().getId().equals(providerId)) {
+            throw new RuntimeException("Non autorisé");
+        }
+        exceptionRepository.delete(exception);
+        evictAfterCommit(providerId);
+    }
+
+    // ==================== CRÉNEAUX ====================
+
+    /**
+     * Créneaux réservables d'un service prestataire sur [from, to]
+     */
+    public List<DaySlotsDTO> getAvailableSlots(Long providerServiceId, LocalDate from, LocalDate to,
+            Integer durationMinutes) {
+        if (to.isBefore(from)) {
+            throw new RuntimeException("La date de fin doit suivre la date de début");
+        }
+        if (ChronoUnit.DAYS.between(from, to) >= maxRangeDays) {
+            throw new RuntimeException("Période limitée à " + maxRangeDays + " jours");
+        }
+        int duration = durationMinutes != null ? durationMinutes : defaultDurationMinutes;
+        if (duration < MIN_DURATION_MINUTES || duration > MAX_DURATION_MINUTES) {
+            throw new RuntimeException("La durée doit être comprise entre " + MIN_DURATION_MINUTES
+                    + " et " + MAX_DURATION_MINUTES + " minutes");
+        }
+        ProviderServiceRef providerService = providerServices.get(providerServiceId, this::loadProviderService);
+        if (!providerService.available) {
+            return List.of();
+        }
+
+        Long providerId = providerService.providerId;
+        ProviderCalendar calendar = calendar(providerId);
+        int length = DaySlots.slotsFor(duration);
+        LocalDateTime now = LocalDateTime.now();
+        LocalDate first = from.isBefore(now.toLocalDate()) ? now.toLocalDate() : from;
+
+        List<DaySlotsDTO> result = new ArrayList<>();
+        for (LocalDate day = first; !day.isAfter(to); day = day.plusDays(1)) {
+            long free = calendar.workingSlots(day) & ~bookedSlots(providerId, day);
+            if (day.equals(now.toLocalDate())) {
+                free &= ~DaySlots.covering(0, DaySlots.minuteOfDay(now.toLocalTime()) + 1);
+            }
+            result.add(new DaySlotsDTO(day, startTimes(DaySlots.starts(free, length))));
+        }
+        return result;
+    }
+
+    /**
+     * Vérifie qu'une réservation tombe dans les horaires du prestataire : même
+     * calendrier compilé que la recherche de créneaux (horaires déclarés, ou
+     * horaires par défaut, plus les exceptions)
+     */
+    public boolean isWithinWorkingHours(Long providerId, LocalDateTime start, LocalDateTime end) {
+        ProviderCalendar calendar = calendar(providerId);
+        LocalDate day = start.toLocalDate();
+        if (end.isAfter(day.plusDays(1).atStartOfDay())) {
+            return false;
+        }
+        int endMinute = end.toLocalDate().isAfter(day) ? 24 * 60 : DaySlots.minuteOfDay(end.toLocalTime());
+        long needed = DaySlots.covering(DaySlots.minuteOfDay(start.toLocalTime()), endMinute);
+        return (calendar.workingSlots(day) & needed) == needed;
+    }
+
+    private long bookedSlots(Long providerId, LocalDate day) {
+        LocalDateTime dayStart = day.atStartOfDay();
+        LocalDateTime dayEnd = dayStart.plusDays(1);
+        long mask = 0L;
+        for (BookedInterval interval : scheduleIndex.booked(providerId, dayStart, dayEnd)) {
+            int startMinute = interval.getStart().isAfter(dayStart)
+                    ? DaySlots.minuteOfDay(interval.getStart().toLocalTime()) : 0;
+            int endMinute = interval.getEnd().isBefore(dayEnd)
+                    ? DaySlots.minuteOfDay(interval.getEnd().toLocalTime()) : 24 * 60;
+            mask |= DaySlots.covering(startMinute, endMinute);
+        }
+        return mask;
+    }
+
+    private static List<LocalTime> startTimes(long starts) {
+        List<LocalTime> times = new ArrayList<>(Long.bitCount(starts));
+        while (starts != 0) {
+            int slot = Long.numberOfTrailingZeros(starts);
+            times.add(DaySlots.timeOf(slot));
+            starts &= starts - 1;
+        }
+        return times;
+    }
+
+    /**
+     * Retire un service prestataire du cache (disponibilité modifiée)
+     */
+    public void evictProviderService(Long providerServiceId) {
+        providerServices.invalidate(providerServiceId);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    providerServices.invalidate(providerServiceId);
+                }
+            });
+        }
+    }
+
+    private ProviderServiceRef loadProviderService(Long providerServiceId) {
+        ProviderService providerService = providerServiceRepository.findById(providerServiceId)
+                .orElseThrow(() -> new RuntimeException("Service prestataire non trouvé"));
+        return new ProviderServiceRef(providerService.getProvider().getId(), providerService.getAvailable());
+    }
+
+    private ProviderCalendar calendar(Long providerId) {
+        return calendars.get(providerId, this::loadCalendar);
+    }
+
+    private ProviderCalendar loadCalendar(Long providerId) {
+        List<ProviderAvailability> hours = availabilityRepository.findByProviderId(providerId);
+        long[] weekly = new long[7];
+        if (hours.isEmpty()) {
+            // Horaires par défaut du lundi au samedi
+            for (DayOfWeek d : DayOfWeek.values()) {
+                weekly[d.ordinal()] = d == DayOfWeek.SUNDAY ? 0L : defaultDay;
+            }
+        }
+        for (ProviderAvailability h : hours) {
+            weekly[h.getDayOfWeek().ordinal()] |= DaySlots.inner(h.getStartTime(), h.getEndTime());
+        }
+
+        Map<LocalDate, long[]> overrides = new HashMap<>();
+        for (AvailabilityException e : exceptionRepository.findByProviderIdFrom(providerId, LocalDate.now().minusDays(1))) {
+            long[] masks = overrides.computeIfAbsent(e.getDate(), d -> new long[2]);
+            long range = e.getStartTime() == null
+                    ? DaySlots.FULL_DAY
+                    : DaySlots.inner(e.getStartTime(), e.getEndTime());
+            masks[Boolean.TRUE.equals(e.getAvailable()) ? 0 : 1] |= range;
+        }
+        return new ProviderCalendar(weekly, overrides);
+    }
+
+    private void validateRange(LocalTime start, LocalTime end) {
+        if (start == null || end == null) {
+            throw new RuntimeException("Les heures de début et de fin sont obligatoires");
+        }
+        if (!DaySlots.isAligned(start) || !DaySlots.isAligned(end)) {
+            throw new RuntimeException("Les horaires doivent être des multiples de "
+                    + DaySlots.SLOT_MINUTES + " minutes");
+        }
+        if (!end.equals(LocalTime.MIDNIGHT) && !start.isBefore(end)) {
+            throw new RuntimeException("L'heure de fin doit suivre l'heure de début");
+        }
+    }
+
+    // Invalide le calendrier après commit, pour ne pas remettre en cache l'état précédent
+    private void evictAfterCommit(Long providerId) {
+        calendars.invalidate(providerId);
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                calendars.invalidate(providerId);
+            }
+        });
+    }
+
+    /**
+     * Prestataire et disponibilité d'un service prestataire
+     */
+    private static class ProviderServiceRef {
+
+        private final Long providerId;
+        private final boolean available;
+
+        ProviderServiceRef(Long providerId, Boolean available) {
+            this.providerId = providerId;
+            this.available = Boolean.TRUE.equals(available);
+        }
+    }
+
+    /**
+     * Calendrier compilé d'un prestataire : un bitset par jour de semaine,
+     * plus les ouvertures [0] et fermetures [1] par date
+     */
+    private static class ProviderCalendar {
+
+        private final long[] weekly;
+        private final Map<LocalDate, long[]> overrides;
+
+        ProviderCalendar(long[] weekly, Map<LocalDate, long[]> overrides) {
+            this.weekly = weekly;
+            this.overrides = overrides;
+        }
+
+        long workingSlots(LocalDate day) {
+            long slots = weekly[day.getDayOfWeek().ordinal()];
+            long[] masks = overrides.get(day);
+            if (masks != null) {
+                slots = (slots | masks[0]) & ~masks[1];
+            }
+            return slots;
+        }
+    }
+}
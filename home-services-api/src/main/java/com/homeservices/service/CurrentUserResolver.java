@@ -0,0 +1,65 @@
+package com.homeservices.service;
+
+import com.homeservices.config.UserPrincipal;
+import com.homeservices.entity.User;
+import com.homeservices.enums.UserRole;
+import com.homeservices.repository.UserRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Component;
+import org.springframework.web.context.annotation.RequestScope;
+
+/**
+ * Résout l'utilisateur courant une seule fois par requête HTTP
+ *
+ * L'ID et le rôle sont lus depuis le principal authentifié (aucune requête SQL).
+ * L'entité User n'est chargée qu'à la première demande, puis réutilisée.
+ */
+@Component
+@RequestScope
+public class CurrentUserResolver {
+
+    @Autowired
+    private UserRepository userRepository;
+
+    private User user;
+
+    /**
+     * Principal authentifié de la requête
+     */
+    public UserPrincipal getPrincipal() {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication == null || !(authentication.getPrincipal() instanceof UserPrincipal principal)) {
+            throw new RuntimeException("Utilisateur non trouvé");
+        }
+        return principal;
+    }
+
+    public Long getUserId() {
+        return getPrincipal().getId();
+    }
+
+    public UserRole getRole() {
+        return getPrincipal().getRole();
+    }
+
+    /**
+     * Entité de l'utilisateur courant, chargée au plus une fois par requête
+     */
+    public User getUser() {
+        if (user == null) {
+            user = userRepository.findById(getUserId())
+                    .orElseThrow(() -> new RuntimeException("Utilisateur non trouvé"));
+        }
+        return user;
+    }
+
+    /**
+     * Référence (proxy non initialisé) vers l'utilisateur courant,
+     * suffisante pour renseigner une association sans requête SQL
+     */
+    public User getUserReference() {
+        return user != null ? user : userRepository.getReferenceById(getUserId());
+    }
+}
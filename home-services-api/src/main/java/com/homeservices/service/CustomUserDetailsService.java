@@ -1,39 +1,92 @@
 package com.homeservices.service;
 
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.homeservices.config.UserPrincipal;
 import com.homeservices.entity.User;
 import com.homeservices.repository.UserRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import jakarta.annotation.PostConstruct;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UserDetailsPasswordService;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
-import java.util.Collections;
+import java.time.Duration;
 
 /**
  * Service de chargement des détails utilisateur pour Spring Security
+ *
+ * Les principals sont mis en cache (taille bornée, TTL) par email et par ID.
+ * Toute modification d'un utilisateur doit appeler evictUser (l'entrée est
+ * retirée aussitôt puis à nouveau après commit : une connexion concurrente ne
+ * peut pas remettre en cache la ligne d'avant la modification).
  */
 @Service
-public class CustomUserDetailsService implements UserDetailsService {
+public class CustomUserDetailsService implements UserDetailsService, UserDetailsPasswordService {
 
     @Autowired
     private UserRepository userRepository;
 
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${app.security.user-cache.max-size}")
+    private long maxSize;
+
+    @Value("${app.security.user-cache.ttl}")
+    private Duration ttl;
+
+    private Cache<String, UserPrincipal> byEmail;
+
+    private Cache<Long, UserPrincipal> byId;
+
+    private Counter invalidations;
+
+    @PostConstruct
+    void initCaches() {
+        byEmail = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(ttl)
+                .recordStats()
+                .build();
+        byId = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(ttl)
+                .recordStats()
+                .build();
+
+        // Expose hits, misses et évictions (taille/TTL) sous cache.*
+        CaffeineCacheMetrics.monitor(meterRegistry, byEmail, "users.byEmail");
+        CaffeineCacheMetrics.monitor(meterRegistry, byId, "users.byId");
+        invalidations = Counter.builder("users.cache.invalidations")
+                .description("Invalidations explicites suite à une modification d'utilisateur")
+                .register(meterRegistry);
+    }
+
     /**
      * Charge un utilisateur par son email pour l'authentification
      */
     @Override
     @Transactional(readOnly = true)
     public UserDetails loadUserByUsername(String email) throws UsernameNotFoundException {
+        UserPrincipal cached = byEmail.getIfPresent(email);
+        if (cached != null) {
+            return cached;
+        }
+
         User user = userRepository.findByEmail(email)
                 .orElseThrow(() -> new UsernameNotFoundException("Utilisateur non trouvé avec l'email: " + email));
 
-        return new org.springframework.security.core.userdetails.User(
-                user.getEmail(),
-                user.getPassword(),
-                Collections.singletonList(new SimpleGrantedAuthority(user.getRole().name())));
+        return cache(UserPrincipal.from(user));
     }
 
     /**
@@ -41,12 +94,71 @@ public class CustomUserDetailsService implements UserDetailsService {
      */
     @Transactional(readOnly = true)
     public UserDetails loadUserById(Long id) {
+        UserPrincipal cached = byId.getIfPresent(id);
+        if (cached != null) {
+            return cached;
+        }
+
         User user = userRepository.findById(id)
                 .orElseThrow(() -> new UsernameNotFoundException("Utilisateur non trouvé avec l'ID: " + id));
 
-        return new org.springframework.security.core.userdetails.User(
-                user.getEmail(),
-                user.getPassword(),
-                Collections.singletonList(new SimpleGrantedAuthority(user.getRole().name())));
+        return cache(UserPrincipal.from(user));
+    }
+
+    /**
+     * Remplace le hash du mot de passe après une connexion réussie
+     * (appelé par DaoAuthenticationProvider quand le coût du hash a changé)
+     */
+    @Override
+    @Transactional
+    public UserDetails updatePassword(UserDetails userDetails, String newPassword) {
+        User user = userRepository.findByEmail(userDetails.getUsername())
+                .orElseThrow(() -> new UsernameNotFoundException(
+                        "Utilisateur non trouvé avec l'email: " + userDetails.getUsername()));
+
+        user.setPassword(newPassword);
+        user = userRepository.save(user);
+        evictUser(user.getId(), user.getEmail());
+
+        // Mis en cache une fois le nouveau hash validé seulement
+        UserPrincipal principal = UserPrincipal.from(user);
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                cache(principal);
+            }
+        });
+        return principal;
+    }
+
+    /**
+     * Retire un utilisateur du cache (profil, rôle ou mot de passe modifié)
+     */
+    public void evictUser(Long id, String email) {
+        invalidate(id, email);
+        invalidations.increment();
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    invalidate(id, email);
+                }
+            });
+        }
+    }
+
+    private void invalidate(Long id, String email) {
+        if (id != null) {
+            byId.invalidate(id);
+        }
+        if (email != null) {
+            byEmail.invalidate(email);
+        }
+    }
+
+    private UserPrincipal cache(UserPrincipal principal) {
+        byEmail.put(principal.getEmail(), principal);
+        byId.put(principal.getId(), principal);
+        return principal;
     }
 }
@@ -0,0 +1,237 @@
+package com.homeservices.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.homeservices.entity.IdempotencyRecord;
+import com.homeservices.exception.ConflictException;
+import com.homeservices.repository.IdempotencyRecordRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.HexFormat;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Supplier;
+
+/**
+ * Service d'idempotence des requêtes de création (en-tête Idempotency-Key)
+ *
+ * - Une clé déjà traitée rejoue la réponse enregistrée, sans réexécuter l'action
+ *   (cache local borné, puis table idempotency_keys)
+ * - Des requêtes simultanées avec la même clé attendent une seule exécution
+ * - La réponse est enregistrée dans la transaction de l'action, par un INSERT :
+ *   la clé primaire de la table départage deux instances concurrentes (la
+ *   perdante est annulée et rejoue la réponse de la gagnante)
+ * - Réutiliser une clé avec un autre corps de requête est refusé
+ */
+@Service
+public class IdempotencyService {
+
+    @Autowired
+    private IdempotencyRecordRepository recordRepository;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${app.idempotency.ttl}")
+    private Duration ttl;
+
+    @Value("${app.idempotency.cache.max-size}")
+    private long cacheMaxSize;
+
+    @Value("${app.idempotency.in-flight-wait}")
+    private Duration inFlightWait;
+
+    private Cache<String, StoredResponse> responses;
+
+    private final Map<String, CompletableFuture<StoredResponse>> inFlight = new ConcurrentHashMap<>();
+
+    private TransactionTemplate transactionTemplate;
+
+    @PostConstruct
+    void init() {
+        responses = Caffeine.newBuilder()
+                .maximumSize(cacheMaxSize)
+                .expireAfterWrite(ttl)
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, responses, "idempotency.responses");
+        transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    /**
+     * Exécute l'action une seule fois par clé et rejoue sa réponse ensuite
+     *
+     * @param operation nom de l'opération (portée de la clé, avec l'utilisateur courant)
+     * @param key       valeur de l'en-tête Idempotency-Key
+     * @param request   corps de la requête, comparé à celui de la première exécution
+     */
+    public <T> T execute(String operation, String key, Object request, Class<T> responseType, Supplier<T> action) {
+        if (key.isBlank() || key.length() > 100) {
+            throw new RuntimeException("Clé d'idempotence invalide (1 à 100 caractères)");
+        }
+        String recordKey = operation + ":" + userService.getCurrentUserId() + ":" + key;
+        String fingerprint = fingerprint(request);
+
+        StoredResponse stored = lookup(recordKey);
+        if (stored == null) {
+            CompletableFuture<StoredResponse> mine = new CompletableFuture<>();
+            CompletableFuture<StoredResponse> running = inFlight.putIfAbsent(recordKey, mine);
+            if (running != null) {
+                stored = await(running);
+                countReplay("in-flight");
+            } else {
+                try {
+                    // Une exécution concurrente a pu se terminer (et libérer sa place) depuis la première lecture
+                    stored = lookup(recordKey);
+                    if (stored == null) {
+                        stored = executeOnce(recordKey, fingerprint, action);
+                        responses.put(recordKey, stored);
+                    }
+                    mine.complete(stored);
+                } catch (RuntimeException e) {
+                    mine.completeExceptionally(e);
+                    throw e;
+                } finally {
+                    inFlight.remove(recordKey, mine);
+                }
+            }
+        }
+
+        if (!stored.fingerprint.equals(fingerprint)) {
+            throw new ConflictException("Cette clé d'idempotence a déjà été utilisée pour une autre requête");
+        }
+        return read(stored.body, responseType);
+    }
+
+    /**
+     * Supprime les clés expirées
+     */
+    @Scheduled(cron = "${app.idempotency.purge-cron}")
+    @Transactional
+    public void purgeExpired() {
+        recordRepository.deleteExpired(LocalDateTime.now());
+    }
+
+    // Réponse déjà enregistrée : cache local, puis table
+    private StoredResponse lookup(String recordKey) {
+        StoredResponse stored = responses.getIfPresent(recordKey);
+        if (stored != null) {
+            countReplay("cache");
+            return stored;
+        }
+        stored = recordRepository.findValid(recordKey, LocalDateTime.now())
+                .map(r -> new StoredResponse(r.getFingerprint(), r.getResponseBody()))
+                .orElse(null);
+        if (stored != null) {
+            responses.put(recordKey, stored);
+            countReplay("database");
+        }
+        return stored;
+    }
+
+    // Action et enregistrement de la réponse dans la même transaction
+    private StoredResponse executeOnce(String recordKey, String fingerprint, Supplier<?> action) {
+        try {
+            return transactionTemplate.execute(status -> {
+                // Une clé expirée (pas encore purgée) est libérée explicitement avant l'INSERT
+                recordRepository.deleteExpiredKey(recordKey, LocalDateTime.now());
+                String body = write(action.get());
+                LocalDateTime now = LocalDateTime.now();
+                recordRepository.saveAndFlush(new IdempotencyRecord(recordKey, fingerprint, body, now, now.plus(ttl)));
+                return new StoredResponse(fingerprint, body);
+            });
+        } catch (DataIntegrityViolationException e) {
+            // Une autre instance a traité la même clé : sa transaction fait foi
+            return recordRepository.findValid(recordKey, LocalDateTime.now())
+                    .map(r -> new StoredResponse(r.getFingerprint(), r.getResponseBody()))
+                    .orElseThrow(() -> e);
+        }
+    }
+
+    private StoredResponse await(CompletableFuture<StoredResponse> running) {
+        try {
+            return running.get(inFlightWait.toMillis(), TimeUnit.MILLISECONDS);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw new RuntimeException(e.getCause());
+        } catch (TimeoutException e) {
+            throw new ConflictException("Une requête identique est en cours de traitement");
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new ConflictException("Une requête identique est en cours de traitement");
+        }
+    }
+
+    private void countReplay(String source) {
+        meterRegistry.counter("idempotency.replays", "source", source).increment();
+    }
+
+    private String fingerprint(Object request) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(objectMapper.writeValueAsBytes(request));
+            return HexFormat.of().formatHex(digest);
+        } catch (NoSuchAlgorithmException | JsonProcessingException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private String write(Object value) {
+        try {
+            return objectMapper.writeValueAsString(value);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private <T> T read(String body, Class<T> type) {
+        try {
+            return objectMapper.readValue(body.getBytes(StandardCharsets.UTF_8), type);
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static class StoredResponse {
+
+        private final String fingerprint;
+        private final String body;
+
+        StoredResponse(String fingerprint, String body) {
+            this.fingerprint = fingerprint;
+            this.body = body;
+        }
+    }
+}
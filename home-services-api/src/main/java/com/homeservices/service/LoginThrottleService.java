@@ -0,0 +1,90 @@
+package com.homeservices.service;
+
+import com.homeservices.exception.TooManyRequestsException;
+import com.homeservices.util.SlidingWindowCounter;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.util.Locale;
+
+/**
+ * Limitation des tentatives de connexion par email et par adresse IP
+ *
+ * Appelé avant toute vérification de mot de passe : une attaque par
+ * bourrage d'identifiants est rejetée sans consommer de CPU BCrypt.
+ */
+@Service
+public class LoginThrottleService {
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${app.security.login-throttle.window}")
+    private Duration window;
+
+    @Value("${app.security.login-throttle.email-limit}")
+    private int emailLimit;
+
+    @Value("${app.security.login-throttle.ip-limit}")
+    private int ipLimit;
+
+    @Value("${app.security.login-throttle.max-keys}")
+    private long maxKeys;
+
+    private SlidingWindowCounter emailCounter;
+
+    private SlidingWindowCounter ipCounter;
+
+    private Counter emailRejections;
+
+    private Counter ipRejections;
+
+    @PostConstruct
+    void init() {
+        emailCounter = new SlidingWindowCounter(maxKeys, window.toMillis());
+        ipCounter = new SlidingWindowCounter(maxKeys, window.toMillis());
+        emailRejections = Counter.builder("login.throttle.rejected")
+                .tag("key", "email")
+                .description("Tentatives de connexion rejetées par la limitation")
+                .register(meterRegistry);
+        ipRejections = Counter.builder("login.throttle.rejected")
+                .tag("key", "ip")
+                .description("Tentatives de connexion rejetées par la limitation")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Compte une tentative de connexion ou lève TooManyRequestsException
+     */
+    public void checkLogin(String email, String clientIp) {
+        checkIp(clientIp);
+
+        long now = System.currentTimeMillis();
+        String key = email == null ? "" : email.trim().toLowerCase(Locale.ROOT);
+        if (!emailCounter.tryAcquire(key, emailLimit, now)) {
+            emailRejections.increment();
+            throw tooManyAttempts(emailCounter, now);
+        }
+    }
+
+    /**
+     * Compte une opération de hachage pour une adresse IP (connexion, inscription)
+     */
+    public void checkIp(String clientIp) {
+        long now = System.currentTimeMillis();
+        if (clientIp != null && !ipCounter.tryAcquire(clientIp, ipLimit, now)) {
+            ipRejections.increment();
+            throw tooManyAttempts(ipCounter, now);
+        }
+    }
+
+    private TooManyRequestsException tooManyAttempts(SlidingWindowCounter counter, long now) {
+        long retryAfter = Math.max(1, counter.millisUntilNextWindow(now) / 1000);
+        return new TooManyRequestsException("Trop de tentatives, veuillez réessayer plus tard", retryAfter);
+    }
+}
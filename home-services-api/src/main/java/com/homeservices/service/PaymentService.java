@@ -1,24 +1,29 @@
 package com.homeservices.service;
 
+import com.homeservices.dto.CursorPage;
 import com.homeservices.dto.PaymentRequest;
 import com.homeservices.dto.TransactionDTO;
 import com.homeservices.entity.Reservation;
 import com.homeservices.entity.Transaction;
-import com.homeservices.entity.User;
 import com.homeservices.enums.PaymentStatus;
 import com.homeservices.enums.ReservationStatus;
 import com.homeservices.enums.UserRole;
+import com.homeservices.event.ReservationPaidEvent;
+import com.homeservices.event.ReservationStatusChangedEvent;
+import com.homeservices.exception.ConflictException;
 import com.homeservices.repository.ReservationRepository;
 import com.homeservices.repository.TransactionRepository;
+import com.homeservices.util.KeysetCursor;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
+import java.util.EnumSet;
 import java.util.List;
 import java.util.UUID;
-import java.util.stream.Collectors;
 
 /**
  * Service de gestion des paiements
@@ -37,22 +42,39 @@ public class PaymentService {
     @Autowired
     private UserService userService;
 
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    @Autowired
+    private ReservationArchiveService archiveService;
+
     /**
      * Traite un paiement (simulation)
      */
     @Transactional
     public TransactionDTO processPayment(PaymentRequest request) {
-        User client = userService.getCurrentUser();
+        Long clientId = userService.getCurrentUserId();
 
         // Vérifier si la réservation existe et appartient au client
         Reservation reservation = reservationRepository.findById(request.getReservationId())
                 .orElseThrow(() -> new RuntimeException("Réservation non trouvée"));
 
-        if (!reservation.getClient().getId().equals(client.getId())) {
+        if (!reservation.getClient().getId().equals(clientId)) {
             throw new RuntimeException("Non autorisé");
         }
 
-        // Vérifier si déjà payé
+        // Seule garde sur le statut : UPDATE conditionnel vers CONFIRMEE (une réservation
+        // en attente est confirmée, une réservation confirmée le reste). Le verrou de ligne
+        // est tenu jusqu'au commit : une annulation ou un second paiement concurrent attend.
+        LocalDateTime now = LocalDateTime.now();
+        boolean confirmedNow = reservationRepository.transitionAsClient(reservation.getId(), clientId,
+                ReservationStatus.CONFIRMEE.predecessors(), ReservationStatus.CONFIRMEE, now) == 1;
+        if (!confirmedNow && reservationRepository.transitionAsClient(reservation.getId(), clientId,
+                EnumSet.of(ReservationStatus.CONFIRMEE), ReservationStatus.CONFIRMEE, now) != 1) {
+            throw new ConflictException("Cette réservation ne peut plus être payée");
+        }
+
+        // Vérifier si déjà payé (après la garde : un paiement concurrent est alors validé)
         if (transactionRepository.existsByReservationId(request.getReservationId())) {
             throw new RuntimeException("Cette réservation a déjà été payée");
         }
@@ -62,71 +84,79 @@ public class PaymentService {
         transaction.setReservation(reservation);
         transaction.setAmount(reservation.getProviderService().getPrice());
         transaction.setPaymentMethod(request.getPaymentMethod());
-        transaction.setTransactionDate(LocalDateTime.now());
+        transaction.setTransactionDate(now);
 
         // Simulation: Le paiement réussit toujours
         // En production, intégrer avec Stripe ici
         transaction.setStatus(PaymentStatus.REUSSI);
         transaction.setTransactionReference("TXN-" + UUID.randomUUID().toString().substring(0, 8).toUpperCase());
 
-        // Mettre à jour le statut de la réservation
-        reservation.setStatus(ReservationStatus.CONFIRMEE);
-        reservationRepository.save(reservation);
-
         transaction = transactionRepository.save(transaction);
+        if (confirmedNow) {
+            eventPublisher.publishEvent(new ReservationStatusChangedEvent(
+                    reservation.getId(), reservation.getProviderId(), ReservationStatus.CONFIRMEE));
+        }
+        eventPublisher.publishEvent(new ReservationPaidEvent(reservation.getId(), reservation.getProviderId()));
         return new TransactionDTO(transaction);
     }
 
     /**
-     * Liste les transactions de l'utilisateur courant
+     * Liste une page des transactions de l'utilisateur courant, plus récentes d'abord
+     * (pages anciennes : transactions archivées incluses)
      */
-    public List<TransactionDTO> getMyTransactions() {
-        User user = userService.getCurrentUser();
-
-        if (user.getRole() == UserRole.CLIENT) {
-            return transactionRepository.findByClientId(user.getId())
-                    .stream()
-                    .map(TransactionDTO::new)
-                    .collect(Collectors.toList());
-        } else if (user.getRole() == UserRole.PRESTATAIRE) {
-            return transactionRepository.findByProviderId(user.getId())
-                    .stream()
-                    .map(TransactionDTO::new)
-                    .collect(Collectors.toList());
+    public CursorPage<TransactionDTO> getMyTransactions(String cursor, Integer limit) {
+        Long userId = userService.getCurrentUserId();
+        UserRole role = userService.getCurrentUserRole();
+        KeysetCursor after = KeysetCursor.decode(cursor);
+        int size = CursorPage.clampLimit(limit);
+
+        List<TransactionDTO> rows;
+        if (role == UserRole.CLIENT) {
+            rows = transactionRepository.findDTOPageByClientId(userId,
+                    after.getTimestamp(), after.getId(), CursorPage.probe(size));
+        } else if (role == UserRole.PRESTATAIRE) {
+            rows = transactionRepository.findDTOPageByProviderId(userId,
+                    after.getTimestamp(), after.getId(), CursorPage.probe(size));
+        } else {
+            rows = List.of();
         }
 
-        return List.of();
+        rows = archiveService.mergeTransactionPage(rows, size, role, userId, after);
+        return CursorPage.of(rows, size, TransactionDTO::getTransactionDate, TransactionDTO::getId);
     }
 
     /**
-     * Calcule le solde d'un prestataire
+     * Calcule le solde d'un prestataire (archives comprises)
      */
     public BigDecimal getProviderBalance() {
-        User provider = userService.getCurrentUser();
-        return transactionRepository.calculateProviderBalance(provider.getId());
+        Long providerId = userService.getCurrentUserId();
+        return transactionRepository.calculateProviderBalance(providerId)
+                .add(archiveService.archivedRevenue(providerId));
     }
 
     /**
-     * Liste toutes les transactions (admin)
+     * Liste une page de toutes les transactions (admin), plus récentes d'abord
      */
-    public List<TransactionDTO> getAllTransactions() {
-        return transactionRepository.findRecentTransactions()
-                .stream()
-                .map(TransactionDTO::new)
-                .collect(Collectors.toList());
+    public CursorPage<TransactionDTO> getAllTransactions(String cursor, Integer limit) {
+        KeysetCursor after = KeysetCursor.decode(cursor);
+        int size = CursorPage.clampLimit(limit);
+        List<TransactionDTO> rows = transactionRepository.findDTOPage(
+                after.getTimestamp(), after.getId(), CursorPage.probe(size));
+        return CursorPage.of(rows, size, TransactionDTO::getTransactionDate, TransactionDTO::getId);
     }
 
     /**
-     * Calcule le revenu total
+     * Calcule le revenu total (archives compris)
      */
     public BigDecimal getTotalRevenue() {
-        return transactionRepository.calculateTotalRevenue();
+        return transactionRepository.calculateTotalRevenue().add(archiveService.archivedRevenue());
     }
 
     /**
      * Compte les transactions réussies
      */
     public Long countSuccessfulTransactions() {
-        return transactionRepository.countByStatus(PaymentStatus.REUSSI);
+        return transactionRepository.countByStatus(PaymentStatus.REUSSI)
+                + archiveService.countArchivedTransactions(PaymentStatus.REUSSI);
     }
 }
@@ -0,0 +1,323 @@
+package com.homeservices.service;
+
+import com.homeservices.dto.BookedInterval;
+import com.homeservices.enums.ReservationStatus;
+import com.homeservices.event.ReservationStatusChangedEvent;
+import com.homeservices.repository.ReservationRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.CommandLineRunner;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Index en mémoire des créneaux occupés, par prestataire
+ *
+ * Les créneaux actifs d'un prestataire sont disjoints : une TreeMap triée par
+ * début suffit comme arbre d'intervalles. Le seul candidat au chevauchement
+ * d'un créneau [début, fin) est celui qui commence juste avant sa fin, d'où
+ * une vérification en O(log n). Chaque prestataire a son propre verrou.
+ *
+ * L'index est local à l'instance : un créneau libéré sur une autre instance
+ * y reste jusqu'à la prochaine resynchronisation. Un chevauchement trouvé
+ * dans l'index n'est donc qu'un indice, confirmé en base (index
+ * provider_id, scheduled_date) avant tout refus ; les créneaux que la base
+ * infirme sont retirés. Les créneaux réservés par une transaction locale non
+ * encore validée (invisibles en base) sont conservés. La contrainte
+ * d'exclusion PostgreSQL (voir DatabaseConstraintsInitializer) reste le
+ * filet de sécurité dans l'autre sens.
+ */
+@Component
+public class ProviderScheduleIndex implements CommandLineRunner {
+
+    // Durée maximale d'une réservation : borne la fenêtre de rechargement
+    private static final long MAX_DURATION_HOURS = 12;
+
+    @Autowired
+    private ReservationRepository reservationRepository;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    private final Map<Long, TreeMap<LocalDateTime, BookedInterval>> byProvider = new ConcurrentHashMap<>();
+
+    private final Map<Long, BookedInterval> byReservation = new ConcurrentHashMap<>();
+
+    // Créneaux réservés par une transaction locale en cours
+    private final Set<Long> pending = ConcurrentHashMap.newKeySet();
+
+    private Counter conflicts;
+
+    private Counter staleReleased;
+
+    @PostConstruct
+    void init() {
+        conflicts = Counter.builder("reservations.schedule.conflicts")
+                .description("Réservations refusées pour chevauchement")
+                .register(meterRegistry);
+        staleReleased = Counter.builder("reservations.schedule.stale.released")
+                .description("Créneaux de l'index infirmés par la base (libérés sur une autre instance)")
+                .register(meterRegistry);
+        Gauge.builder("reservations.schedule.indexed", byReservation, Map::size)
+                .description("Créneaux présents dans l'index en mémoire")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Charge les créneaux actifs à venir au démarrage
+     */
+    @Override
+    public void run(String... args) {
+        List<BookedInterval> intervals = reservationRepository.findBookedIntervalsFrom(
+                ReservationStatus.ACTIVE, LocalDateTime.now().minusHours(MAX_DURATION_HOURS));
+        LocalDateTime now = LocalDateTime.now();
+        int loaded = 0;
+        for (BookedInterval interval : intervals) {
+            if (interval.getEnd().isAfter(now) && index(interval)) {
+                loaded++;
+            }
+        }
+        System.out.println("📅 Index des créneaux chargé : " + loaded + " réservation(s) à venir");
+    }
+
+    /**
+     * Indique si le créneau est libre (sans le réserver).
+     * Un chevauchement dans l'index est confirmé en base avant de répondre non.
+     */
+    public boolean isFree(Long providerId, LocalDateTime start, LocalDateTime end) {
+        if (!overlapsIndexed(providerId, start, end)) {
+            return true;
+        }
+        reconcile(providerId, start, end);
+        if (overlapsIndexed(providerId, start, end)) {
+            conflicts.increment();
+            return false;
+        }
+        return true;
+    }
+
+    /**
+     * Réserve le créneau pour une transaction en cours s'il ne chevauche aucun
+     * créneau actif du prestataire (chevauchement confirmé en base).
+     * La transaction doit appeler committed ou release à sa fin.
+     */
+    public boolean tryReserve(BookedInterval interval) {
+        pending.add(interval.getReservationId());
+        if (index(interval)) {
+            return true;
+        }
+        reconcile(interval.getProviderId(), interval.getStart(), interval.getEnd());
+        if (index(interval)) {
+            return true;
+        }
+        pending.remove(interval.getReservationId());
+        conflicts.increment();
+        return false;
+    }
+
+    /**
+     * Marque le créneau d'une transaction validée : il est désormais visible en base
+     */
+    public void committed(Long reservationId) {
+        pending.remove(reservationId);
+    }
+
+    /**
+     * Libère le créneau d'une réservation (sans effet s'il n'est pas indexé)
+     */
+    public void release(Long reservationId) {
+        pending.remove(reservationId);
+        BookedInterval interval = byReservation.remove(reservationId);
+        if (interval == null) {
+            return;
+        }
+        TreeMap<LocalDateTime, BookedInterval> timeline = byProvider.get(interval.getProviderId());
+        if (timeline != null) {
+            synchronized (timeline) {
+                timeline.remove(interval.getStart(), interval);
+            }
+        }
+    }
+
+    /**
+     * Créneaux occupés d'un prestataire qui touchent [from, to)
+     */
+    public List<BookedInterval> booked(Long providerId, LocalDateTime from, LocalDateTime to) {
+        TreeMap<LocalDateTime, BookedInterval> timeline = byProvider.get(providerId);
+        if (timeline == null) {
+            return List.of();
+        }
+        synchronized (timeline) {
+            List<BookedInterval> result = new ArrayList<>();
+            BookedInterval before = findOverlap(timeline, from, from.plusNanos(1));
+            if (before != null && before.getStart().isBefore(from)) {
+                result.add(before);
+            }
+            result.addAll(timeline.subMap(from, true, to, false).values());
+            return result;
+        }
+    }
+
+    /**
+     * Libère le créneau d'une réservation devenue inactive, une fois le changement validé
+     */
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT)
+    public void onStatusChanged(ReservationStatusChangedEvent event) {
+        if (!event.getNewStatus().isActive()) {
+            release(event.getReservationId());
+        }
+    }
+
+    /**
+     * Resynchronise l'index avec la base : retire les créneaux libérés et ajoute
+     * ceux réservés sur les autres instances (alimente aussi la recherche de créneaux)
+     */
+    @Scheduled(fixedDelayString = "${app.reservations.schedule-index.resync-interval}")
+    public void resync() {
+        LocalDateTime from = LocalDateTime.now().minusHours(MAX_DURATION_HOURS);
+        List<BookedInterval> snapshot = new ArrayList<>();
+        for (TreeMap<LocalDateTime, BookedInterval> timeline : byProvider.values()) {
+            synchronized (timeline) {
+                collectCommitted(timeline.tailMap(from, true).values(), from, snapshot);
+            }
+        }
+        apply(snapshot, reservationRepository.findBookedIntervalsFrom(ReservationStatus.ACTIVE, from));
+    }
+
+    /**
+     * Retire les créneaux passés pour borner la mémoire
+     */
+    @Scheduled(cron = "${app.reservations.schedule-index.prune-cron}")
+    public void prunePast() {
+        LocalDateTime now = LocalDateTime.now();
+        for (TreeMap<LocalDateTime, BookedInterval> timeline : byProvider.values()) {
+            synchronized (timeline) {
+                NavigableMap<LocalDateTime, BookedInterval> past = timeline.headMap(now, false);
+                past.values().removeIf(interval -> {
+                    if (interval.getEnd().isAfter(now)) {
+                        return false;
+                    }
+                    byReservation.remove(interval.getReservationId(), interval);
+                    return true;
+                });
+            }
+        }
+    }
+
+    /**
+     * Confronte à la base les créneaux indexés du prestataire qui touchent [start, end)
+     */
+    private void reconcile(Long providerId, LocalDateTime start, LocalDateTime end) {
+        LocalDateTime earliest = start.minusHours(MAX_DURATION_HOURS);
+        List<BookedInterval> snapshot = new ArrayList<>();
+        TreeMap<LocalDateTime, BookedInterval> timeline = byProvider.get(providerId);
+        if (timeline != null) {
+            synchronized (timeline) {
+                collectCommitted(timeline.subMap(earliest, true, end, false).values(), start, snapshot);
+            }
+        }
+        apply(snapshot, reservationRepository.findBookedIntervalsOverlapping(
+                providerId, ReservationStatus.ACTIVE, earliest, start, end));
+    }
+
+    // Seuls les créneaux validés avant la lecture en base peuvent être infirmés par elle
+    private void collectCommitted(Collection<BookedInterval> intervals, LocalDateTime after,
+            List<BookedInterval> snapshot) {
+        for (BookedInterval interval : intervals) {
+            if (interval.getEnd().isAfter(after) && !pending.contains(interval.getReservationId())) {
+                snapshot.add(interval);
+            }
+        }
+    }
+
+    // Retire les créneaux de l'instantané absents de la base, ajoute ceux qui manquent à l'index
+    private void apply(List<BookedInterval> snapshot, List<BookedInterval> actual) {
+        Map<Long, BookedInterval> actualById = new HashMap<>();
+        actual.forEach(interval -> actualById.put(interval.getReservationId(), interval));
+
+        for (BookedInterval interval : snapshot) {
+            BookedInterval current = actualById.get(interval.getReservationId());
+            if (current == null || !current.getStart().equals(interval.getStart())
+                    || !current.getEnd().equals(interval.getEnd())) {
+                if (remove(interval)) {
+                    staleReleased.increment();
+                }
+            }
+        }
+        LocalDateTime now = LocalDateTime.now();
+        for (BookedInterval interval : actual) {
+            if (interval.getEnd().isAfter(now) && !byReservation.containsKey(interval.getReservationId())) {
+                index(interval);
+            }
+        }
+    }
+
+    // Ajoute le créneau à l'index s'il ne chevauche aucun créneau indexé
+    private boolean index(BookedInterval interval) {
+        BookedInterval previous = byReservation.get(interval.getReservationId());
+        if (previous != null) {
+            remove(previous);
+        }
+
+        TreeMap<LocalDateTime, BookedInterval> timeline =
+                byProvider.computeIfAbsent(interval.getProviderId(), id -> new TreeMap<>());
+        synchronized (timeline) {
+            if (findOverlap(timeline, interval.getStart(), interval.getEnd()) != null) {
+                return false;
+            }
+            timeline.put(interval.getStart(), interval);
+            byReservation.put(interval.getReservationId(), interval);
+            return true;
+        }
+    }
+
+    // Retire ce créneau précis (sans effet s'il a été remplacé entre-temps)
+    private boolean remove(BookedInterval interval) {
+        if (!byReservation.remove(interval.getReservationId(), interval)) {
+            return false;
+        }
+        TreeMap<LocalDateTime, BookedInterval> timeline = byProvider.get(interval.getProviderId());
+        if (timeline != null) {
+            synchronized (timeline) {
+                timeline.remove(interval.getStart(), interval);
+            }
+        }
+        return true;
+    }
+
+    private boolean overlapsIndexed(Long providerId, LocalDateTime start, LocalDateTime end) {
+        TreeMap<LocalDateTime, BookedInterval> timeline = byProvider.get(providerId);
+        if (timeline == null) {
+            return false;
+        }
+        synchronized (timeline) {
+            return findOverlap(timeline, start, end) != null;
+        }
+    }
+
+    // Créneaux disjoints : seul celui qui commence juste avant "end" peut chevaucher
+    private static BookedInterval findOverlap(TreeMap<LocalDateTime, BookedInterval> timeline,
+            LocalDateTime start, LocalDateTime end) {
+        Map.Entry<LocalDateTime, BookedInterval> candidate = timeline.lowerEntry(end);
+        if (candidate != null && candidate.getValue().getEnd().isAfter(start)) {
+            return candidate.getValue();
+        }
+        return null;
+    }
+}
@@ -0,0 +1,121 @@
+package com.homeservices.service;
+
+import com.homeservices.config.JwtUtils;
+import com.homeservices.config.TokenVerification;
+import com.homeservices.entity.RefreshToken;
+import com.homeservices.entity.User;
+import com.homeservices.repository.RefreshTokenRepository;
+import io.jsonwebtoken.Claims;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.Date;
+import java.util.UUID;
+
+/**
+ * Service de gestion des refresh tokens
+ *
+ * Chaque connexion ouvre une famille de session. Un refresh token ne peut être
+ * utilisé qu'une fois : il est remplacé par un nouveau token de la même
+ * famille. Présenter un token déjà consommé révoque toute la famille.
+ */
+@Service
+public class RefreshTokenService {
+
+    @Autowired
+    private RefreshTokenRepository refreshTokenRepository;
+
+    @Autowired
+    private TokenRevocationService tokenRevocationService;
+
+    @Autowired
+    private JwtUtils jwtUtils;
+
+    /**
+     * Ouvre une nouvelle famille de session
+     */
+    public String newFamilyId() {
+        return UUID.randomUUID().toString();
+    }
+
+    /**
+     * Émet et enregistre un refresh token dans une famille
+     */
+    @Transactional
+    public String createRefreshToken(User user, String familyId) {
+        String tokenId = UUID.randomUUID().toString();
+        Date expiryDate = new Date(System.currentTimeMillis() + jwtUtils.getRefreshExpirationMs());
+
+        refreshTokenRepository.save(new RefreshToken(tokenId, familyId, user,
+                LocalDateTime.ofInstant(expiryDate.toInstant(), ZoneId.systemDefault())));
+
+        return jwtUtils.generateRefreshToken(user.getEmail(), tokenId, familyId, expiryDate);
+    }
+
+    /**
+     * Consomme un refresh token et retourne l'enregistrement correspondant
+     * (le nouvel access token et refresh token sont émis dans sa famille)
+     */
+    @Transactional
+    public RefreshToken consume(String refreshToken) {
+        Claims claims = verifyRefreshToken(refreshToken);
+
+        String familyId = jwtUtils.getFamilyId(claims);
+        if (tokenRevocationService.isRevoked(familyId)) {
+            throw new RuntimeException("Session révoquée");
+        }
+
+        RefreshToken stored = refreshTokenRepository.findByTokenId(claims.getId())
+                .orElseThrow(() -> new RuntimeException("Refresh token invalide"));
+
+        if (refreshTokenRepository.markUsed(stored.getId(), LocalDateTime.now()) == 0) {
+            // Token déjà consommé : vol probable, toute la session est révoquée
+            tokenRevocationService.revokeFamily(stored.getFamilyId(), stored.getUser().getId());
+            throw new RuntimeException("Refresh token déjà utilisé, session révoquée");
+        }
+
+        return stored;
+    }
+
+    /**
+     * Révoque la famille d'un refresh token (déconnexion)
+     */
+    @Transactional
+    public void revoke(String refreshToken) {
+        Claims claims = verifyRefreshToken(refreshToken);
+        RefreshToken stored = refreshTokenRepository.findByTokenId(claims.getId())
+                .orElseThrow(() -> new RuntimeException("Refresh token invalide"));
+        tokenRevocationService.revokeFamily(stored.getFamilyId(), stored.getUser().getId());
+    }
+
+    /**
+     * Révoque toutes les sessions d'un utilisateur (changement de mot de passe)
+     */
+    @Transactional
+    public void revokeAll(Long userId) {
+        tokenRevocationService.revokeFamilies(
+                refreshTokenRepository.findActiveFamilyIds(userId, LocalDateTime.now()), userId);
+    }
+
+    /**
+     * Purge quotidienne des refresh tokens expirés
+     */
+    @Scheduled(cron = "${app.jwt.revocation.rebuild-cron}")
+    @Transactional
+    public void purgeExpired() {
+        refreshTokenRepository.deleteExpired(LocalDateTime.now());
+    }
+
+    private Claims verifyRefreshToken(String refreshToken) {
+        TokenVerification verification = jwtUtils.verify(refreshToken);
+        if (!verification.isValid() || !jwtUtils.isRefreshToken(verification.getClaims())
+                || verification.getClaims().getId() == null) {
+            throw new RuntimeException("Refresh token invalide");
+        }
+        return verification.getClaims();
+    }
+}
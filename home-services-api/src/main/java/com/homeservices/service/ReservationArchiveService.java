@@ -0,0 +1,303 @@
+package com.homeservices.service;
+
+import com.homeservices.dto.CursorPage;
+import com.homeservices.dto.ReservationDTO;
+import com.homeservices.dto.StatusCountDTO;
+import com.homeservices.dto.TransactionDTO;
+import com.homeservices.enums.PaymentStatus;
+import com.homeservices.enums.ReservationStatus;
+import com.homeservices.enums.UserRole;
+import com.homeservices.repository.ReservationArchiveRepository;
+import com.homeservices.util.KeysetCursor;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.CommandLineRunner;
+import org.springframework.core.annotation.Order;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+
+/**
+ * Archivage des réservations terminées ou annulées (et de leurs transactions)
+ *
+ * Au-delà de app.reservations.archive.age après leur dernière mise à jour,
+ * elles quittent les tables courantes pour des tables archives partitionnées
+ * par mois : index et parcours des tables courantes restent à la taille de
+ * l'activité récente. Un lot par transaction, lignes verrouillées avec
+ * SKIP LOCKED : plusieurs instances peuvent archiver en même temps.
+ *
+ * Les historiques client et prestataire ne lisent l'archive que pour les
+ * pages qui remontent avant l'horizon d'archivage ; statistiques et soldes
+ * y ajoutent les montants archivés. PostgreSQL uniquement : ailleurs
+ * l'archivage est désactivé et tout reste dans les tables courantes.
+ */
+@Service
+@Order(1)
+public class ReservationArchiveService implements CommandLineRunner {
+
+    /**
+     * Statuts archivables : la réservation n'évoluera plus
+     */
+    public static final Set<ReservationStatus> ARCHIVABLE =
+            Collections.unmodifiableSet(EnumSet.of(ReservationStatus.TERMINEE, ReservationStatus.ANNULEE));
+
+    @Autowired
+    private ReservationArchiveRepository archiveRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${app.reservations.archive.age}")
+    private Duration age;
+
+    @Value("${app.reservations.archive.chunk-size}")
+    private int chunkSize;
+
+    @Value("${app.reservations.archive.max-chunks}")
+    private int maxChunks;
+
+    private TransactionTemplate transactionTemplate;
+
+    private volatile boolean enabled;
+
+    // Dates les plus récentes présentes dans les archives, au dernier passage
+    private volatile LocalDateTime reservationsHorizon;
+    private volatile LocalDateTime transactionsHorizon;
+
+    // Partitions mensuelles déjà créées par cette instance
+    private final Set<YearMonth> partitions = ConcurrentHashMap.newKeySet();
+
+    @PostConstruct
+    void init() {
+        transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    /**
+     * Crée les tables archives au démarrage (PostgreSQL uniquement)
+     */
+    @Override
+    public void run(String... args) {
+        if (!isPostgreSQL()) {
+            return;
+        }
+        try {
+            archiveRepository.createTables();
+            refreshHorizons();
+            enabled = true;
+        } catch (DataAccessException e) {
+            System.err.println("⚠️ Archivage des réservations désactivé : " + e.getMostSpecificCause().getMessage());
+        }
+    }
+
+    /**
+     * Déplace lot par lot les réservations terminées ou annulées trop anciennes vers l'archive
+     */
+    @Scheduled(cron = "${app.reservations.archive.cron}")
+    public void archiveFinishedReservations() {
+        if (!enabled) {
+            return;
+        }
+        LocalDateTime before = LocalDateTime.now().minus(age);
+        LocalDateTime oldest = archiveRepository.findOldestArchivable(ARCHIVABLE, before);
+        if (oldest == null) {
+            return;
+        }
+        // Les transactions suivent leur réservation : mêmes mois, jusqu'à aujourd'hui au plus
+        for (YearMonth month = YearMonth.from(oldest); !month.isAfter(YearMonth.now()); month = month.plusMonths(1)) {
+            createPartitions(month);
+        }
+
+        Timer.Sample sample = Timer.start(meterRegistry);
+        int reservations = 0;
+        int transactions = 0;
+        for (int chunk = 0; chunk < maxChunks; chunk++) {
+            int[] result = transactionTemplate.execute(status -> archiveChunk(before));
+            reservations += result[1];
+            transactions += result[2];
+            if (result[0] < chunkSize) {
+                break;
+            }
+        }
+        meterRegistry.counter("reservations.archive.moved", "table", "reservations").increment(reservations);
+        meterRegistry.counter("reservations.archive.moved", "table", "transactions").increment(transactions);
+        sample.stop(meterRegistry.timer("reservations.archive.duration"));
+
+        refreshHorizons();
+        if (reservations > 0) {
+            System.out.println("🗄️ " + reservations + " réservation(s) et " + transactions
+                    + " transaction(s) archivée(s)");
+        }
+    }
+
+    /**
+     * Complète une page d'historique des réservations avec les lignes archivées
+     * quand elle remonte avant l'horizon d'archivage
+     *
+     * @param hot lignes des tables courantes, lues avec CursorPage.probe(size)
+     */
+    public List<ReservationDTO> mergeReservationPage(List<ReservationDTO> hot, int size, UserRole role, Long userId,
+            KeysetCursor after) {
+        if (!reachesArchive(hot, size, ReservationDTO::getCreatedAt, reservationsHorizon)) {
+            return hot;
+        }
+        List<ReservationDTO> archived;
+        if (role == UserRole.CLIENT) {
+            archived = archiveRepository.findPageByClientId(userId, after.getTimestamp(), after.getId(), size + 1);
+        } else if (role == UserRole.PRESTATAIRE) {
+            archived = archiveRepository.findPageByProviderId(userId, after.getTimestamp(), after.getId(), size + 1);
+        } else {
+            return hot;
+        }
+        return CursorPage.merge(hot, archived, size + 1, ReservationDTO::getCreatedAt, ReservationDTO::getId);
+    }
+
+    /**
+     * Complète une page d'historique des transactions avec les lignes archivées
+     * quand elle remonte avant l'horizon d'archivage
+     *
+     * @param hot lignes des tables courantes, lues avec CursorPage.probe(size)
+     */
+    public List<TransactionDTO> mergeTransactionPage(List<TransactionDTO> hot, int size, UserRole role, Long userId,
+            KeysetCursor after) {
+        if (!reachesArchive(hot, size, TransactionDTO::getTransactionDate, transactionsHorizon)) {
+            return hot;
+        }
+        List<TransactionDTO> archived;
+        if (role == UserRole.CLIENT) {
+            archived = archiveRepository.findTransactionPageByClientId(userId, after.getTimestamp(), after.getId(),
+                    size + 1);
+        } else if (role == UserRole.PRESTATAIRE) {
+            archived = archiveRepository.findTransactionPageByProviderId(userId, after.getTimestamp(), after.getId(),
+                    size + 1);
+        } else {
+            return hot;
+        }
+        return CursorPage.merge(hot, archived, size + 1, TransactionDTO::getTransactionDate, TransactionDTO::getId);
+    }
+
+    /**
+     * Nombre de réservations archivées d'un statut (0 si l'archivage est désactivé)
+     */
+    public long countArchivedReservations(ReservationStatus status) {
+        return enabled && ARCHIVABLE.contains(status) ? archiveRepository.countByStatus(status) : 0;
+    }
+
+    /**
+     * Réservations archivées d'un client ou d'un prestataire, par statut (vide si l'archivage est désactivé)
+     */
+    public List<StatusCountDTO> countArchivedReservations(UserRole role, Long userId) {
+        if (!enabled) {
+            return List.of();
+        }
+        if (role == UserRole.CLIENT) {
+            return archiveRepository.countByClientIdGroupByStatus(userId);
+        }
+        if (role == UserRole.PRESTATAIRE) {
+            return archiveRepository.countByProviderIdGroupByStatus(userId);
+        }
+        return List.of();
+    }
+
+    /**
+     * Nombre de transactions archivées d'un statut (0 si l'archivage est désactivé)
+     */
+    public long countArchivedTransactions(PaymentStatus status) {
+        return enabled ? archiveRepository.countTransactionsByStatus(status) : 0;
+    }
+
+    /**
+     * Revenu archivé (transactions réussies)
+     */
+    public BigDecimal archivedRevenue() {
+        return enabled ? archiveRepository.sumSuccessfulAmount() : BigDecimal.ZERO;
+    }
+
+    /**
+     * Revenu archivé d'un prestataire (transactions réussies)
+     */
+    public BigDecimal archivedRevenue(Long providerId) {
+        return enabled ? archiveRepository.sumSuccessfulAmountByProviderId(providerId) : BigDecimal.ZERO;
+    }
+
+    // Retourne {lignes verrouillées, réservations archivées, transactions archivées}
+    private int[] archiveChunk(LocalDateTime before) {
+        List<Long> ids = archiveRepository.lockArchivable(ARCHIVABLE, before, chunkSize);
+        if (ids.isEmpty()) {
+            return new int[] { 0, 0, 0 };
+        }
+        LocalDateTime now = LocalDateTime.now();
+        int transactions = archiveRepository.moveTransactions(ids, now);
+        int reservations = archiveRepository.moveReservations(ids, now);
+        return new int[] { ids.size(), reservations, transactions };
+    }
+
+    private void createPartitions(YearMonth month) {
+        if (partitions.contains(month)) {
+            return;
+        }
+        try {
+            archiveRepository.createMonthPartitions(month);
+            partitions.add(month);
+        } catch (DataAccessException e) {
+            // Les lignes de ce mois iront dans la partition par défaut
+            System.err.println("⚠️ Partition d'archive " + month + " non créée : "
+                    + e.getMostSpecificCause().getMessage());
+        }
+    }
+
+    /**
+     * Une page pleine dont la ligne suivante est plus récente que tout ce qui
+     * a pu être archivé n'a rien à lire dans l'archive. L'horizon ne descend
+     * jamais sous maintenant - age : une autre instance a pu archiver depuis
+     * le dernier passage de celle-ci.
+     */
+    private <T> boolean reachesArchive(List<T> hot, int size, Function<T, LocalDateTime> timestamp,
+            LocalDateTime archived) {
+        if (!enabled) {
+            return false;
+        }
+        if (hot.size() <= size) {
+            return true;
+        }
+        LocalDateTime horizon = LocalDateTime.now().minus(age);
+        if (archived != null && archived.isAfter(horizon)) {
+            horizon = archived;
+        }
+        return !timestamp.apply(hot.get(size)).isAfter(horizon);
+    }
+
+    private void refreshHorizons() {
+        reservationsHorizon = archiveRepository.findReservationsHorizon();
+        transactionsHorizon = archiveRepository.findTransactionsHorizon();
+    }
+
+    private boolean isPostgreSQL() {
+        String product = jdbcTemplate.execute(
+                (ConnectionCallback<String>) connection -> connection.getMetaData().getDatabaseProductName());
+        return "PostgreSQL".equals(product);
+    }
+}
@@ -0,0 +1,160 @@
+package com.homeservices.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.homeservices.dto.CalendarDayDTO;
+import com.homeservices.dto.CalendarVersion;
+import com.homeservices.dto.ReservationDTO;
+import com.homeservices.event.ReservationPaidEvent;
+import com.homeservices.event.ReservationScheduledEvent;
+import com.homeservices.event.ReservationStatusChangedEvent;
+import com.homeservices.repository.ReservationRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+import java.util.stream.Collectors;
+
+/**
+ * Calendrier des réservations du prestataire, jour par jour
+ *
+ * Le mois courant et le suivant sont gardés en mémoire par prestataire, sous
+ * forme de cases par jour chargées en une requête indexée (provider_id,
+ * scheduled_date) : une vue mensuelle n'est qu'une lecture de sous-arbre.
+ * Avant d'être servies, les cases sont comparées à l'empreinte de la période
+ * en base (agrégat sur le même index, sans jointure) : un changement fait sur
+ * une autre instance les recharge. Les changements locaux les vident aussi
+ * après commit. Les autres périodes sont lues directement en base.
+ */
+@Service
+public class ReservationCalendarService {
+
+    @Autowired
+    private ReservationRepository reservationRepository;
+
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${app.reservations.calendar.cache.max-size}")
+    private long cacheMaxSize;
+
+    @Value("${app.reservations.calendar.cache.ttl}")
+    private Duration cacheTtl;
+
+    @Value("${app.reservations.calendar.max-range-days}")
+    private int maxRangeDays;
+
+    private Cache<Long, ProviderMonths> calendars;
+
+    @PostConstruct
+    void initCache() {
+        calendars = Caffeine.newBuilder()
+                .maximumSize(cacheMaxSize)
+                .expireAfterWrite(cacheTtl)
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, calendars, "reservations.calendar");
+    }
+
+    /**
+     * Réservations du prestataire connecté sur [from, to], jours vides omis
+     */
+    public List<CalendarDayDTO> getMyCalendar(LocalDate from, LocalDate to) {
+        if (to.isBefore(from)) {
+            throw new RuntimeException("La date de fin doit suivre la date de début");
+        }
+        if (ChronoUnit.DAYS.between(from, to) >= maxRangeDays) {
+            throw new RuntimeException("Période limitée à " + maxRangeDays + " jours");
+        }
+        Long providerId = userService.getCurrentUserId();
+
+        YearMonth current = YearMonth.now();
+        NavigableMap<LocalDate, List<ReservationDTO>> days;
+        if (!from.isBefore(current.atDay(1)) && to.isBefore(current.plusMonths(2).atDay(1))) {
+            days = months(providerId, current).days.subMap(from, true, to, true);
+        } else {
+            days = bucket(reservationRepository.findDTOsByProviderIdScheduledBetween(providerId,
+                    from.atStartOfDay(), to.plusDays(1).atStartOfDay()));
+        }
+
+        return days.entrySet().stream()
+                .map(day -> new CalendarDayDTO(day.getKey(), day.getValue()))
+                .collect(Collectors.toList());
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT)
+    public void onScheduled(ReservationScheduledEvent event) {
+        calendars.invalidate(event.getProviderId());
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT)
+    public void onStatusChanged(ReservationStatusChangedEvent event) {
+        calendars.invalidate(event.getProviderId());
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT)
+    public void onPaid(ReservationPaidEvent event) {
+        calendars.invalidate(event.getProviderId());
+    }
+
+    // Cases du mois courant et du suivant ; rechargées au changement de mois ou d'empreinte
+    private ProviderMonths months(Long providerId, YearMonth current) {
+        LocalDateTime from = current.atDay(1).atStartOfDay();
+        LocalDateTime to = current.plusMonths(2).atDay(1).atStartOfDay();
+        // Empreinte lue avant les cases : un changement concurrent force un rechargement au prochain appel
+        CalendarVersion version = reservationRepository.findCalendarVersion(providerId, from, to);
+
+        ProviderMonths months = calendars.getIfPresent(providerId);
+        if (months == null || !months.first.equals(current) || !months.version.equals(version)) {
+            months = new ProviderMonths(current, version,
+                    bucket(reservationRepository.findDTOsByProviderIdScheduledBetween(providerId, from, to)));
+            calendars.put(providerId, months);
+        }
+        return months;
+    }
+
+    // Regroupe par jour des réservations triées par date
+    private static NavigableMap<LocalDate, List<ReservationDTO>> bucket(List<ReservationDTO> reservations) {
+        NavigableMap<LocalDate, List<ReservationDTO>> days = new TreeMap<>();
+        for (ReservationDTO reservation : reservations) {
+            days.computeIfAbsent(reservation.getScheduledDate().toLocalDate(), day -> new ArrayList<>())
+                    .add(reservation);
+        }
+        days.replaceAll((day, list) -> Collections.unmodifiableList(list));
+        return Collections.unmodifiableNavigableMap(days);
+    }
+
+    /**
+     * Cases par jour d'un prestataire, du premier jour de first à la fin du mois suivant
+     */
+    private static class ProviderMonths {
+
+        private final YearMonth first;
+        private final CalendarVersion version;
+        private final NavigableMap<LocalDate, List<ReservationDTO>> days;
+
+        ProviderMonths(YearMonth first, CalendarVersion version, NavigableMap<LocalDate, List<ReservationDTO>> days) {
+            this.first = first;
+            this.version = version;
+            this.days = days;
+        }
+    }
+}
@@ -0,0 +1,165 @@
+package com.homeservices.service;
+
+import com.homeservices.dto.BookedInterval;
+import com.homeservices.dto.StatusUpdateResultDTO;
+import com.homeservices.enums.ReservationStatus;
+import com.homeservices.event.ReservationReminderEvent;
+import com.homeservices.event.ReservationScheduledEvent;
+import com.homeservices.event.ReservationStatusChangedEvent;
+import com.homeservices.repository.ReservationRepository;
+import com.homeservices.util.HierarchicalTimingWheel;
+import com.homeservices.util.HierarchicalTimingWheel.Timeout;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.CommandLineRunner;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+
+/**
+ * Rappels avant les réservations (app.reminders.lead-time avant la date)
+ *
+ * Les rappels à venir sont gardés dans une roue temporelle hiérarchique :
+ * ajout et annulation en O(1), un noeud par rappel. Seule une fenêtre de
+ * app.reminders.window est chargée depuis la base ; elle est prolongée au
+ * fil du temps. Créations et annulations sont suivies par événements.
+ *
+ * Chaque instance tient sa propre roue : avec plusieurs instances, les
+ * consommateurs de ReservationReminderEvent doivent dédupliquer.
+ */
+@Service
+public class ReservationReminderService implements CommandLineRunner {
+
+    @Autowired
+    private ReservationRepository reservationRepository;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${app.reminders.lead-time}")
+    private Duration leadTime;
+
+    @Value("${app.reminders.window}")
+    private Duration window;
+
+    @Value("${app.reminders.tick}")
+    private long tickMs;
+
+    private HierarchicalTimingWheel<BookedInterval> wheel;
+
+    private final Map<Long, Timeout<BookedInterval>> byReservation = new ConcurrentHashMap<>();
+
+    // Les réservations prévues avant cette date sont chargées dans la roue
+    private volatile LocalDateTime loadedUntil;
+
+    private Counter fired;
+
+    @PostConstruct
+    void init() {
+        wheel = new HierarchicalTimingWheel<>(tickMs, 4, System.currentTimeMillis());
+        fired = Counter.builder("reservations.reminders.fired")
+                .description("Rappels de réservation envoyés")
+                .register(meterRegistry);
+        Gauge.builder("reservations.reminders.pending", byReservation, Map::size)
+                .description("Rappels planifiés en mémoire")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Charge la première fenêtre au démarrage (les rappels déjà passés sont ignorés)
+     */
+    @Override
+    public void run(String... args) {
+        LocalDateTime from = LocalDateTime.now().plus(leadTime);
+        loadWindow(from, from.plus(window));
+        System.out.println("🔔 Rappels planifiés : " + byReservation.size());
+    }
+
+    /**
+     * Avance la roue, publie les rappels arrivés et prolonge la fenêtre chargée
+     */
+    @Scheduled(fixedDelayString = "${app.reminders.tick}")
+    public void tick() {
+        List<BookedInterval> due = wheel.advance(System.currentTimeMillis());
+        if (!due.isEmpty()) {
+            fire(due);
+        }
+
+        LocalDateTime horizon = LocalDateTime.now().plus(leadTime).plus(window);
+        if (loadedUntil != null && loadedUntil.isBefore(horizon.minus(window.dividedBy(2)))) {
+            loadWindow(loadedUntil, horizon);
+        }
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT)
+    public void onScheduled(ReservationScheduledEvent event) {
+        schedule(new BookedInterval(event.getReservationId(), event.getProviderId(),
+                event.getScheduledDate(), event.getScheduledDate()));
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT)
+    public void onStatusChanged(ReservationStatusChangedEvent event) {
+        if (!event.getNewStatus().isActive()) {
+            wheel.cancel(byReservation.remove(event.getReservationId()));
+        }
+    }
+
+    private synchronized void loadWindow(LocalDateTime from, LocalDateTime to) {
+        loadedUntil = to;
+        reservationRepository.findBookedIntervalsBetween(ReservationStatus.ACTIVE, from, to)
+                .forEach(this::schedule);
+    }
+
+    /**
+     * Planifie (ou replanifie) le rappel d'une réservation de la fenêtre chargée
+     */
+    private void schedule(BookedInterval reservation) {
+        LocalDateTime remindAt = reservation.getStart().minus(leadTime);
+        if (loadedUntil == null || !reservation.getStart().isBefore(loadedUntil)
+                || remindAt.isBefore(LocalDateTime.now())) {
+            return;
+        }
+        byReservation.compute(reservation.getReservationId(), (id, previous) -> {
+            wheel.cancel(previous);
+            return wheel.schedule(remindAt.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli(), reservation);
+        });
+    }
+
+    // Revérifie les statuts en base : une annulation a pu venir d'une autre instance
+    private void fire(List<BookedInterval> due) {
+        due.forEach(r -> byReservation.computeIfPresent(r.getReservationId(),
+                (id, timeout) -> timeout.getPayload() == r ? null : timeout));
+
+        Set<Long> active = reservationRepository.findStatuses(
+                due.stream().map(BookedInterval::getReservationId).collect(Collectors.toSet())).stream()
+                .filter(row -> row.getStatus().isActive())
+                .map(StatusUpdateResultDTO::getId)
+                .collect(Collectors.toSet());
+
+        for (BookedInterval reservation : due) {
+            if (active.contains(reservation.getReservationId())) {
+                eventPublisher.publishEvent(new ReservationReminderEvent(
+                        reservation.getReservationId(), reservation.getProviderId(), reservation.getStart()));
+                fired.increment();
+            }
+        }
+    }
+}
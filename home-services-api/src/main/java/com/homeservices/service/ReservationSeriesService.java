@@ -0,0 +1,342 @@
+package com.homeservices.service;
+
+import com.homeservices.dto.BookedInterval;
+import com.homeservices.dto.CreateReservationSeriesRequest;
+import com.homeservices.dto.ReservationSeriesDTO;
+import com.homeservices.dto.SeriesOccurrenceDTO;
+import com.homeservices.entity.ProviderService;
+import com.homeservices.entity.ReservationSeries;
+import com.homeservices.entity.User;
+import com.homeservices.enums.ReservationStatus;
+import com.homeservices.enums.UserRole;
+import com.homeservices.event.ReservationStatusChangedEvent;
+import com.homeservices.exception.ConflictException;
+import com.homeservices.repository.ReservationRepository;
+import com.homeservices.repository.ReservationSeriesRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Service des réservations récurrentes
+ *
+ * Une série ne stocke que sa règle. Les occurrences sont calculées à la
+ * demande pour une période donnée ; seules celles des prochains jours
+ * (app.reservations.series.materialize-ahead) deviennent des réservations,
+ * afin de passer par les contrôles de chevauchement et d'apparaître chez le
+ * prestataire. L'annulation d'une série est une mise à jour de la série plus
+ * un seul UPDATE de ses occurrences à venir.
+ */
+@Service
+public class ReservationSeriesService {
+
+    // Série sans occurrence restante : n'est plus sélectionnée pour matérialisation
+    private static final LocalDateTime FINISHED = LocalDateTime.of(9999, 12, 31, 0, 0);
+
+    @Autowired
+    private ReservationSeriesRepository seriesRepository;
+
+    @Autowired
+    private ReservationRepository reservationRepository;
+
+    @Autowired
+    private ReservationService reservationService;
+
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${app.reservations.series.materialize-ahead}")
+    private Duration materializeAhead;
+
+    @Value("${app.reservations.series.max-range-days}")
+    private int maxRangeDays;
+
+    @Value("${app.reservations.sweep.chunk-size}")
+    private int chunkSize;
+
+    // Une transaction par occurrence : un conflit n'annule pas les autres
+    private TransactionTemplate transactionTemplate;
+
+    private Counter materialized;
+
+    private Counter skipped;
+
+    @PostConstruct
+    void init() {
+        transactionTemplate = new TransactionTemplate(transactionManager);
+        transactionTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        materialized = Counter.builder("reservations.series.materialized")
+                .description("Occurrences de séries créées comme réservations")
+                .register(meterRegistry);
+        skipped = Counter.builder("reservations.series.skipped")
+                .description("Occurrences de séries non réservables (créneau pris, hors horaires)")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Crée une série (client) ; la première occurrence doit être réservable
+     */
+    public ReservationSeriesDTO createSeries(CreateReservationSeriesRequest request) {
+        if (request.getUntilDate() != null && request.getUntilDate().isBefore(request.getScheduledDate().toLocalDate())) {
+            throw new RuntimeException("La date de fin doit suivre la première occurrence");
+        }
+
+        Long seriesId = transactionTemplate.execute(status -> {
+            User client = userService.getCurrentUser();
+            ProviderService providerService = reservationService.findBookableService(request.getProviderServiceId());
+
+            ReservationSeries series = new ReservationSeries();
+            series.setClient(client);
+            series.setProviderService(providerService);
+            series.setProviderId(providerService.getProvider().getId());
+            series.setFirstDate(request.getScheduledDate());
+            series.setFrequency(request.getFrequency());
+            series.setRepeatInterval(request.getRepeatInterval() != null ? request.getRepeatInterval() : 1);
+            series.setUntilDate(request.getUntilDate());
+            series.setMaxOccurrences(request.getMaxOccurrences());
+            series.setDurationMinutes(reservationService.durationOf(request.getDurationMinutes()));
+            series.setNotes(request.getNotes());
+            series.setAddress(request.getAddress() != null ? request.getAddress() : client.getAddress());
+            // La première occurrence est réservée ici : les suivantes restent à matérialiser
+            series.setMaterializedUntil(series.getFrequency().plus(series.getFirstDate(), series.getRepeatInterval()));
+            series = seriesRepository.save(series);
+
+            reservationService.book(client, providerService, series.getFirstDate(), series.getDurationMinutes(),
+                    series.getNotes(), series.getAddress(), series);
+            return series.getId();
+        });
+
+        materialize(seriesId, LocalDateTime.now().plus(materializeAhead));
+        return new ReservationSeriesDTO(findDetailed(seriesId));
+    }
+
+    /**
+     * Liste les séries de l'utilisateur courant (client ou prestataire)
+     */
+    @Transactional(readOnly = true)
+    public List<ReservationSeriesDTO> getMySeries() {
+        Long userId = userService.getCurrentUserId();
+        UserRole role = userService.getCurrentUserRole();
+
+        List<ReservationSeries> series;
+        if (role == UserRole.CLIENT) {
+            series = seriesRepository.findByClientId(userId);
+        } else if (role == UserRole.PRESTATAIRE) {
+            series = seriesRepository.findByProviderId(userId);
+        } else {
+            series = List.of();
+        }
+        return series.stream().map(ReservationSeriesDTO::new).collect(Collectors.toList());
+    }
+
+    /**
+     * Occurrences d'une série sur une période (bornes incluses) : réservations
+     * déjà créées et occurrences à venir calculées à la volée
+     */
+    @Transactional(readOnly = true)
+    public List<SeriesOccurrenceDTO> getOccurrences(Long seriesId, LocalDate from, LocalDate to) {
+        if (to.isBefore(from) || ChronoUnit.DAYS.between(from, to) >= maxRangeDays) {
+            throw new RuntimeException("Période invalide (maximum " + maxRangeDays + " jours)");
+        }
+
+        ReservationSeries series = findDetailed(seriesId);
+        Long userId = userService.getCurrentUserId();
+        if (userService.getCurrentUserRole() != UserRole.ADMINISTRATEUR
+                && !series.getClient().getId().equals(userId) && !series.getProviderId().equals(userId)) {
+            throw new RuntimeException("Non autorisé");
+        }
+
+        LocalDateTime start = from.atStartOfDay();
+        LocalDateTime end = to.plusDays(1).atStartOfDay();
+        List<SeriesOccurrenceDTO> occurrences = new ArrayList<>(
+                reservationRepository.findSeriesOccurrences(seriesId, start, end));
+
+        // Au-delà de la partie matérialisée, rien n'est stocké : calcul depuis la règle
+        if (series.getCancelledAt() == null) {
+            LocalDateTime virtualStart = start.isAfter(series.getMaterializedUntil()) ? start
+                    : series.getMaterializedUntil();
+            occurrences(series, virtualStart, end)
+                    .forEach(date -> occurrences.add(new SeriesOccurrenceDTO(date, null, null)));
+        }
+
+        occurrences.sort(Comparator.comparing(SeriesOccurrenceDTO::getScheduledDate));
+        return occurrences;
+    }
+
+    /**
+     * Annule une série (client) et ses occurrences à venir
+     */
+    @Transactional
+    public ReservationSeriesDTO cancelSeries(Long seriesId) {
+        Long clientId = userService.getCurrentUserId();
+        // Tronqué à la précision de la colonne : sert ensuite à reconnaître les lignes de l'UPDATE
+        LocalDateTime now = LocalDateTime.now().truncatedTo(ChronoUnit.MICROS);
+
+        if (seriesRepository.cancel(seriesId, clientId, now) == 0) {
+            ReservationSeries series = findDetailed(seriesId);
+            if (!series.getClient().getId().equals(clientId)) {
+                throw new RuntimeException("Non autorisé");
+            }
+            throw new ConflictException("Cette série est déjà annulée");
+        }
+
+        // Occurrences déjà matérialisées : un seul UPDATE pour toutes
+        List<BookedInterval> upcoming = reservationRepository.findSeriesIntervalsFrom(seriesId,
+                ReservationStatus.ANNULEE.predecessors(), now);
+        if (!upcoming.isEmpty()) {
+            Map<Long, Long> providerByReservation = new HashMap<>();
+            upcoming.forEach(r -> providerByReservation.put(r.getReservationId(), r.getProviderId()));
+
+            int updated = reservationRepository.transitionAll(providerByReservation.keySet(),
+                    ReservationStatus.ANNULEE.predecessors(), ReservationStatus.ANNULEE, now);
+            // Occurrences annulées entre-temps par une autre écriture : déjà notifiées par celle-ci
+            if (updated < upcoming.size()) {
+                providerByReservation.keySet().retainAll(Set.copyOf(reservationRepository.findIdsTransitionedAt(
+                        providerByReservation.keySet(), ReservationStatus.ANNULEE, now)));
+            }
+            providerByReservation.forEach((id, providerId) -> eventPublisher.publishEvent(
+                    new ReservationStatusChangedEvent(id, providerId, ReservationStatus.ANNULEE)));
+        }
+
+        return new ReservationSeriesDTO(findDetailed(seriesId));
+    }
+
+    /**
+     * Prolonge les séries actives jusqu'à l'horizon de matérialisation
+     */
+    @Scheduled(cron = "${app.reservations.series.materialize-cron}")
+    public void materializeDue() {
+        LocalDateTime horizon = LocalDateTime.now().plus(materializeAhead);
+        int created = 0;
+        long afterId = 0;
+        List<Long> ids;
+        do {
+            ids = seriesRepository.findIdsToMaterialize(horizon, afterId, PageRequest.ofSize(chunkSize));
+            for (Long id : ids) {
+                created += materialize(id, horizon);
+                afterId = id;
+            }
+        } while (ids.size() == chunkSize);
+
+        if (created > 0) {
+            System.out.println("🔁 " + created + " occurrence(s) de séries réservée(s)");
+        }
+    }
+
+    /**
+     * Crée les réservations des occurrences jusqu'à l'horizon ; une occurrence
+     * non réservable (créneau pris, hors horaires) est sautée
+     *
+     * @return nombre de réservations créées
+     */
+    private int materialize(Long seriesId, LocalDateTime horizon) {
+        ReservationSeries series = seriesRepository.findById(seriesId).orElse(null);
+        if (series == null || series.getCancelledAt() != null || !series.getMaterializedUntil().isBefore(horizon)) {
+            return 0;
+        }
+
+        LocalDateTime now = LocalDateTime.now();
+        LocalDateTime from = series.getMaterializedUntil().isAfter(now) ? series.getMaterializedUntil() : now;
+        int created = 0;
+        for (LocalDateTime date : occurrences(series, from, horizon)) {
+            try {
+                // Série verrouillée pendant la réservation : une annulation commitée avant arrête la boucle,
+                // une annulation concurrente attend le commit puis annule aussi cette occurrence
+                Boolean booked = transactionTemplate.execute(status -> {
+                    ReservationSeries current = seriesRepository.findByIdForUpdate(seriesId).orElse(null);
+                    if (current == null || current.getCancelledAt() != null) {
+                        return false;
+                    }
+                    reservationService.book(current.getClient(), current.getProviderService(), date,
+                            current.getDurationMinutes(), current.getNotes(), current.getAddress(), current);
+                    return true;
+                });
+                if (!Boolean.TRUE.equals(booked)) {
+                    materialized.increment(created);
+                    return created;
+                }
+                created++;
+            } catch (RuntimeException e) {
+                // Conflit, hors horaires, ou occurrence déjà créée par une autre instance
+                skipped.increment();
+                System.err.println("⚠️ Occurrence du " + date + " (série " + seriesId + ") non réservée : "
+                        + e.getMessage());
+            }
+        }
+        materialized.increment(created);
+
+        LocalDateTime until = occurrences(series, horizon, FINISHED).isEmpty() ? FINISHED : horizon;
+        transactionTemplate.executeWithoutResult(status -> seriesRepository.advanceMaterializedUntil(seriesId, until));
+        return created;
+    }
+
+    private ReservationSeries findDetailed(Long seriesId) {
+        return seriesRepository.findById(seriesId)
+                .orElseThrow(() -> new RuntimeException("Série non trouvée"));
+    }
+
+    /**
+     * Dates des occurrences dans [from, to), calculées depuis la règle
+     * (s'arrête à la première occurrence trouvée si to vaut FINISHED)
+     */
+    private List<LocalDateTime> occurrences(ReservationSeries series, LocalDateTime from, LocalDateTime to) {
+        int interval = series.getRepeatInterval();
+        LocalDateTime first = series.getFirstDate();
+
+        // Se placer juste avant "from" sans parcourir les occurrences passées
+        long index = 0;
+        if (from.isAfter(first)) {
+            index = Math.max(0, series.getFrequency().periodsBetween(first, from) / interval - 1);
+        }
+
+        List<LocalDateTime> dates = new ArrayList<>();
+        for (;; index++) {
+            if (series.getMaxOccurrences() != null && index >= series.getMaxOccurrences()) {
+                break;
+            }
+            LocalDateTime date = series.getFrequency().plus(first, index * interval);
+            if (!date.isBefore(to) || (series.getUntilDate() != null
+                    && date.toLocalDate().isAfter(series.getUntilDate()))) {
+                break;
+            }
+            if (!date.isBefore(from)) {
+                dates.add(date);
+                if (to == FINISHED) {
+                    break;
+                }
+            }
+        }
+        return dates;
+    }
+}
@@ -1,22 +1,46 @@
 package com.homeservices.service;
 
+import com.homeservices.dto.BookedInterval;
 import com.homeservices.dto.CreateReservationRequest;
+import com.homeservices.dto.CursorPage;
 import com.homeservices.dto.ReservationDTO;
+import com.homeservices.dto.StatusCountDTO;
+import com.homeservices.dto.StatusUpdateRequest;
+import com.homeservices.dto.StatusUpdateResultDTO;
 import com.homeservices.entity.ProviderService;
 import com.homeservices.entity.Reservation;
+import com.homeservices.entity.ReservationSeries;
 import com.homeservices.entity.User;
 import com.homeservices.enums.ReservationStatus;
 import com.homeservices.enums.UserRole;
+import com.homeservices.event.ReservationScheduledEvent;
+import com.homeservices.event.ReservationStatusChangedEvent;
+import com.homeservices.exception.ConflictException;
 import com.homeservices.repository.ProviderServiceRepository;
 import com.homeservices.repository.ReservationRepository;
+import com.homeservices.util.KeysetCursor;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.time.LocalTime;
+import java.time.temporal.ChronoUnit;
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.function.Predicate;
 import java.util.stream.Collectors;
 
 /**
@@ -34,92 +58,280 @@ public class ReservationService {
     @Autowired
     private UserService userService;
 
+    @Autowired
+    private ProviderScheduleIndex scheduleIndex;
+
+    @Autowired
+    private AvailabilityService availabilityService;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    @Autowired
+    private ReservationArchiveService archiveService;
+
+    @Value("${app.reservations.default-duration-minutes}")
+    private int defaultDurationMinutes;
+
+    @Value("${app.reservations.bulk-status.max-items}")
+    private int maxBulkStatusItems;
+
     /**
      * Crée une nouvelle réservation (client)
      */
     @Transactional
     public ReservationDTO createReservation(CreateReservationRequest request) {
         User client = userService.getCurrentUser();
+        ProviderService providerService = findBookableService(request.getProviderServiceId());
 
-        ProviderService providerService = providerServiceRepository.findById(request.getProviderServiceId())
+        Reservation reservation = book(client, providerService, request.getScheduledDate(),
+                durationOf(request.getDurationMinutes()), request.getNotes(),
+                request.getAddress() != null ? request.getAddress() : client.getAddress(), null);
+        return new ReservationDTO(reservation);
+    }
+
+    ProviderService findBookableService(Long providerServiceId) {
+        ProviderService providerService = providerServiceRepository.findById(providerServiceId)
                 .orElseThrow(() -> new RuntimeException("Service prestataire non trouvé"));
 
         if (!providerService.getAvailable()) {
             throw new RuntimeException("Ce service n'est pas disponible");
         }
+        return providerService;
+    }
+
+    int durationOf(Integer requestedMinutes) {
+        return requestedMinutes != null ? requestedMinutes : defaultDurationMinutes;
+    }
+
+    /**
+     * Enregistre une réservation après contrôle des horaires et des chevauchements
+     * (réservation simple ou occurrence d'une série)
+     */
+    Reservation book(User client, ProviderService providerService, LocalDateTime scheduledDate, int duration,
+            String notes, String address, ReservationSeries series) {
+        Long providerId = providerService.getProvider().getId();
+
+        LocalDateTime endsAt = scheduledDate.plusMinutes(duration);
+        if (!availabilityService.isWithinWorkingHours(providerId, scheduledDate, endsAt)) {
+            throw new RuntimeException("Ce créneau est en dehors des horaires du prestataire");
+        }
+
+        // Rejet rapide, avant toute écriture (chevauchement de l'index confirmé en base)
+        if (!scheduleIndex.isFree(providerId, scheduledDate, endsAt)) {
+            throw new ConflictException("Ce prestataire est déjà réservé sur ce créneau");
+        }
 
         Reservation reservation = new Reservation();
         reservation.setClient(client);
         reservation.setProviderService(providerService);
-        reservation.setScheduledDate(request.getScheduledDate());
-        reservation.setNotes(request.getNotes());
-        reservation.setAddress(request.getAddress() != null ? request.getAddress() : client.getAddress());
+        reservation.setProviderId(providerId);
+        reservation.setSeries(series);
+        reservation.setScheduledDate(scheduledDate);
+        reservation.setDurationMinutes(duration);
+        reservation.setNotes(notes);
+        reservation.setAddress(address);
         reservation.setStatus(ReservationStatus.EN_ATTENTE);
 
         reservation = reservationRepository.save(reservation);
-        return new ReservationDTO(reservation);
+        reserveSlot(reservation);
+        eventPublisher.publishEvent(new ReservationScheduledEvent(
+                reservation.getId(), providerId, reservation.getScheduledDate()));
+        return reservation;
+    }
+
+    /**
+     * Occupe le créneau dans l'index (refus si un autre l'a pris entre-temps).
+     * Le créneau est libéré si la transaction n'est finalement pas validée.
+     */
+    private void reserveSlot(Reservation reservation) {
+        BookedInterval interval = BookedInterval.of(reservation);
+        if (!scheduleIndex.tryReserve(interval)) {
+            throw new ConflictException("Ce prestataire est déjà réservé sur ce créneau");
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                if (status == STATUS_COMMITTED) {
+                    scheduleIndex.committed(interval.getReservationId());
+                } else {
+                    scheduleIndex.release(interval.getReservationId());
+                }
+            }
+        });
     }
 
     /**
-     * Liste les réservations de l'utilisateur courant
+     * Liste une page des réservations de l'utilisateur courant (plus récentes d'abord)
      */
-    public List<ReservationDTO> getMyReservations() {
-        User user = userService.getCurrentUser();
+    public CursorPage<ReservationDTO> getMyReservations(String cursor, Integer limit) {
+        Long userId = userService.getCurrentUserId();
+        UserRole role = userService.getCurrentUserRole();
+        KeysetCursor after = KeysetCursor.decode(cursor);
+        int size = CursorPage.clampLimit(limit);
 
-        if (user.getRole() == UserRole.CLIENT) {
-            return reservationRepository.findByClientIdOrderByCreatedAtDesc(user.getId())
-                    .stream()
-                    .map(ReservationDTO::new)
-                    .collect(Collectors.toList());
-        } else if (user.getRole() == UserRole.PRESTATAIRE) {
-            return reservationRepository.findByProviderId(user.getId())
-                    .stream()
-                    .map(ReservationDTO::new)
-                    .collect(Collectors.toList());
+        List<ReservationDTO> rows;
+        if (role == UserRole.CLIENT) {
+            rows = reservationRepository.findDTOPageByClientId(userId,
+                    after.getTimestamp(), after.getId(), CursorPage.probe(size));
+        } else if (role == UserRole.PRESTATAIRE) {
+            rows = reservationRepository.findDTOPageByProviderId(userId,
+                    after.getTimestamp(), after.getId(), CursorPage.probe(size));
+        } else {
+            rows = List.of();
         }
 
-        return List.of();
+        // Pages anciennes : réservations archivées incluses
+        rows = archiveService.mergeReservationPage(rows, size, role, userId, after);
+        return CursorPage.of(rows, size, ReservationDTO::getCreatedAt, ReservationDTO::getId);
+    }
+
+    /**
+     * Nombre de réservations de l'utilisateur connecté par statut (archives
+     * comprises), tous statuts présents
+     */
+    public Map<ReservationStatus, Long> getMyCounts() {
+        Long userId = userService.getCurrentUserId();
+        UserRole role = userService.getCurrentUserRole();
+
+        Map<ReservationStatus, Long> counts = new EnumMap<>(ReservationStatus.class);
+        for (ReservationStatus status : ReservationStatus.values()) {
+            counts.put(status, 0L);
+        }
+        List<StatusCountDTO> rows;
+        if (role == UserRole.CLIENT) {
+            rows = reservationRepository.countByClientIdGroupByStatus(userId);
+        } else if (role == UserRole.PRESTATAIRE) {
+            rows = reservationRepository.countByProviderIdGroupByStatus(userId);
+        } else {
+            rows = List.of();
+        }
+        rows.forEach(row -> counts.merge(row.getStatus(), row.getCount(), Long::sum));
+        archiveService.countArchivedReservations(role, userId)
+                .forEach(row -> counts.merge(row.getStatus(), row.getCount(), Long::sum));
+        return counts;
     }
 
     /**
      * Récupère une réservation par ID
      */
     public ReservationDTO getReservationById(Long id) {
-        Reservation reservation = reservationRepository.findById(id)
+        ReservationDTO reservation = reservationRepository.findDTOById(id)
                 .orElseThrow(() -> new RuntimeException("Réservation non trouvée"));
 
-        User user = userService.getCurrentUser();
+        Long userId = userService.getCurrentUserId();
 
         // Vérifier l'accès
-        if (user.getRole() != UserRole.ADMINISTRATEUR) {
-            boolean isClient = reservation.getClient().getId().equals(user.getId());
-            boolean isProvider = reservation.getProviderService().getProvider().getId().equals(user.getId());
+        if (userService.getCurrentUserRole() != UserRole.ADMINISTRATEUR) {
+            boolean isClient = reservation.getClientId().equals(userId);
+            boolean isProvider = reservation.getProviderId().equals(userId);
             if (!isClient && !isProvider) {
                 throw new RuntimeException("Non autorisé");
             }
         }
 
-        return new ReservationDTO(reservation);
+        return reservation;
     }
 
     /**
      * Met à jour le statut d'une réservation (prestataire)
+     * Un seul UPDATE conditionnel : propriétaire et statut courant sont vérifiés
+     * par la clause WHERE, sans lecture préalable de l'entité.
      */
     @Transactional
     public ReservationDTO updateReservationStatus(Long id, ReservationStatus status) {
-        User provider = userService.getCurrentUser();
+        Long providerId = userService.getCurrentUserId();
 
-        Reservation reservation = reservationRepository.findById(id)
-                .orElseThrow(() -> new RuntimeException("Réservation non trouvée"));
+        // Statut initial : aucune transition n'y mène (évite un IN vide)
+        int updated = status.predecessors().isEmpty() ? 0 : reservationRepository.transitionAsProvider(
+                id, providerId, status.predecessors(), status, LocalDateTime.now());
+        if (updated == 0) {
+            throw rejectedTransition(id, status, r -> r.getProviderId().equals(providerId));
+        }
+
+        return statusChanged(id, status);
+    }
 
-        // Vérifier que le prestataire est bien celui de la réservation
-        if (!reservation.getProviderService().getProvider().getId().equals(provider.getId())) {
-            throw new RuntimeException("Non autorisé");
+    /**
+     * Met à jour le statut de plusieurs réservations du prestataire
+     * Une requête pour vérifier propriétaire et statuts, puis un UPDATE par
+     * statut cible. Chaque changement est accepté ou refusé individuellement ;
+     * les résultats sont rendus dans l'ordre de la demande.
+     */
+    @Transactional
+    public List<StatusUpdateResultDTO> updateReservationStatuses(List<StatusUpdateRequest> changes) {
+        if (changes == null || changes.isEmpty()) {
+            throw new RuntimeException("Aucune modification demandée");
+        }
+        if (changes.size() > maxBulkStatusItems) {
+            throw new RuntimeException("Trop de modifications dans une même demande (maximum "
+                    + maxBulkStatusItems + ")");
         }
 
-        reservation.setStatus(status);
-        reservation = reservationRepository.save(reservation);
-        return new ReservationDTO(reservation);
+        Long providerId = userService.getCurrentUserId();
+        Set<Long> ids = changes.stream()
+                .map(StatusUpdateRequest::getId)
+                .filter(Objects::nonNull)
+                .collect(Collectors.toSet());
+
+        Map<Long, ReservationStatus> current = new HashMap<>();
+        if (!ids.isEmpty()) {
+            reservationRepository.findStatusesForProvider(ids, providerId)
+                    .forEach(row -> current.put(row.getId(), row.getStatus()));
+        }
+
+        StatusUpdateResultDTO[] results = new StatusUpdateResultDTO[changes.size()];
+        Map<ReservationStatus, Map<Long, Integer>> byTarget = new EnumMap<>(ReservationStatus.class);
+        Set<Long> seen = new HashSet<>();
+
+        for (int i = 0; i < changes.size(); i++) {
+            StatusUpdateRequest change = changes.get(i);
+            Long id = change.getId();
+            ReservationStatus from = id != null ? current.get(id) : null;
+
+            if (id == null || change.getStatus() == null) {
+                results[i] = StatusUpdateResultDTO.rejected(id, from, "ID et statut requis");
+            } else if (!seen.add(id)) {
+                results[i] = StatusUpdateResultDTO.rejected(id, from, "Réservation présente plusieurs fois");
+            } else if (from == null) {
+                // Inexistante ou appartenant à un autre prestataire : même réponse
+                results[i] = StatusUpdateResultDTO.rejected(id, null, "Réservation non trouvée");
+            } else if (!from.canTransitionTo(change.getStatus())) {
+                results[i] = StatusUpdateResultDTO.rejected(id, from,
+                        "Transition impossible : " + from + " -> " + change.getStatus());
+            } else {
+                byTarget.computeIfAbsent(change.getStatus(), s -> new LinkedHashMap<>()).put(id, i);
+            }
+        }
+
+        // Tronqué à la précision de la colonne : sert ensuite à reconnaître les lignes de l'UPDATE
+        LocalDateTime now = LocalDateTime.now().truncatedTo(ChronoUnit.MICROS);
+        byTarget.forEach((target, positions) -> {
+            int updated = reservationRepository.transitionAllAsProvider(positions.keySet(), providerId,
+                    target.predecessors(), target, now);
+
+            // Lignes modifiées entre la lecture et l'UPDATE, parfois vers le même statut : seules celles
+            // datées de cet UPDATE sont passées
+            Map<Long, ReservationStatus> after = new HashMap<>();
+            Set<Long> moved = new HashSet<>();
+            if (updated < positions.size()) {
+                reservationRepository.findStatusesForProvider(positions.keySet(), providerId)
+                        .forEach(row -> after.put(row.getId(), row.getStatus()));
+                moved.addAll(reservationRepository.findIdsTransitionedAt(positions.keySet(), target, now));
+            }
+
+            positions.forEach((id, i) -> {
+                if (updated == positions.size() || moved.contains(id)) {
+                    results[i] = StatusUpdateResultDTO.applied(id, target);
+                    eventPublisher.publishEvent(new ReservationStatusChangedEvent(id, providerId, target));
+                } else {
+                    results[i] = StatusUpdateResultDTO.rejected(id, after.get(id),
+                            "Réservation modifiée simultanément");
+                }
+            });
+        });
+
+        return Arrays.asList(results);
     }
 
     /**
@@ -127,40 +339,59 @@ public class ReservationService {
      */
     @Transactional
     public ReservationDTO cancelReservation(Long id) {
-        User client = userService.getCurrentUser();
+        Long clientId = userService.getCurrentUserId();
+
+        int updated = reservationRepository.transitionAsClient(id, clientId,
+                ReservationStatus.ANNULEE.predecessors(), ReservationStatus.ANNULEE, LocalDateTime.now());
+        if (updated == 0) {
+            throw rejectedTransition(id, ReservationStatus.ANNULEE, r -> r.getClientId().equals(clientId));
+        }
+
+        return statusChanged(id, ReservationStatus.ANNULEE);
+    }
 
-        Reservation reservation = reservationRepository.findById(id)
+    /**
+     * Relit la réservation modifiée et publie le changement de statut
+     */
+    private ReservationDTO statusChanged(Long id, ReservationStatus status) {
+        ReservationDTO reservation = reservationRepository.findDTOById(id)
                 .orElseThrow(() -> new RuntimeException("Réservation non trouvée"));
+        eventPublisher.publishEvent(new ReservationStatusChangedEvent(id, reservation.getProviderId(), status));
+        return reservation;
+    }
 
-        // Vérifier que le client est bien celui de la réservation
-        if (!reservation.getClient().getId().equals(client.getId())) {
-            throw new RuntimeException("Non autorisé");
+    /**
+     * Explique pourquoi l'UPDATE conditionnel n'a modifié aucune ligne
+     * (chemin d'erreur uniquement)
+     */
+    private RuntimeException rejectedTransition(Long id, ReservationStatus target,
+            Predicate<ReservationDTO> isOwner) {
+        ReservationDTO reservation = reservationRepository.findDTOById(id).orElse(null);
+        if (reservation == null) {
+            return new RuntimeException("Réservation non trouvée");
         }
-
-        if (reservation.getStatus() == ReservationStatus.TERMINEE) {
-            throw new RuntimeException("Impossible d'annuler une réservation terminée");
+        if (!isOwner.test(reservation)) {
+            return new RuntimeException("Non autorisé");
         }
-
-        reservation.setStatus(ReservationStatus.ANNULEE);
-        reservation = reservationRepository.save(reservation);
-        return new ReservationDTO(reservation);
+        return new ConflictException("Transition impossible : " + reservation.getStatus() + " -> " + target);
     }
 
     /**
-     * Liste toutes les réservations (admin)
+     * Liste une page de toutes les réservations (admin)
      */
-    public List<ReservationDTO> getAllReservations() {
-        return reservationRepository.findRecentReservations()
-                .stream()
-                .map(ReservationDTO::new)
-                .collect(Collectors.toList());
+    public CursorPage<ReservationDTO> getAllReservations(String cursor, Integer limit) {
+        KeysetCursor after = KeysetCursor.decode(cursor);
+        int size = CursorPage.clampLimit(limit);
+        List<ReservationDTO> rows = reservationRepository.findDTOPage(
+                after.getTimestamp(), after.getId(), CursorPage.probe(size));
+        return CursorPage.of(rows, size, ReservationDTO::getCreatedAt, ReservationDTO::getId);
     }
 
     /**
-     * Compte les réservations par statut
+     * Compte les réservations par statut (archives comprises)
      */
     public Long countByStatus(ReservationStatus status) {
-        return reservationRepository.countByStatus(status);
+        return reservationRepository.countByStatus(status) + archiveService.countArchivedReservations(status);
     }
 
     /**
@@ -176,10 +407,7 @@ public class ReservationService {
      * Liste les réservations en attente pour un prestataire
      */
     public List<ReservationDTO> getPendingReservations() {
-        User provider = userService.getCurrentUser();
-        return reservationRepository.findByProviderIdAndStatus(provider.getId(), ReservationStatus.EN_ATTENTE)
-                .stream()
-                .map(ReservationDTO::new)
-                .collect(Collectors.toList());
+        return reservationRepository.findDTOsByProviderIdAndStatus(userService.getCurrentUserId(),
+                ReservationStatus.EN_ATTENTE);
     }
 }
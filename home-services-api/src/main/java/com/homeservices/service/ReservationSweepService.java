@@ -0,0 +1,168 @@
+package com.homeservices.service;
+
+import com.homeservices.dto.BookedInterval;
+import com.homeservices.enums.ReservationStatus;
+import com.homeservices.event.ReservationStatusChangedEvent;
+import com.homeservices.repository.ReservationRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.Collection;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+
+/**
+ * Tâches de fond qui font avancer les réservations laissées en suspens
+ *
+ * Chaque passe traite des lots de taille fixe, chacun dans sa propre courte
+ * transaction : lecture d'une page d'IDs par index, puis un UPDATE
+ * conditionnel sur ces IDs. Aucune entité n'est chargée, et une réservation
+ * modifiée entre-temps (paiement, action du prestataire) n'est pas touchée.
+ * Plusieurs instances peuvent exécuter la même passe sans risque.
+ */
+@Service
+public class ReservationSweepService {
+
+    @Autowired
+    private ReservationRepository reservationRepository;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${app.reservations.sweep.chunk-size}")
+    private int chunkSize;
+
+    @Value("${app.reservations.sweep.max-chunks}")
+    private int maxChunks;
+
+    @Value("${app.reservations.expiry.pending-ttl}")
+    private Duration pendingTtl;
+
+    @Value("${app.reservations.completion.grace}")
+    private Duration completionGrace;
+
+    private TransactionTemplate transactionTemplate;
+
+    // Avancement de la passe en cours (ou de la dernière), par tâche
+    private final Map<String, AtomicLong> progress = new ConcurrentHashMap<>();
+
+    @PostConstruct
+    void init() {
+        transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    /**
+     * Annule les réservations restées en attente (non payées) au-delà du délai,
+     * et les occurrences de séries non payées dont la date est passée
+     */
+    @Scheduled(cron = "${app.reservations.expiry.cron}")
+    public void expirePendingReservations() {
+        LocalDateTime now = LocalDateTime.now();
+        LocalDateTime before = now.minus(pendingTtl);
+        Set<ReservationStatus> pending = EnumSet.of(ReservationStatus.EN_ATTENTE);
+        int expired = sweep("expire-pending", pending, ReservationStatus.ANNULEE,
+                page -> reservationRepository.findByStatusCreatedBefore(ReservationStatus.EN_ATTENTE, before, page));
+        // Occurrences de séries : réservées d'avance, donc pas de délai depuis la création, mais jamais
+        // confirmées une fois leur date passée
+        expired += sweep("expire-past-pending", pending, ReservationStatus.ANNULEE,
+                page -> reservationRepository.findByStatusScheduledBefore(pending, now, page));
+        if (expired > 0) {
+            System.out.println("⏳ " + expired + " réservation(s) en attente expirée(s)");
+        }
+    }
+
+    /**
+     * Termine les réservations confirmées ou en cours dont la date est passée
+     * depuis plus que le délai de grâce
+     */
+    @Scheduled(cron = "${app.reservations.completion.cron}")
+    public void completePastReservations() {
+        LocalDateTime before = LocalDateTime.now().minus(completionGrace);
+        Set<ReservationStatus> from = EnumSet.of(ReservationStatus.CONFIRMEE, ReservationStatus.EN_COURS);
+        int completed = sweep("complete-past", from, ReservationStatus.TERMINEE,
+                page -> reservationRepository.findByStatusScheduledBefore(from, before, page));
+        if (completed > 0) {
+            System.out.println("✅ " + completed + " réservation(s) passée(s) terminée(s)");
+        }
+    }
+
+    /**
+     * Passe lot par lot jusqu'à épuisement (ou max-chunks lots)
+     *
+     * @param nextChunk lecture du lot suivant ; les lignes traitées n'y
+     *                  figurent plus puisqu'elles ont changé de statut
+     * @return nombre de réservations modifiées
+     */
+    private int sweep(String name, Collection<ReservationStatus> from, ReservationStatus target,
+            Function<PageRequest, List<BookedInterval>> nextChunk) {
+        Timer.Sample sample = Timer.start(meterRegistry);
+        AtomicLong done = progress.computeIfAbsent(name, n -> meterRegistry.gauge(
+                "reservations.sweep.progress", Tags.of("sweep", n), new AtomicLong()));
+        done.set(0);
+        int total = 0;
+        for (int chunk = 0; chunk < maxChunks; chunk++) {
+            int[] result = transactionTemplate.execute(status -> sweepChunk(from, target, nextChunk));
+            total += result[1];
+            done.set(total);
+            meterRegistry.counter("reservations.sweep.chunks", "sweep", name).increment();
+            meterRegistry.counter("reservations.sweep.transitions", "sweep", name).increment(result[1]);
+            if (result[0] < chunkSize) {
+                break;
+            }
+        }
+        sample.stop(meterRegistry.timer("reservations.sweep.duration", "sweep", name));
+        return total;
+    }
+
+    // Retourne {lignes lues, lignes modifiées}
+    private int[] sweepChunk(Collection<ReservationStatus> from, ReservationStatus target,
+            Function<PageRequest, List<BookedInterval>> nextChunk) {
+        List<BookedInterval> rows = nextChunk.apply(PageRequest.ofSize(chunkSize));
+        if (rows.isEmpty()) {
+            return new int[] { 0, 0 };
+        }
+
+        Map<Long, Long> providerByReservation = new HashMap<>();
+        rows.forEach(row -> providerByReservation.put(row.getReservationId(), row.getProviderId()));
+
+        // Tronqué à la précision de la colonne : sert ensuite à reconnaître les lignes de cet UPDATE
+        LocalDateTime now = LocalDateTime.now().truncatedTo(ChronoUnit.MICROS);
+        int updated = reservationRepository.transitionAll(providerByReservation.keySet(), from, target, now);
+
+        // Certaines lignes ont changé entre la lecture et l'UPDATE, parfois vers le même statut
+        // (annulation par le client, clôture par le prestataire) : ne notifier que celles de cet UPDATE
+        if (updated < rows.size()) {
+            providerByReservation.keySet().retainAll(Set.copyOf(
+                    reservationRepository.findIdsTransitionedAt(providerByReservation.keySet(), target, now)));
+        }
+        providerByReservation.forEach((id, providerId) ->
+                eventPublisher.publishEvent(new ReservationStatusChangedEvent(id, providerId, target)));
+
+        return new int[] { rows.size(), updated };
+    }
+}
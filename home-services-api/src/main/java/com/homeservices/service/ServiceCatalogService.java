@@ -1,10 +1,10 @@
 package com.homeservices.service;
 
+import com.homeservices.config.RetryOnConflict;
 import com.homeservices.dto.ProviderServiceDTO;
 import com.homeservices.dto.ServiceCatalogDTO;
 import com.homeservices.entity.ProviderService;
 import com.homeservices.entity.ServiceCatalog;
-import com.homeservices.entity.User;
 import com.homeservices.enums.ServiceType;
 import com.homeservices.repository.ProviderServiceRepository;
 import com.homeservices.repository.ServiceCatalogRepository;
@@ -31,6 +31,9 @@ public class ServiceCatalogService {
     @Autowired
     private UserService userService;
 
+    @Autowired
+    private AvailabilityService availabilityService;
+
     /**
      * Récupère tous les types de services
      */
@@ -55,31 +58,21 @@ public class ServiceCatalogService {
      */
     public List<ProviderServiceDTO> getProvidersByServiceType(String serviceType) {
         ServiceType type = ServiceType.valueOf(serviceType.toUpperCase());
-        return providerServiceRepository.findByServiceTypeAndAvailable(type)
-                .stream()
-                .map(ProviderServiceDTO::new)
-                .collect(Collectors.toList());
+        return providerServiceRepository.findAvailableDTOsByServiceType(type);
     }
 
     /**
      * Récupère tous les services disponibles avec leurs prestataires
      */
     public List<ProviderServiceDTO> getAllAvailableProviderServices() {
-        return providerServiceRepository.findByAvailableTrue()
-                .stream()
-                .map(ProviderServiceDTO::new)
-                .collect(Collectors.toList());
+        return providerServiceRepository.findAvailableDTOs();
     }
 
     /**
      * Récupère les services du prestataire connecté
      */
     public List<ProviderServiceDTO> getMyServices() {
-        User provider = userService.getCurrentUser();
-        return providerServiceRepository.findByProviderId(provider.getId())
-                .stream()
-                .map(ProviderServiceDTO::new)
-                .collect(Collectors.toList());
+        return providerServiceRepository.findDTOsByProviderId(userService.getCurrentUserId());
     }
 
     /**
@@ -88,10 +81,10 @@ public class ServiceCatalogService {
     @Transactional
     public ProviderServiceDTO addService(Long serviceId, BigDecimal price, String description,
             Integer experienceYears) {
-        User provider = userService.getCurrentUser();
+        Long providerId = userService.getCurrentUserId();
 
         // Vérifier si le prestataire a déjà ce service
-        if (providerServiceRepository.existsByProviderIdAndServiceCatalogId(provider.getId(), serviceId)) {
+        if (providerServiceRepository.existsByProviderIdAndServiceCatalogId(providerId, serviceId)) {
             throw new RuntimeException("Vous proposez déjà ce service");
         }
 
@@ -99,7 +92,7 @@ public class ServiceCatalogService {
                 .orElseThrow(() -> new RuntimeException("Service non trouvé"));
 
         ProviderService ps = new ProviderService();
-        ps.setProvider(provider);
+        ps.setProvider(userService.getCurrentUserReference());
         ps.setServiceCatalog(catalog);
         ps.setPrice(price);
         ps.setDescription(description);
@@ -113,16 +106,17 @@ public class ServiceCatalogService {
     /**
      * Met à jour un service du prestataire
      */
+    @RetryOnConflict
     @Transactional
     public ProviderServiceDTO updateService(Long providerServiceId, BigDecimal price, String description,
             Boolean available) {
-        User provider = userService.getCurrentUser();
+        Long providerId = userService.getCurrentUserId();
 
         ProviderService ps = providerServiceRepository.findById(providerServiceId)
                 .orElseThrow(() -> new RuntimeException("Service non trouvé"));
 
         // Vérifier que le service appartient au prestataire
-        if (!ps.getProvider().getId().equals(provider.getId())) {
+        if (!ps.getProvider().getId().equals(providerId)) {
             throw new RuntimeException("Non autorisé");
         }
 
@@ -134,6 +128,8 @@ public class ServiceCatalogService {
             ps.setAvailable(available);
 
         ps = providerServiceRepository.save(ps);
+        if (available != null)
+            availabilityService.evictProviderService(ps.getId());
         return new ProviderServiceDTO(ps);
     }
 
@@ -0,0 +1,155 @@
+package com.homeservices.service;
+
+import com.homeservices.entity.RevokedTokenFamily;
+import com.homeservices.repository.RevokedTokenFamilyRepository;
+import com.homeservices.util.BloomFilter;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Service de révocation des familles de tokens
+ *
+ * Les familles révoquées sont stockées en base et reflétées dans un filtre de
+ * Bloom en mémoire : isRevoked répond "non révoqué" en O(1) sans I/O, et seuls
+ * les résultats "peut-être révoqué" sont confirmés en base. Le filtre est
+ * complété périodiquement avec les révocations des autres noeuds et
+ * reconstruit chaque nuit pour oublier les familles expirées.
+ */
+@Service
+public class TokenRevocationService {
+
+    @Autowired
+    private RevokedTokenFamilyRepository revokedTokenFamilyRepository;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Value("${app.jwt.revocation.expected-insertions}")
+    private long expectedInsertions;
+
+    @Value("${app.jwt.revocation.false-positive-rate}")
+    private double falsePositiveRate;
+
+    @Value("${app.jwt.refresh-expiration}")
+    private Long refreshExpiration;
+
+    @Value("${app.jwt.expiration}")
+    private Long jwtExpiration;
+
+    private volatile BloomFilter filter;
+
+    private volatile LocalDateTime lastSync;
+
+    private Counter filterHits;
+
+    private Counter falsePositives;
+
+    private TransactionTemplate revocationTemplate;
+
+    @PostConstruct
+    void init() {
+        revocationTemplate = new TransactionTemplate(transactionManager);
+        revocationTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        filterHits = Counter.builder("jwt.revocation.filter.hits")
+                .description("Familles signalées comme peut-être révoquées par le filtre")
+                .register(meterRegistry);
+        falsePositives = Counter.builder("jwt.revocation.filter.false.positives")
+                .description("Signalements du filtre infirmés par la base")
+                .register(meterRegistry);
+        rebuild();
+    }
+
+    /**
+     * Indique si une famille de session est révoquée
+     */
+    public boolean isRevoked(String familyId) {
+        if (familyId == null || !filter.mightContain(familyId)) {
+            return false;
+        }
+        filterHits.increment();
+        boolean revoked = revokedTokenFamilyRepository.existsById(familyId);
+        if (!revoked) {
+            falsePositives.increment();
+        }
+        return revoked;
+    }
+
+    /**
+     * Révoque une famille (déconnexion, réutilisation détectée)
+     * Validée dans sa propre transaction : la révocation doit survivre à
+     * l'échec de la requête qui l'a déclenchée.
+     */
+    public void revokeFamily(String familyId, Long userId) {
+        try {
+            revocationTemplate.executeWithoutResult(status -> {
+                if (!revokedTokenFamilyRepository.existsById(familyId)) {
+                    LocalDateTime now = LocalDateTime.now();
+                    // Plus aucun token de la famille n'est valide au-delà de la plus longue durée de vie
+                    LocalDateTime expiresAt = now.plus(Duration.ofMillis(Math.max(refreshExpiration, jwtExpiration)));
+                    revokedTokenFamilyRepository.saveAndFlush(new RevokedTokenFamily(familyId, userId, now, expiresAt));
+                }
+            });
+        } catch (DataIntegrityViolationException e) {
+            // Révoquée entre-temps par une requête concurrente : seule sa transaction interne est annulée
+        }
+        filter.put(familyId);
+    }
+
+    /**
+     * Révoque plusieurs familles d'un même utilisateur (changement de mot de passe),
+     * chacune dans sa propre transaction
+     */
+    public void revokeFamilies(List<String> familyIds, Long userId) {
+        familyIds.forEach(familyId -> revokeFamily(familyId, userId));
+    }
+
+    /**
+     * Ajoute au filtre les familles révoquées par les autres noeuds
+     */
+    @Scheduled(fixedDelayString = "${app.jwt.revocation.sync-interval}")
+    public void syncFromDatabase() {
+        LocalDateTime since = lastSync;
+        lastSync = LocalDateTime.now();
+        // Léger recouvrement pour ne pas manquer une révocation concurrente
+        revokedTokenFamilyRepository.findFamilyIdsRevokedSince(since.minusSeconds(5))
+                .forEach(filter::put);
+    }
+
+    /**
+     * Purge les révocations expirées et reconstruit le filtre
+     */
+    @Scheduled(cron = "${app.jwt.revocation.rebuild-cron}")
+    @Transactional
+    public void purgeAndRebuild() {
+        revokedTokenFamilyRepository.deleteExpired(LocalDateTime.now());
+        rebuild();
+    }
+
+    private void rebuild() {
+        LocalDateTime now = LocalDateTime.now();
+        List<String> active = revokedTokenFamilyRepository.findActiveFamilyIds(now);
+
+        BloomFilter rebuilt = new BloomFilter(Math.max(expectedInsertions, active.size() * 2L), falsePositiveRate);
+        active.forEach(rebuilt::put);
+
+        filter = rebuilt;
+        lastSync = now;
+    }
+}
@@ -1,17 +1,17 @@
 package com.homeservices.service;
 
+import com.homeservices.dto.CursorPage;
 import com.homeservices.dto.UserDTO;
 import com.homeservices.entity.User;
 import com.homeservices.enums.UserRole;
 import com.homeservices.repository.UserRepository;
+import com.homeservices.util.KeysetCursor;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.security.core.Authentication;
-import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.util.List;
-import java.util.stream.Collectors;
 
 /**
  * Service de gestion des utilisateurs
@@ -22,14 +22,44 @@ public class UserService {
     @Autowired
     private UserRepository userRepository;
 
+    @Autowired
+    private CustomUserDetailsService userDetailsService;
+
+    @Autowired
+    private CurrentUserResolver currentUserResolver;
+
+    @Autowired
+    private PasswordEncoder passwordEncoder;
+
+    @Autowired
+    private RefreshTokenService refreshTokenService;
+
     /**
-     * Récupère l'utilisateur actuellement connecté
+     * Récupère l'utilisateur actuellement connecté (chargé au plus une fois par requête)
      */
     public User getCurrentUser() {
-        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
-        String email = authentication.getName();
-        return userRepository.findByEmail(email)
-                .orElseThrow(() -> new RuntimeException("Utilisateur non trouvé"));
+        return currentUserResolver.getUser();
+    }
+
+    /**
+     * ID de l'utilisateur connecté, sans requête SQL
+     */
+    public Long getCurrentUserId() {
+        return currentUserResolver.getUserId();
+    }
+
+    /**
+     * Rôle de l'utilisateur connecté, sans requête SQL
+     */
+    public UserRole getCurrentUserRole() {
+        return currentUserResolver.getRole();
+    }
+
+    /**
+     * Référence vers l'utilisateur connecté pour renseigner une association
+     */
+    public User getCurrentUserReference() {
+        return currentUserResolver.getUserReference();
     }
 
     /**
@@ -60,17 +90,34 @@ public class UserService {
         }
 
         user = userRepository.save(user);
+        userDetailsService.evictUser(user.getId(), user.getEmail());
         return new UserDTO(user);
     }
 
+    /**
+     * Change le mot de passe de l'utilisateur courant
+     * Toutes ses sessions sont révoquées (il doit se reconnecter)
+     */
+    @Transactional
+    public void changePassword(String currentPassword, String newPassword) {
+        User user = getCurrentUser();
+
+        if (!passwordEncoder.matches(currentPassword, user.getPassword())) {
+            throw new RuntimeException("Mot de passe actuel incorrect");
+        }
+
+        user.setPassword(passwordEncoder.encode(newPassword));
+        userRepository.save(user);
+
+        userDetailsService.evictUser(user.getId(), user.getEmail());
+        refreshTokenService.revokeAll(user.getId());
+    }
+
     /**
      * Liste tous les prestataires
      */
     public List<UserDTO> getAllProviders() {
-        return userRepository.findByRole(UserRole.PRESTATAIRE)
-                .stream()
-                .map(UserDTO::new)
-                .collect(Collectors.toList());
+        return userRepository.findDTOsByRole(UserRole.PRESTATAIRE);
     }
 
     /**
@@ -83,13 +130,13 @@ public class UserService {
     }
 
     /**
-     * Liste tous les utilisateurs (admin)
+     * Liste une page de tous les utilisateurs (admin), plus récents d'abord
      */
-    public List<UserDTO> getAllUsers() {
-        return userRepository.findAll()
-                .stream()
-                .map(UserDTO::new)
-                .collect(Collectors.toList());
+    public CursorPage<UserDTO> getAllUsers(String cursor, Integer limit) {
+        KeysetCursor after = KeysetCursor.decode(cursor);
+        int size = CursorPage.clampLimit(limit);
+        List<UserDTO> rows = userRepository.findDTOPage(after.getTimestamp(), after.getId(), CursorPage.probe(size));
+        return CursorPage.of(rows, size, UserDTO::getCreatedAt, UserDTO::getId);
     }
 
     /**
@@ -103,9 +150,6 @@ public class UserService {
      * Recherche des utilisateurs
      */
     public List<UserDTO> searchUsers(String name) {
-        return userRepository.searchByName(name)
-                .stream()
-                .map(UserDTO::new)
-                .collect(Collectors.toList());
+        return userRepository.searchDTOsByName(name);
     }
 }
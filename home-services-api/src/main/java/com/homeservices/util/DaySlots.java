@@ -0,0 +1,82 @@
+package com.homeservices.util;
+
+import java.time.LocalTime;
+
+/**
+ * Créneaux d'une journée sous forme de bitset
+ *
+ * Une journée compte 48 créneaux de 30 minutes ; le bit i représente
+ * [i * 30 min, (i + 1) * 30 min). Une journée tient dans un long et les
+ * opérations (horaires, exceptions, réservations) sont des ET/OU bit à bit.
+ */
+public final class DaySlots {
+
+    public static final int SLOT_MINUTES = 30;
+    public static final int SLOTS_PER_DAY = 24 * 60 / SLOT_MINUTES;
+    public static final long FULL_DAY = (1L << SLOTS_PER_DAY) - 1;
+
+    private DaySlots() {
+    }
+
+    /**
+     * Créneaux entièrement compris dans [start, end) ; end = 00:00 signifie fin de journée
+     */
+    public static long inner(LocalTime start, LocalTime end) {
+        int from = ceilSlot(minuteOfDay(start));
+        int to = endMinute(end) / SLOT_MINUTES;
+        return range(from, to);
+    }
+
+    /**
+     * Créneaux touchés par [start, end) : utilisé pour retirer une réservation
+     */
+    public static long covering(int startMinute, int endMinute) {
+        int from = startMinute / SLOT_MINUTES;
+        int to = ceilSlot(endMinute);
+        return range(from, to);
+    }
+
+    /**
+     * Bits de début possibles pour un bloc de "length" créneaux consécutifs libres
+     */
+    public static long starts(long free, int length) {
+        long result = free;
+        for (int k = 1; k < length && result != 0; k++) {
+            result &= free >>> k;
+        }
+        return result;
+    }
+
+    public static LocalTime timeOf(int slot) {
+        return LocalTime.MIDNIGHT.plusMinutes((long) slot * SLOT_MINUTES);
+    }
+
+    public static int slotsFor(int minutes) {
+        return ceilSlot(minutes);
+    }
+
+    public static boolean isAligned(LocalTime time) {
+        return time.getSecond() == 0 && time.getNano() == 0 && time.getMinute() % SLOT_MINUTES == 0;
+    }
+
+    public static int minuteOfDay(LocalTime time) {
+        return time.getHour() * 60 + time.getMinute();
+    }
+
+    private static int endMinute(LocalTime end) {
+        return end.equals(LocalTime.MIDNIGHT) ? 24 * 60 : minuteOfDay(end);
+    }
+
+    private static int ceilSlot(int minute) {
+        return (minute + SLOT_MINUTES - 1) / SLOT_MINUTES;
+    }
+
+    private static long range(int from, int to) {
+        from = Math.max(0, from);
+        to = Math.min(SLOTS_PER_DAY, to);
+        if (from >= to) {
+            return 0L;
+        }
+        return (FULL_DAY >>> (SLOTS_PER_DAY - (to - from))) << from;
+    }
+}
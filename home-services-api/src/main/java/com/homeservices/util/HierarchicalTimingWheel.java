@@ -0,0 +1,189 @@
+package com.homeservices.util;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Roue temporelle hiérarchique (échéancier à granularité fixe)
+ *
+ * Le temps est découpé en ticks. Chaque niveau est une roue de 64 cases ; une
+ * case du niveau i couvre 64^i ticks. Une échéance est rangée au niveau du
+ * chiffre (en base 64) le plus significatif où son tick diffère du tick
+ * courant, dans la case indiquée par ce chiffre. Quand le tick courant entre
+ * dans une nouvelle case d'un niveau supérieur, cette case est redescendue
+ * vers les niveaux inférieurs ; les échéances du niveau 0 partent à leur tick.
+ *
+ * Ajout et annulation en O(1) (listes doublement chaînées), un seul noeud par
+ * échéance en mémoire. Non réentrant : les échéances dues sont retournées par
+ * advance() pour être traitées hors du verrou.
+ */
+public class HierarchicalTimingWheel<T> {
+
+    private static final int BITS = 6;
+    private static final int WHEEL_SIZE = 1 << BITS;
+    private static final int WHEEL_MASK = WHEEL_SIZE - 1;
+
+    /**
+     * Échéance planifiée ; sert de poignée pour l'annulation
+     */
+    public static final class Timeout<T> {
+        private final long deadlineTick;
+        private final T payload;
+        private Timeout<T> prev;
+        private Timeout<T> next;
+
+        private Timeout(long deadlineTick, T payload) {
+            this.deadlineTick = deadlineTick;
+            this.payload = payload;
+        }
+
+        public T getPayload() {
+            return payload;
+        }
+
+        private boolean isLinked() {
+            return prev != null;
+        }
+    }
+
+    private final long tickMs;
+    private final int levels;
+
+    // Une liste circulaire (sentinelle) par case : levels x 64
+    private final Timeout<T>[][] buckets;
+
+    // Échéances déjà passées au moment de l'ajout : parties au prochain advance()
+    private final Timeout<T> due;
+
+    private long currentTick;
+    private int size;
+
+    /**
+     * @param tickMs  granularité en millisecondes
+     * @param levels  nombre de niveaux (horizon : 64^levels ticks)
+     * @param startMs instant de départ
+     */
+    @SuppressWarnings({ "unchecked", "rawtypes" })
+    public HierarchicalTimingWheel(long tickMs, int levels, long startMs) {
+        this.tickMs = tickMs;
+        this.levels = levels;
+        this.buckets = new Timeout[levels][WHEEL_SIZE];
+        for (Timeout<T>[] level : buckets) {
+            for (int i = 0; i < WHEEL_SIZE; i++) {
+                level[i] = sentinel();
+            }
+        }
+        this.due = sentinel();
+        this.currentTick = startMs / tickMs;
+    }
+
+    /**
+     * Planifie une échéance ; null si elle dépasse l'horizon de la roue
+     */
+    public synchronized Timeout<T> schedule(long deadlineMs, T payload) {
+        Timeout<T> timeout = new Timeout<>(Math.floorDiv(deadlineMs, tickMs), payload);
+        if (!place(timeout)) {
+            return null;
+        }
+        size++;
+        return timeout;
+    }
+
+    /**
+     * Annule une échéance ; false si elle est déjà partie ou annulée
+     */
+    public synchronized boolean cancel(Timeout<T> timeout) {
+        if (timeout == null || !timeout.isLinked()) {
+            return false;
+        }
+        unlink(timeout);
+        size--;
+        return true;
+    }
+
+    /**
+     * Avance jusqu'à l'instant donné et retourne les échéances arrivées
+     */
+    public synchronized List<T> advance(long nowMs) {
+        List<T> expired = new ArrayList<>();
+        drain(due, expired);
+
+        long targetTick = nowMs / tickMs;
+        while (currentTick < targetTick) {
+            currentTick++;
+            // Entrée dans une nouvelle case d'un niveau supérieur : la redescendre
+            for (int level = levels - 1; level > 0; level--) {
+                if ((currentTick & ((1L << (BITS * level)) - 1)) == 0) {
+                    cascade(buckets[level][digit(currentTick, level)]);
+                }
+            }
+            drain(due, expired);
+            drain(buckets[0][digit(currentTick, 0)], expired);
+        }
+        size -= expired.size();
+        return expired;
+    }
+
+    public synchronized int size() {
+        return size;
+    }
+
+    private boolean place(Timeout<T> timeout) {
+        long diff = timeout.deadlineTick ^ currentTick;
+        if (timeout.deadlineTick <= currentTick) {
+            link(due, timeout);
+            return true;
+        }
+        int level = (63 - Long.numberOfLeadingZeros(diff)) / BITS;
+        if (level >= levels) {
+            return false;
+        }
+        link(buckets[level][digit(timeout.deadlineTick, level)], timeout);
+        return true;
+    }
+
+    private void cascade(Timeout<T> head) {
+        Timeout<T> node = head.next;
+        while (node != head) {
+            Timeout<T> next = node.next;
+            unlink(node);
+            place(node);
+            node = next;
+        }
+    }
+
+    private void drain(Timeout<T> head, List<T> expired) {
+        Timeout<T> node = head.next;
+        while (node != head) {
+            Timeout<T> next = node.next;
+            unlink(node);
+            expired.add(node.payload);
+            node = next;
+        }
+    }
+
+    private static int digit(long tick, int level) {
+        return (int) (tick >>> (BITS * level)) & WHEEL_MASK;
+    }
+
+    private Timeout<T> sentinel() {
+        Timeout<T> head = new Timeout<>(0, null);
+        head.prev = head;
+        head.next = head;
+        return head;
+    }
+
+    private void link(Timeout<T> head, Timeout<T> node) {
+        node.prev = head.prev;
+        node.next = head;
+        head.prev.next = node;
+        head.prev = node;
+    }
+
+    private void unlink(Timeout<T> node) {
+        node.prev.next = node.next;
+        node.next.prev = node.prev;
+        node.prev = null;
+        node.next = null;
+    }
+}
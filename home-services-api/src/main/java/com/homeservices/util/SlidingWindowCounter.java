@@ -0,0 +1,98 @@
+package com.homeservices.util;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Compteur à fenêtre glissante par clé, borné en mémoire et sans verrou
+ *
+ * Chaque clé a son propre compteur (pas de collision : des tentatives sur
+ * d'autres clés ne peuvent pas bloquer un utilisateur légitime), tenu dans
+ * un long manipulé par CAS :
+ * [index de fenêtre : 32 bits][compteur courant : 16 bits][compteur précédent : 16 bits].
+ * Le test de la limite et l'incrément se font dans le même CAS : des
+ * tentatives simultanées ne peuvent pas dépasser la limite.
+ *
+ * La mémoire est bornée par maxKeys. Au-delà, le cache évince en priorité
+ * les clés peu sollicitées (W-TinyLFU) : une clé attaquée, donc fréquente,
+ * reste comptée. Une clé évincée repart de zéro : la limite échoue alors
+ * « ouverte » pour cette clé, jamais en bloquant à tort.
+ */
+public class SlidingWindowCounter {
+
+    private static final long COUNT_MASK = 0xFFFFL;
+
+    private final Cache<String, AtomicLong> counters;
+    private final long windowMs;
+
+    /**
+     * @param maxKeys   nombre maximal de clés suivies
+     * @param windowMs  durée de la fenêtre en millisecondes
+     */
+    public SlidingWindowCounter(long maxKeys, long windowMs) {
+        // Au-delà de deux fenêtres sans tentative, le compteur ne pèse plus rien
+        this.counters = Caffeine.newBuilder()
+                .maximumSize(maxKeys)
+                .expireAfterAccess(Duration.ofMillis(2 * windowMs))
+                .build();
+        this.windowMs = windowMs;
+    }
+
+    /**
+     * Compte une tentative si l'estimation sur la fenêtre glissante reste
+     * sous la limite ; retourne false (sans compter) sinon
+     */
+    public boolean tryAcquire(String key, int limit, long nowMs) {
+        long window = nowMs / windowMs;
+        double previousWeight = 1.0 - (double) (nowMs % windowMs) / windowMs;
+        AtomicLong counter = counters.get(key, k -> new AtomicLong());
+
+        for (;;) {
+            long slot = counter.get();
+            long rolled = roll(slot, window);
+            if (current(rolled) + previous(rolled) * previousWeight >= limit) {
+                return false;
+            }
+            if (counter.compareAndSet(slot, increment(rolled))) {
+                return true;
+            }
+        }
+    }
+
+    /**
+     * Temps restant avant le début de la prochaine fenêtre
+     */
+    public long millisUntilNextWindow(long nowMs) {
+        return windowMs - nowMs % windowMs;
+    }
+
+    // Fait glisser un compteur vers la fenêtre demandée
+    private static long roll(long slot, long window) {
+        long slotWindow = slot >>> 32;
+        long w = window & 0xFFFFFFFFL;
+        if (slotWindow == w) {
+            return slot;
+        }
+        long previous = slotWindow == ((w - 1) & 0xFFFFFFFFL) ? current(slot) : 0;
+        return (w << 32) | previous;
+    }
+
+    private static long increment(long slot) {
+        long current = current(slot);
+        if (current == COUNT_MASK) {
+            return slot;
+        }
+        return (slot & ~(COUNT_MASK << 16)) | ((current + 1) << 16);
+    }
+
+    private static long current(long slot) {
+        return (slot >>> 16) & COUNT_MASK;
+    }
+
+    private static long previous(long slot) {
+        return slot & COUNT_MASK;
+    }
+}
@@ -0,0 +1,81 @@
+package com.homeservices.config;
+
+import com.homeservices.enums.UserRole;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.io.Decoders;
+import io.jsonwebtoken.security.Keys;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import javax.crypto.SecretKey;
+import java.util.Base64;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Vérification d'un access token : ancien chemin du filtre JWT (clé et parser
+ * reconstruits à chaque appel, token parsé deux fois par validateToken puis
+ * getEmailFromToken) contre JwtUtils.verify (parser construit au démarrage,
+ * une seule passe).
+ *
+ * Lancement :
+ * mvn -q test-compile dependency:build-classpath -Dmdep.outputFile=target/cp.txt
+ * java -cp target/test-classes:target/classes:$(cat target/cp.txt) org.openjdk.jmh.Main JwtVerificationBenchmark
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class JwtVerificationBenchmark {
+
+    private static final String SECRET = "benchmark-secret-key-with-at-least-256-bits-for-hs256";
+
+    private JwtUtils jwtUtils;
+
+    private String token;
+
+    @Setup
+    public void setup() {
+        jwtUtils = new JwtUtils();
+        ReflectionTestUtils.setField(jwtUtils, "jwtSecret", SECRET);
+        ReflectionTestUtils.setField(jwtUtils, "jwtExpiration", 86_400_000L);
+        ReflectionTestUtils.setField(jwtUtils, "refreshExpiration", 604_800_000L);
+        ReflectionTestUtils.setField(jwtUtils, "claimsMaxAge", 900_000L);
+        jwtUtils.init();
+        token = jwtUtils.generateToken(42L, "client@example.com", UserRole.CLIENT, "family");
+    }
+
+    @Benchmark
+    public String legacyDoubleParse() {
+        legacyParse(token);
+        return legacyParse(token).getSubject();
+    }
+
+    @Benchmark
+    public UserPrincipal singlePassVerify() {
+        TokenVerification verification = jwtUtils.verify(token);
+        return jwtUtils.getPrincipalFromClaims(verification.getClaims());
+    }
+
+    // Chemin d'avant : clé dérivée et parser construit à chaque appel
+    private static Claims legacyParse(String token) {
+        byte[] keyBytes = Decoders.BASE64.decode(Base64.getEncoder().encodeToString(SECRET.getBytes()));
+        SecretKey key = Keys.hmacShaKeyFor(keyBytes);
+        return Jwts.parser()
+                .verifyWith(key)
+                .build()
+                .parseSignedClaims(token)
+                .getPayload();
+    }
+}
@@ -0,0 +1,120 @@
+package com.homeservices.controller;
+
+import com.homeservices.HomeServicesApplication;
+import com.homeservices.config.JwtAuthenticationFilter;
+import com.homeservices.config.JwtUtils;
+import com.homeservices.enums.UserRole;
+import jakarta.servlet.Filter;
+import jakarta.servlet.http.HttpServletRequest;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.http.HttpHeaders;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.web.context.WebApplicationContext;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+
+/**
+ * Débit de GET /api/services à travers la chaîne Spring Security, avec et
+ * sans le raccourci JwtAuthenticationFilter.shouldNotFilter sur les routes
+ * publiques (fastPath=false : le filtre traite toutes les routes, comme avant).
+ * L'appelant est anonyme ou porte le token d'un utilisateur connecté.
+ *
+ * Lancement :
+ * mvn -q test-compile dependency:build-classpath -Dmdep.outputFile=target/cp.txt
+ * java -cp target/test-classes:target/classes:$(cat target/cp.txt) org.openjdk.jmh.Main CatalogThroughputBenchmark
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 20, time = 3)
+@Measurement(iterations = 5, time = 3)
+@Fork(1)
+public class CatalogThroughputBenchmark {
+
+    @Param({ "true", "false" })
+    public boolean fastPath;
+
+    @Param({ "anonymous", "bearer" })
+    public String caller;
+
+    private ConfigurableApplicationContext context;
+
+    private MockMvc mockMvc;
+
+    private MockHttpServletRequestBuilder request;
+
+    @Setup
+    public void setup() {
+        SpringApplicationBuilder builder = new SpringApplicationBuilder(HomeServicesApplication.class);
+        if (!fastPath) {
+            builder.sources(FilterEveryRoute.class);
+        }
+        context = builder.run(
+                "--server.port=0",
+                "--spring.datasource.url=jdbc:h2:mem:catalog-benchmark",
+                "--spring.datasource.username=sa",
+                "--spring.datasource.password=",
+                "--spring.datasource.driver-class-name=org.h2.Driver",
+                "--spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+                "--spring.jpa.show-sql=false",
+                "--logging.level.root=WARN");
+
+        mockMvc = MockMvcBuilders.webAppContextSetup((WebApplicationContext) context)
+                .addFilters(context.getBean("springSecurityFilterChain", Filter.class))
+                .build();
+        request = get("/api/services");
+        if ("bearer".equals(caller)) {
+            String token = context.getBean(JwtUtils.class)
+                    .generateToken(1L, "client@example.com", UserRole.CLIENT, null);
+            request.header(HttpHeaders.AUTHORIZATION, "Bearer " + token);
+        }
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public int listServices() throws Exception {
+        return mockMvc.perform(request).andReturn().getResponse().getStatus();
+    }
+
+    /**
+     * Remplace le filtre JWT par une variante sans raccourci sur les routes publiques
+     */
+    @Configuration
+    static class FilterEveryRoute {
+
+        @Bean
+        @Primary
+        JwtAuthenticationFilter filterEveryRoute() {
+            return new JwtAuthenticationFilter() {
+                @Override
+                protected boolean shouldNotFilter(HttpServletRequest request) {
+                    return false;
+                }
+            };
+        }
+    }
+}
@@ -0,0 +1,131 @@
+package com.homeservices.repository;
+
+import com.homeservices.dto.CursorPage;
+import com.homeservices.entity.ProviderService;
+import com.homeservices.entity.Reservation;
+import com.homeservices.entity.ServiceCatalog;
+import com.homeservices.entity.Transaction;
+import com.homeservices.entity.User;
+import com.homeservices.enums.PaymentStatus;
+import com.homeservices.enums.ReservationStatus;
+import com.homeservices.enums.ServiceType;
+import com.homeservices.enums.UserRole;
+import com.homeservices.util.KeysetCursor;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.data.domain.Pageable;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.function.Supplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Les listes de réservations et de transactions se lisent en une seule
+ * requête, quel que soit le nombre de lignes (pas de N+1 sur les associations)
+ */
+@DataJpaTest(properties = {
+        "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+        "spring.jpa.properties.hibernate.generate_statistics=true",
+        "spring.jpa.show-sql=false",
+        "logging.level.org.hibernate.engine.internal.StatisticalLoggingSessionEventListener=WARN"
+})
+class ReservationListQueryCountTest {
+
+    private static final KeysetCursor FIRST = KeysetCursor.FIRST;
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private ReservationRepository reservationRepository;
+
+    @Autowired
+    private TransactionRepository transactionRepository;
+
+    private Statistics statistics;
+
+    private User client;
+    private User provider;
+    private ProviderService providerService;
+
+    @BeforeEach
+    void setUp() {
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+
+        ServiceCatalog catalog = entityManager.persist(
+                new ServiceCatalog("Plomberie", ServiceType.PLOMBERIE, "Réparations", "🔧", 50.0));
+        client = entityManager.persist(new User("client@test.com", "secret12", "Cli", "Ent", UserRole.CLIENT));
+        provider = entityManager.persist(
+                new User("provider@test.com", "secret12", "Pro", "Vider", UserRole.PRESTATAIRE));
+        providerService = entityManager.persist(
+                new ProviderService(provider, catalog, new BigDecimal("50.00"), "Dépannage"));
+    }
+
+    @ParameterizedTest
+    @ValueSource(ints = { 1, 20 })
+    void reservationListsRunOneStatement(int rows) {
+        persistReservations(rows);
+        Pageable page = CursorPage.probe(CursorPage.DEFAULT_LIMIT);
+
+        assertSingleStatement(rows, () -> reservationRepository.findDTOPageByClientId(
+                client.getId(), FIRST.getTimestamp(), FIRST.getId(), page));
+        assertSingleStatement(rows, () -> reservationRepository.findDTOPageByProviderId(
+                provider.getId(), FIRST.getTimestamp(), FIRST.getId(), page));
+        assertSingleStatement(rows, () -> reservationRepository.findDTOPage(
+                FIRST.getTimestamp(), FIRST.getId(), page));
+        assertSingleStatement(rows, () -> reservationRepository.findDTOsByProviderIdAndStatus(
+                provider.getId(), ReservationStatus.EN_ATTENTE));
+        assertSingleStatement(rows, () -> reservationRepository.findDTOsByProviderIdScheduledBetween(
+                provider.getId(), LocalDateTime.now(), LocalDateTime.now().plusDays(rows + 1)));
+    }
+
+    @ParameterizedTest
+    @ValueSource(ints = { 1, 20 })
+    void transactionListsRunOneStatement(int rows) {
+        persistReservations(rows);
+        Pageable page = CursorPage.probe(CursorPage.DEFAULT_LIMIT);
+        LocalDateTime after = FIRST.getTimestamp();
+
+        assertSingleStatement(rows, () -> transactionRepository.findDTOPageByClientId(
+                client.getId(), after, FIRST.getId(), page));
+        assertSingleStatement(rows, () -> transactionRepository.findDTOPageByProviderId(
+                provider.getId(), after, FIRST.getId(), page));
+        assertSingleStatement(rows, () -> transactionRepository.findDTOPage(after, FIRST.getId(), page));
+    }
+
+    private void persistReservations(int rows) {
+        LocalDateTime start = LocalDateTime.now().plusDays(1).withHour(10).withMinute(0).withSecond(0).withNano(0);
+        for (int i = 0; i < rows; i++) {
+            Reservation reservation = new Reservation(client, providerService, start.plusDays(i), null, "1 rue");
+            reservation.setProviderId(provider.getId());
+            entityManager.persist(reservation);
+
+            Transaction transaction = new Transaction(reservation, new BigDecimal("50.00"), "CARTE");
+            transaction.setStatus(PaymentStatus.REUSSI);
+            entityManager.persist(transaction);
+        }
+        entityManager.flush();
+        entityManager.clear();
+    }
+
+    private void assertSingleStatement(int rows, Supplier<List<?>> query) {
+        statistics.clear();
+        List<?> result = query.get();
+        assertThat(result).hasSize(rows);
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(1);
+        entityManager.clear();
+    }
+}
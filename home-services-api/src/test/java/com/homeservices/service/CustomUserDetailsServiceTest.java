@@ -0,0 +1,79 @@
+package com.homeservices.service;
+
+import com.homeservices.entity.User;
+import com.homeservices.enums.UserRole;
+import com.homeservices.repository.UserRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.concurrent.CompletableFuture;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Une connexion concurrente à une modification d'utilisateur ne remet pas
+ * en cache la ligne d'avant la modification
+ */
+@DataJpaTest(properties = {
+        "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+        "spring.jpa.show-sql=false"
+})
+@Import({ CustomUserDetailsService.class, SimpleMeterRegistry.class })
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class CustomUserDetailsServiceTest {
+
+    private static final String EMAIL = "cache@test.com";
+
+    @Autowired
+    private CustomUserDetailsService userDetailsService;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private TransactionTemplate transactionTemplate;
+
+    @BeforeEach
+    void setUp() {
+        transactionTemplate = new TransactionTemplate(transactionManager);
+        userRepository.findByEmail(EMAIL).ifPresent(userRepository::delete);
+        userRepository.save(new User(EMAIL, "old-hash", "Cache", "Test", UserRole.CLIENT));
+    }
+
+    @Test
+    void loginDuringAPasswordChangeDoesNotKeepTheOldHash() {
+        transactionTemplate.executeWithoutResult(status -> {
+            User user = userRepository.findByEmail(EMAIL).orElseThrow();
+            user.setPassword("new-hash");
+            userRepository.save(user);
+            userDetailsService.evictUser(user.getId(), user.getEmail());
+
+            // Connexion concurrente avant le commit : lit et met en cache l'ancienne ligne
+            String seen = CompletableFuture.supplyAsync(
+                    () -> userDetailsService.loadUserByUsername(EMAIL).getPassword()).join();
+            assertThat(seen).isEqualTo("old-hash");
+        });
+
+        assertThat(userDetailsService.loadUserByUsername(EMAIL).getPassword()).isEqualTo("new-hash");
+    }
+
+    @Test
+    void upgradedHashIsCachedOnlyOnceCommitted() {
+        transactionTemplate.executeWithoutResult(status -> {
+            userDetailsService.updatePassword(userDetailsService.loadUserByUsername(EMAIL), "rehashed");
+            status.setRollbackOnly();
+        });
+
+        assertThat(userDetailsService.loadUserByUsername(EMAIL).getPassword()).isEqualTo("old-hash");
+    }
+}
@@ -0,0 +1,124 @@
+package com.homeservices.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.homeservices.entity.IdempotencyRecord;
+import com.homeservices.repository.IdempotencyRecordRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.security.MessageDigest;
+import java.time.LocalDateTime;
+import java.util.HexFormat;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.when;
+
+/**
+ * L'enregistrement d'une réponse est un INSERT : une autre instance qui a
+ * validé la même clé entre-temps l'emporte, sa réponse est rejouée
+ */
+@DataJpaTest(properties = {
+        "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+        "spring.jpa.show-sql=false"
+})
+@Import({ IdempotencyService.class, SimpleMeterRegistry.class, ObjectMapper.class })
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class IdempotencyServiceTest {
+
+    // Portée d'une clé : opération et utilisateur (cache local partagé entre les tests : une clé par test)
+    private static final String PREFIX = "create-reservation:1:";
+
+    @Autowired
+    private IdempotencyService idempotencyService;
+
+    @Autowired
+    private IdempotencyRecordRepository recordRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @MockBean
+    private UserService userService;
+
+    private final AtomicInteger executions = new AtomicInteger();
+
+    @BeforeEach
+    void setUp() {
+        recordRepository.deleteAll();
+        when(userService.getCurrentUserId()).thenReturn(1L);
+    }
+
+    @Test
+    void keyCommittedByAnotherInstanceIsReplayedNotOverwritten() throws Exception {
+        String fingerprint = fingerprintOf("body");
+        String response = idempotencyService.execute("create-reservation", "raced", "body", String.class, () -> {
+            executions.incrementAndGet();
+            // Une autre instance valide la même clé pendant notre action
+            insertInOwnTransaction(new IdempotencyRecord(PREFIX + "raced", fingerprint, "\"winner\"",
+                    LocalDateTime.now(), LocalDateTime.now().plusHours(1)));
+            return "loser";
+        });
+
+        assertThat(response).isEqualTo("winner");
+        assertThat(recordRepository.findById(PREFIX + "raced"))
+                .get().extracting(IdempotencyRecord::getResponseBody).isEqualTo("\"winner\"");
+    }
+
+    @Test
+    void expiredKeyIsReplacedByANewExecution() throws Exception {
+        LocalDateTime past = LocalDateTime.now().minusHours(2);
+        insertInOwnTransaction(new IdempotencyRecord(PREFIX + "expired", fingerprintOf("old"), "\"old\"",
+                past, past.plusHours(1)));
+
+        String response = idempotencyService.execute("create-reservation", "expired", "body", String.class, () -> {
+            executions.incrementAndGet();
+            return "fresh";
+        });
+
+        assertThat(response).isEqualTo("fresh");
+        assertThat(executions).hasValue(1);
+        assertThat(recordRepository.findValid(PREFIX + "expired", LocalDateTime.now()))
+                .get().extracting(IdempotencyRecord::getResponseBody).isEqualTo("\"fresh\"");
+    }
+
+    @Test
+    void sameKeyReplaysWithoutRunningTheActionAgain() {
+        idempotencyService.execute("create-reservation", "replayed", "body", String.class, () -> {
+            executions.incrementAndGet();
+            return "first";
+        });
+        String replayed = idempotencyService.execute("create-reservation", "replayed", "body", String.class, () -> {
+            executions.incrementAndGet();
+            return "second";
+        });
+
+        assertThat(replayed).isEqualTo("first");
+        assertThat(executions).hasValue(1);
+    }
+
+    private void insertInOwnTransaction(IdempotencyRecord record) {
+        TransactionTemplate other = new TransactionTemplate(transactionManager);
+        other.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        other.executeWithoutResult(status -> recordRepository.saveAndFlush(record));
+    }
+
+    // Même empreinte que celle calculée par le service pour ce corps de requête
+    private String fingerprintOf(String body) throws Exception {
+        byte[] digest = MessageDigest.getInstance("SHA-256").digest(objectMapper.writeValueAsBytes(body));
+        return HexFormat.of().formatHex(digest);
+    }
+}
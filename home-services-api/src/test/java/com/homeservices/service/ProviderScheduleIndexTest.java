@@ -0,0 +1,113 @@
+package com.homeservices.service;
+
+import com.homeservices.dto.BookedInterval;
+import com.homeservices.repository.ReservationRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Un chevauchement dans l'index n'est qu'un indice : il est confirmé en base
+ * avant tout refus, et les créneaux libérés ailleurs sont retirés
+ */
+class ProviderScheduleIndexTest {
+
+    private static final Long PROVIDER = 7L;
+
+    private final LocalDateTime ten = LocalDateTime.now().plusDays(1).withHour(10).withMinute(0).withSecond(0).withNano(0);
+
+    private ReservationRepository reservationRepository;
+
+    private ProviderScheduleIndex index;
+
+    @BeforeEach
+    void setUp() {
+        reservationRepository = mock(ReservationRepository.class);
+        index = new ProviderScheduleIndex();
+        ReflectionTestUtils.setField(index, "reservationRepository", reservationRepository);
+        ReflectionTestUtils.setField(index, "meterRegistry", new SimpleMeterRegistry());
+        index.init();
+    }
+
+    @Test
+    void freeSlotSkipsTheDatabase() {
+        loadAtStartup(interval(1L, ten));
+
+        assertThat(index.isFree(PROVIDER, ten.plusHours(1), ten.plusHours(2))).isTrue();
+        verify(reservationRepository, never()).findBookedIntervalsOverlapping(
+                anyLong(), any(), any(), any(), any());
+    }
+
+    @Test
+    void slotReleasedOnAnotherInstanceIsNotRejected() {
+        loadAtStartup(interval(1L, ten));
+        whenDatabaseHolds();
+
+        assertThat(index.isFree(PROVIDER, ten, ten.plusHours(1))).isTrue();
+        assertThat(index.tryReserve(interval(2L, ten))).isTrue();
+        assertThat(index.booked(PROVIDER, ten, ten.plusHours(1)))
+                .extracting(BookedInterval::getReservationId).containsExactly(2L);
+    }
+
+    @Test
+    void overlapConfirmedByTheDatabaseIsRejected() {
+        loadAtStartup(interval(1L, ten));
+        whenDatabaseHolds(interval(1L, ten));
+
+        assertThat(index.isFree(PROVIDER, ten.plusMinutes(30), ten.plusMinutes(90))).isFalse();
+        assertThat(index.tryReserve(interval(2L, ten.plusMinutes(30)))).isFalse();
+    }
+
+    @Test
+    void bookingOfAnotherInstanceIsLearnedFromTheDatabase() {
+        loadAtStartup();
+        index.tryReserve(interval(3L, ten.plusHours(4)));
+        whenDatabaseHolds(interval(1L, ten));
+
+        // L'index ne connaît pas la réservation 1 : la resynchronisation l'ajoute
+        index.resync();
+        assertThat(index.isFree(PROVIDER, ten, ten.plusHours(1))).isFalse();
+    }
+
+    @Test
+    void uncommittedLocalReservationIsKept() {
+        loadAtStartup();
+        assertThat(index.tryReserve(interval(1L, ten))).isTrue();
+        whenDatabaseHolds();
+
+        // Invisible en base tant que sa transaction n'est pas validée
+        assertThat(index.isFree(PROVIDER, ten, ten.plusHours(1))).isFalse();
+        index.resync();
+        assertThat(index.isFree(PROVIDER, ten, ten.plusHours(1))).isFalse();
+
+        index.committed(1L);
+        assertThat(index.isFree(PROVIDER, ten, ten.plusHours(1))).isTrue();
+    }
+
+    private void loadAtStartup(BookedInterval... intervals) {
+        when(reservationRepository.findBookedIntervalsFrom(any(), any())).thenReturn(List.of(intervals));
+        index.run();
+    }
+
+    private void whenDatabaseHolds(BookedInterval... intervals) {
+        when(reservationRepository.findBookedIntervalsOverlapping(anyLong(), any(), any(), any(), any()))
+                .thenReturn(List.of(intervals));
+        when(reservationRepository.findBookedIntervalsFrom(any(), any())).thenReturn(List.of(intervals));
+    }
+
+    private static BookedInterval interval(Long reservationId, LocalDateTime start) {
+        return new BookedInterval(reservationId, PROVIDER, start, start.plusHours(1));
+    }
+}
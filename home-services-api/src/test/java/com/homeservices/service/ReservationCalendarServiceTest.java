@@ -0,0 +1,110 @@
+package com.homeservices.service;
+
+import com.homeservices.dto.CalendarDayDTO;
+import com.homeservices.dto.ReservationDTO;
+import com.homeservices.entity.ProviderService;
+import com.homeservices.entity.Reservation;
+import com.homeservices.entity.ServiceCatalog;
+import com.homeservices.entity.User;
+import com.homeservices.enums.ReservationStatus;
+import com.homeservices.enums.ServiceType;
+import com.homeservices.enums.UserRole;
+import com.homeservices.repository.ReservationRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.EnumSet;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.when;
+
+/**
+ * Les cases en cache sont rechargées quand la base a changé sans événement
+ * local (changement fait sur une autre instance)
+ */
+@DataJpaTest(properties = {
+        "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+        "spring.jpa.show-sql=false"
+})
+@Import({ ReservationCalendarService.class, SimpleMeterRegistry.class })
+class ReservationCalendarServiceTest {
+
+    @Autowired
+    private ReservationCalendarService calendarService;
+
+    @Autowired
+    private ReservationRepository reservationRepository;
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @MockBean
+    private UserService userService;
+
+    private User client;
+    private User provider;
+    private ProviderService providerService;
+
+    private final LocalDate today = LocalDate.now();
+
+    @BeforeEach
+    void setUp() {
+        ServiceCatalog catalog = entityManager.persist(
+                new ServiceCatalog("Plomberie", ServiceType.PLOMBERIE, "Réparations", "🔧", 50.0));
+        client = entityManager.persist(new User("client@test.com", "secret12", "Cli", "Ent", UserRole.CLIENT));
+        provider = entityManager.persist(
+                new User("provider@test.com", "secret12", "Pro", "Vider", UserRole.PRESTATAIRE));
+        providerService = entityManager.persist(
+                new ProviderService(provider, catalog, new BigDecimal("50.00"), "Dépannage"));
+        when(userService.getCurrentUserId()).thenReturn(provider.getId());
+    }
+
+    @Test
+    void statusChangedElsewhereIsServedFresh() {
+        Reservation reservation = persistReservation(today.plusDays(1).atTime(10, 0));
+        assertThat(statuses()).containsExactly(ReservationStatus.EN_ATTENTE);
+
+        // UPDATE sans événement local, comme sur une autre instance
+        reservationRepository.transitionAll(List.of(reservation.getId()), EnumSet.of(ReservationStatus.EN_ATTENTE),
+                ReservationStatus.CONFIRMEE, LocalDateTime.now());
+        entityManager.clear();
+
+        assertThat(statuses()).containsExactly(ReservationStatus.CONFIRMEE);
+    }
+
+    @Test
+    void bookingMadeElsewhereIsServedFresh() {
+        persistReservation(today.plusDays(1).atTime(10, 0));
+        assertThat(statuses()).hasSize(1);
+
+        persistReservation(today.plusDays(2).atTime(10, 0));
+
+        assertThat(statuses()).hasSize(2);
+    }
+
+    private List<ReservationStatus> statuses() {
+        return calendarService.getMyCalendar(today, today.plusDays(7)).stream()
+                .map(CalendarDayDTO::getReservations)
+                .flatMap(List::stream)
+                .map(ReservationDTO::getStatus)
+                .toList();
+    }
+
+    private Reservation persistReservation(LocalDateTime scheduledDate) {
+        Reservation reservation = new Reservation(client, providerService, scheduledDate, null, "1 rue");
+        reservation.setProviderId(provider.getId());
+        entityManager.persist(reservation);
+        entityManager.flush();
+        return reservation;
+    }
+}
@@ -0,0 +1,139 @@
+package com.homeservices.service;
+
+import com.homeservices.dto.BookedInterval;
+import com.homeservices.entity.ProviderService;
+import com.homeservices.entity.Reservation;
+import com.homeservices.entity.ReservationSeries;
+import com.homeservices.entity.ServiceCatalog;
+import com.homeservices.entity.User;
+import com.homeservices.enums.RecurrenceFrequency;
+import com.homeservices.enums.ReservationStatus;
+import com.homeservices.enums.ServiceType;
+import com.homeservices.enums.UserRole;
+import com.homeservices.event.ReservationStatusChangedEvent;
+import com.homeservices.repository.ReservationRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.event.ApplicationEvents;
+import org.springframework.test.context.event.RecordApplicationEvents;
+import org.springframework.test.util.AopTestUtils;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.AdditionalAnswers.delegatesTo;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * L'annulation d'une série ne notifie pas une occurrence déjà annulée par
+ * une autre écriture entre la lecture et l'UPDATE
+ */
+@DataJpaTest(properties = {
+        "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+        "spring.jpa.show-sql=false"
+})
+@Import({ ReservationSeriesService.class, SimpleMeterRegistry.class })
+@RecordApplicationEvents
+class ReservationSeriesServiceTest {
+
+    @Autowired
+    private ReservationSeriesService seriesService;
+
+    @Autowired
+    private ReservationRepository reservationRepository;
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Autowired
+    private ApplicationEvents events;
+
+    @MockBean
+    private ReservationService reservationService;
+
+    @MockBean
+    private UserService userService;
+
+    private User client;
+    private User provider;
+    private ProviderService providerService;
+
+    private final LocalDateTime firstDate = LocalDateTime.now().plusDays(7).withHour(10).withMinute(0)
+            .withSecond(0).withNano(0);
+
+    @BeforeEach
+    void setUp() {
+        ServiceCatalog catalog = entityManager.persist(
+                new ServiceCatalog("Plomberie", ServiceType.PLOMBERIE, "Réparations", "🔧", 50.0));
+        client = entityManager.persist(new User("client@test.com", "secret12", "Cli", "Ent", UserRole.CLIENT));
+        provider = entityManager.persist(
+                new User("provider@test.com", "secret12", "Pro", "Vider", UserRole.PRESTATAIRE));
+        providerService = entityManager.persist(
+                new ProviderService(provider, catalog, new BigDecimal("50.00"), "Dépannage"));
+        when(userService.getCurrentUserId()).thenReturn(client.getId());
+    }
+
+    @Test
+    void occurrenceCancelledConcurrentlyIsNotNotifiedTwice() {
+        ReservationSeries series = persistSeries();
+        Reservation cancelledByClient = persistOccurrence(series, firstDate);
+        Reservation cancelledWithSeries = persistOccurrence(series, firstDate.plusWeeks(1));
+
+        // Le client annule la première occurrence seule juste après la lecture des occurrences
+        ReservationRepository racing = mock(ReservationRepository.class, delegatesTo(reservationRepository));
+        doAnswer(invocation -> {
+            List<BookedInterval> rows = reservationRepository.findSeriesIntervalsFrom(
+                    invocation.getArgument(0), invocation.getArgument(1), invocation.getArgument(2));
+            reservationRepository.transitionAll(List.of(cancelledByClient.getId()),
+                    ReservationStatus.ANNULEE.predecessors(), ReservationStatus.ANNULEE,
+                    LocalDateTime.now().minusSeconds(1));
+            return rows;
+        }).when(racing).findSeriesIntervalsFrom(any(), any(), any());
+
+        ReservationSeriesService target = AopTestUtils.getTargetObject(seriesService);
+        ReflectionTestUtils.setField(target, "reservationRepository", racing);
+        try {
+            seriesService.cancelSeries(series.getId());
+        } finally {
+            ReflectionTestUtils.setField(target, "reservationRepository", reservationRepository);
+        }
+
+        assertThat(events.stream(ReservationStatusChangedEvent.class))
+                .extracting(ReservationStatusChangedEvent::getReservationId)
+                .containsExactly(cancelledWithSeries.getId());
+    }
+
+    private ReservationSeries persistSeries() {
+        ReservationSeries series = new ReservationSeries();
+        series.setClient(client);
+        series.setProviderService(providerService);
+        series.setProviderId(provider.getId());
+        series.setFirstDate(firstDate);
+        series.setFrequency(RecurrenceFrequency.HEBDOMADAIRE);
+        series.setMaxOccurrences(2);
+        series.setDurationMinutes(60);
+        series.setMaterializedUntil(firstDate.plusWeeks(1));
+        return entityManager.persist(series);
+    }
+
+    private Reservation persistOccurrence(ReservationSeries series, LocalDateTime scheduledDate) {
+        Reservation reservation = new Reservation(client, providerService, scheduledDate, null, "1 rue");
+        reservation.setProviderId(provider.getId());
+        reservation.setSeries(series);
+        entityManager.persist(reservation);
+        entityManager.flush();
+        return reservation;
+    }
+}
@@ -0,0 +1,134 @@
+package com.homeservices.service;
+
+import com.homeservices.dto.StatusUpdateRequest;
+import com.homeservices.dto.StatusUpdateResultDTO;
+import com.homeservices.entity.ProviderService;
+import com.homeservices.entity.Reservation;
+import com.homeservices.entity.ServiceCatalog;
+import com.homeservices.entity.User;
+import com.homeservices.enums.ReservationStatus;
+import com.homeservices.enums.ServiceType;
+import com.homeservices.enums.UserRole;
+import com.homeservices.event.ReservationStatusChangedEvent;
+import com.homeservices.repository.ReservationRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.event.ApplicationEvents;
+import org.springframework.test.context.event.RecordApplicationEvents;
+import org.springframework.test.util.AopTestUtils;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.AdditionalAnswers.delegatesTo;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Une réservation passée au statut demandé par une autre écriture entre la
+ * lecture et l'UPDATE groupé n'est pas présentée comme modifiée par la demande
+ */
+@DataJpaTest(properties = {
+        "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+        "spring.jpa.show-sql=false"
+})
+@Import({ ReservationService.class, SimpleMeterRegistry.class })
+@RecordApplicationEvents
+class ReservationServiceTest {
+
+    @Autowired
+    private ReservationService reservationService;
+
+    @Autowired
+    private ReservationRepository reservationRepository;
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Autowired
+    private ApplicationEvents events;
+
+    @MockBean
+    private UserService userService;
+
+    @MockBean
+    private ProviderScheduleIndex scheduleIndex;
+
+    @MockBean
+    private AvailabilityService availabilityService;
+
+    @MockBean
+    private ReservationArchiveService archiveService;
+
+    private User client;
+    private User provider;
+    private ProviderService providerService;
+
+    @BeforeEach
+    void setUp() {
+        ServiceCatalog catalog = entityManager.persist(
+                new ServiceCatalog("Plomberie", ServiceType.PLOMBERIE, "Réparations", "🔧", 50.0));
+        client = entityManager.persist(new User("client@test.com", "secret12", "Cli", "Ent", UserRole.CLIENT));
+        provider = entityManager.persist(
+                new User("provider@test.com", "secret12", "Pro", "Vider", UserRole.PRESTATAIRE));
+        providerService = entityManager.persist(
+                new ProviderService(provider, catalog, new BigDecimal("50.00"), "Dépannage"));
+        when(userService.getCurrentUserId()).thenReturn(provider.getId());
+    }
+
+    @Test
+    void rowConfirmedConcurrentlyIsNotReportedAsApplied() {
+        Reservation confirmedElsewhere = persistPending(LocalDateTime.now().plusDays(1));
+        Reservation confirmedHere = persistPending(LocalDateTime.now().plusDays(2));
+
+        // Le prestataire confirme la première réservation depuis un autre onglet juste après la lecture
+        AtomicBoolean raced = new AtomicBoolean();
+        ReservationRepository racing = mock(ReservationRepository.class, delegatesTo(reservationRepository));
+        doAnswer(invocation -> {
+            List<StatusUpdateResultDTO> rows = reservationRepository.findStatusesForProvider(
+                    invocation.getArgument(0), invocation.getArgument(1));
+            if (raced.compareAndSet(false, true)) {
+                reservationRepository.transitionAllAsProvider(List.of(confirmedElsewhere.getId()), provider.getId(),
+                        ReservationStatus.CONFIRMEE.predecessors(), ReservationStatus.CONFIRMEE,
+                        LocalDateTime.now().minusSeconds(1));
+            }
+            return rows;
+        }).when(racing).findStatusesForProvider(any(), any());
+
+        ReservationService target = AopTestUtils.getTargetObject(reservationService);
+        ReflectionTestUtils.setField(target, "reservationRepository", racing);
+        List<StatusUpdateResultDTO> results;
+        try {
+            results = reservationService.updateReservationStatuses(List.of(
+                    new StatusUpdateRequest(confirmedElsewhere.getId(), ReservationStatus.CONFIRMEE),
+                    new StatusUpdateRequest(confirmedHere.getId(), ReservationStatus.CONFIRMEE)));
+        } finally {
+            ReflectionTestUtils.setField(target, "reservationRepository", reservationRepository);
+        }
+
+        assertThat(results).extracting(StatusUpdateResultDTO::isUpdated).containsExactly(false, true);
+        assertThat(events.stream(ReservationStatusChangedEvent.class))
+                .extracting(ReservationStatusChangedEvent::getReservationId)
+                .containsExactly(confirmedHere.getId());
+    }
+
+    private Reservation persistPending(LocalDateTime scheduledDate) {
+        Reservation reservation = new Reservation(client, providerService, scheduledDate, null, "1 rue");
+        reservation.setProviderId(provider.getId());
+        entityManager.persist(reservation);
+        entityManager.flush();
+        return reservation;
+    }
+}
@@ -0,0 +1,120 @@
+package com.homeservices.service;
+
+import com.homeservices.dto.BookedInterval;
+import com.homeservices.entity.ProviderService;
+import com.homeservices.entity.Reservation;
+import com.homeservices.entity.ServiceCatalog;
+import com.homeservices.entity.User;
+import com.homeservices.enums.ReservationStatus;
+import com.homeservices.enums.ServiceType;
+import com.homeservices.enums.UserRole;
+import com.homeservices.event.ReservationStatusChangedEvent;
+import com.homeservices.repository.ReservationRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.event.ApplicationEvents;
+import org.springframework.test.context.event.RecordApplicationEvents;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.AdditionalAnswers.delegatesTo;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+
+/**
+ * Une réservation passée au statut cible par une autre écriture entre la
+ * lecture du lot et l'UPDATE n'est ni comptée ni notifiée par la passe
+ */
+@DataJpaTest(properties = {
+        "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+        "spring.jpa.show-sql=false"
+})
+@Import({ ReservationSweepService.class, SimpleMeterRegistry.class })
+@RecordApplicationEvents
+class ReservationSweepServiceTest {
+
+    @Autowired
+    private ReservationSweepService sweepService;
+
+    @Autowired
+    private ReservationRepository reservationRepository;
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Autowired
+    private ApplicationEvents events;
+
+    private User client;
+    private User provider;
+    private ProviderService providerService;
+
+    @BeforeEach
+    void setUp() {
+        ServiceCatalog catalog = entityManager.persist(
+                new ServiceCatalog("Plomberie", ServiceType.PLOMBERIE, "Réparations", "🔧", 50.0));
+        client = entityManager.persist(new User("client@test.com", "secret12", "Cli", "Ent", UserRole.CLIENT));
+        provider = entityManager.persist(
+                new User("provider@test.com", "secret12", "Pro", "Vider", UserRole.PRESTATAIRE));
+        providerService = entityManager.persist(
+                new ProviderService(provider, catalog, new BigDecimal("50.00"), "Dépannage"));
+    }
+
+    @Test
+    void rowCompletedConcurrentlyIsNotNotifiedTwice() {
+        Reservation completedByProvider = persistConfirmed(LocalDateTime.now().minusDays(3));
+        Reservation swept = persistConfirmed(LocalDateTime.now().minusDays(2));
+
+        // Le prestataire clôture la première réservation juste après la lecture du lot
+        ReservationRepository racing = mock(ReservationRepository.class, delegatesTo(reservationRepository));
+        doAnswer(invocation -> {
+            List<BookedInterval> rows = reservationRepository.findByStatusScheduledBefore(
+                    invocation.getArgument(0), invocation.getArgument(1), invocation.getArgument(2));
+            reservationRepository.transitionAllAsProvider(List.of(completedByProvider.getId()), provider.getId(),
+                    ReservationStatus.TERMINEE.predecessors(), ReservationStatus.TERMINEE,
+                    LocalDateTime.now().minusSeconds(1));
+            return rows;
+        }).when(racing).findByStatusScheduledBefore(any(), any(), any());
+        ReflectionTestUtils.setField(sweepService, "reservationRepository", racing);
+        try {
+            sweepService.completePastReservations();
+        } finally {
+            ReflectionTestUtils.setField(sweepService, "reservationRepository", reservationRepository);
+        }
+
+        assertThat(events.stream(ReservationStatusChangedEvent.class))
+                .extracting(ReservationStatusChangedEvent::getReservationId)
+                .containsExactly(swept.getId());
+    }
+
+    @Test
+    void fullChunkIsNotifiedWithoutRereading() {
+        Reservation first = persistConfirmed(LocalDateTime.now().minusDays(3));
+        Reservation second = persistConfirmed(LocalDateTime.now().minusDays(2));
+
+        sweepService.completePastReservations();
+
+        assertThat(events.stream(ReservationStatusChangedEvent.class))
+                .extracting(ReservationStatusChangedEvent::getReservationId)
+                .containsExactlyInAnyOrder(first.getId(), second.getId());
+    }
+
+    private Reservation persistConfirmed(LocalDateTime scheduledDate) {
+        Reservation reservation = new Reservation(client, providerService, scheduledDate, null, "1 rue");
+        reservation.setProviderId(provider.getId());
+        reservation.setStatus(ReservationStatus.CONFIRMEE);
+        entityManager.persist(reservation);
+        entityManager.flush();
+        return reservation;
+    }
+}
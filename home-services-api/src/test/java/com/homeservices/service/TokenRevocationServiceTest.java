@@ -0,0 +1,84 @@
+package com.homeservices.service;
+
+import com.homeservices.repository.RevokedTokenFamilyRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Une famille déjà révoquée (ou révoquée en même temps par une autre requête)
+ * ne fait pas échouer la transaction de l'appelant
+ */
+@DataJpaTest(properties = {
+        "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+        "spring.jpa.show-sql=false"
+})
+@Import({ TokenRevocationService.class, SimpleMeterRegistry.class })
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class TokenRevocationServiceTest {
+
+    @Autowired
+    private TokenRevocationService tokenRevocationService;
+
+    @Autowired
+    private RevokedTokenFamilyRepository revokedTokenFamilyRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Test
+    void concurrentRevocationsLeaveCallersCommittable() throws InterruptedException {
+        TransactionTemplate caller = new TransactionTemplate(transactionManager);
+        // 4 appelants : chacun tient deux connexions (sa transaction et celle de la révocation)
+        List<Throwable> failures = new CopyOnWriteArrayList<>();
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService pool = Executors.newFixedThreadPool(4);
+        for (int i = 0; i < 4; i++) {
+            pool.execute(() -> {
+                try {
+                    start.await();
+                    caller.executeWithoutResult(status -> tokenRevocationService.revokeFamily("family-race", 1L));
+                } catch (Throwable e) {
+                    failures.add(e);
+                }
+            });
+        }
+        start.countDown();
+        pool.shutdown();
+        assertThat(pool.awaitTermination(10, TimeUnit.SECONDS)).isTrue();
+
+        assertThat(failures).isEmpty();
+        assertThat(revokedTokenFamilyRepository.existsById("family-race")).isTrue();
+        assertThat(tokenRevocationService.isRevoked("family-race")).isTrue();
+    }
+
+    @Test
+    void revokeFamiliesCommitsEachFamilyOnItsOwn() {
+        TransactionTemplate caller = new TransactionTemplate(transactionManager);
+        tokenRevocationService.revokeFamily("family-a", 2L);
+
+        // L'appelant échoue après la révocation : elle reste acquise
+        caller.executeWithoutResult(status -> {
+            tokenRevocationService.revokeFamilies(List.of("family-a", "family-b"), 2L);
+            status.setRollbackOnly();
+        });
+
+        assertThat(revokedTokenFamilyRepository.existsById("family-a")).isTrue();
+        assertThat(revokedTokenFamilyRepository.existsById("family-b")).isTrue();
+    }
+}
@@ -0,0 +1,86 @@
+package com.homeservices.util;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class HierarchicalTimingWheelTest {
+
+    // Tick d'une milliseconde : les échéances sont exprimées directement en ticks
+    private static final long TICK_MS = 1;
+
+    @Test
+    void deadlinesAcrossLevelBoundariesFireAtTheirTick() {
+        HierarchicalTimingWheel<String> wheel = new HierarchicalTimingWheel<>(TICK_MS, 3, 0);
+        wheel.schedule(63, "last-of-level-0");
+        wheel.schedule(64, "first-of-level-1");
+        wheel.schedule(4095, "last-of-level-1");
+        wheel.schedule(4096, "first-of-level-2");
+        wheel.schedule(5000, "inside-level-2");
+
+        assertThat(wheel.advance(62)).isEmpty();
+        assertThat(wheel.advance(63)).containsExactly("last-of-level-0");
+        assertThat(wheel.advance(64)).containsExactly("first-of-level-1");
+        assertThat(wheel.advance(4094)).isEmpty();
+        assertThat(wheel.advance(4095)).containsExactly("last-of-level-1");
+        assertThat(wheel.advance(4096)).containsExactly("first-of-level-2");
+        assertThat(wheel.advance(4999)).isEmpty();
+        assertThat(wheel.advance(5000)).containsExactly("inside-level-2");
+    }
+
+    @Test
+    void timeoutCanBeCancelledAfterBeingCascaded() {
+        HierarchicalTimingWheel<String> wheel = new HierarchicalTimingWheel<>(TICK_MS, 3, 0);
+        HierarchicalTimingWheel.Timeout<String> timeout = wheel.schedule(100, "cascaded");
+
+        // Le passage au tick 64 redescend la case du niveau 1 vers le niveau 0
+        assertThat(wheel.advance(64)).isEmpty();
+        assertThat(wheel.cancel(timeout)).isTrue();
+        assertThat(wheel.cancel(timeout)).isFalse();
+        assertThat(wheel.advance(200)).isEmpty();
+        assertThat(wheel.size()).isZero();
+    }
+
+    @Test
+    void pastDeadlineIsDueOnNextAdvance() {
+        HierarchicalTimingWheel<String> wheel = new HierarchicalTimingWheel<>(TICK_MS, 3, 0);
+        wheel.advance(10);
+
+        assertThat(wheel.schedule(5, "late")).isNotNull();
+        assertThat(wheel.schedule(10, "now")).isNotNull();
+        assertThat(wheel.advance(10)).containsExactlyInAnyOrder("late", "now");
+        assertThat(wheel.size()).isZero();
+    }
+
+    @Test
+    void sizeTracksScheduleCancelAndExpiry() {
+        HierarchicalTimingWheel<String> wheel = new HierarchicalTimingWheel<>(TICK_MS, 3, 0);
+        HierarchicalTimingWheel.Timeout<String> first = wheel.schedule(10, "first");
+        wheel.schedule(20, "second");
+        wheel.schedule(300, "third");
+        assertThat(wheel.size()).isEqualTo(3);
+
+        wheel.cancel(first);
+        assertThat(wheel.size()).isEqualTo(2);
+
+        assertThat(wheel.advance(20)).containsExactly("second");
+        assertThat(wheel.size()).isEqualTo(1);
+
+        // Une échéance déjà partie ne s'annule plus
+        assertThat(wheel.cancel(first)).isFalse();
+        assertThat(wheel.advance(300)).containsExactly("third");
+        assertThat(wheel.size()).isZero();
+    }
+
+    @Test
+    void deadlineBeyondTheHorizonIsRefused() {
+        // Deux niveaux : horizon de 64^2 = 4096 ticks
+        HierarchicalTimingWheel<String> wheel = new HierarchicalTimingWheel<>(TICK_MS, 2, 0);
+
+        assertThat(wheel.schedule(4096, "too-far")).isNull();
+        assertThat(wheel.size()).isZero();
+        assertThat(wheel.schedule(4095, "last")).isNotNull();
+        assertThat(wheel.size()).isEqualTo(1);
+        assertThat(wheel.advance(4095)).containsExactly("last");
+    }
+}
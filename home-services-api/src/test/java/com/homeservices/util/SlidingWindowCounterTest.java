@@ -0,0 +1,73 @@
+package com.homeservices.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class SlidingWindowCounterTest {
+
+    private static final long WINDOW_MS = 600_000;
+
+    @Test
+    void concurrentAttemptsNeverExceedTheLimit() throws InterruptedException {
+        SlidingWindowCounter counter = new SlidingWindowCounter(1000, WINDOW_MS);
+        long now = WINDOW_MS * 10;
+        AtomicInteger acquired = new AtomicInteger();
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService pool = Executors.newFixedThreadPool(16);
+        for (int i = 0; i < 200; i++) {
+            pool.execute(() -> {
+                try {
+                    start.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                if (counter.tryAcquire("victim@example.com", 10, now)) {
+                    acquired.incrementAndGet();
+                }
+            });
+        }
+        start.countDown();
+        pool.shutdown();
+        assertThat(pool.awaitTermination(10, TimeUnit.SECONDS)).isTrue();
+
+        assertThat(acquired.get()).isEqualTo(10);
+    }
+
+    @Test
+    void otherKeysDoNotLockOutALegitimateUser() {
+        SlidingWindowCounter counter = new SlidingWindowCounter(100_000, WINDOW_MS);
+        long now = WINDOW_MS * 10;
+        for (int i = 0; i < 50_000; i++) {
+            for (int attempt = 0; attempt < 10; attempt++) {
+                counter.tryAcquire("sprayed" + i + "@example.com", 10, now);
+            }
+        }
+
+        assertThat(counter.tryAcquire("legit@example.com", 10, now)).isTrue();
+    }
+
+    @Test
+    void previousWindowWeighsInProportionToItsOverlap() {
+        SlidingWindowCounter counter = new SlidingWindowCounter(1000, WINDOW_MS);
+        long start = WINDOW_MS * 10;
+        for (int i = 0; i < 10; i++) {
+            assertThat(counter.tryAcquire("user", 10, start)).isTrue();
+        }
+        assertThat(counter.tryAcquire("user", 10, start)).isFalse();
+
+        // A mi-fenêtre suivante, la fenêtre précédente compte pour moitié : 5 tentatives de plus
+        long halfway = start + WINDOW_MS + WINDOW_MS / 2;
+        int acquired = 0;
+        while (counter.tryAcquire("user", 10, halfway)) {
+            acquired++;
+        }
+        assertThat(acquired).isEqualTo(5);
+    }
+}
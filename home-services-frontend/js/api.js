@@ -7,6 +7,8 @@
 const API = {
     // Configuration
     BASE_URL: 'http://localhost:8080/api',
+    // Taille des pages lues sur les listes paginées
+    PAGE_SIZE: 50,
     
     /**
      * Récupère le token JWT du localStorage
@@ -73,6 +75,14 @@ const API = {
      * Requête HTTP générique avec gestion d'erreurs
      */
     async request(endpoint, options = {}) {
+        const { data } = await this.send(endpoint, options);
+        return data;
+    },
+
+    /**
+     * Envoie la requête et retourne le corps et les en-têtes de la réponse
+     */
+    async send(endpoint, options = {}) {
         const url = `${this.BASE_URL}${endpoint}`;
         
         const config = {
@@ -101,7 +111,7 @@ const API = {
                 throw new Error(data.message || 'Une erreur est survenue');
             }
             
-            return data;
+            return { data, headers: response.headers };
         } catch (error) {
             console.error('API Error:', error);
             throw error;
@@ -115,6 +125,48 @@ const API = {
         return this.request(endpoint, { method: 'GET', ...options });
     },
 
+    /**
+     * GET d'une page d'une liste paginée par curseur
+     * Retourne les lignes et le curseur de la page suivante (null : dernière page)
+     */
+    async getPage(endpoint, cursor = null, options = {}) {
+        const separator = endpoint.includes('?') ? '&' : '?';
+        const page = `${endpoint}${separator}limit=${this.PAGE_SIZE}`
+            + (cursor ? `&cursor=${encodeURIComponent(cursor)}` : '');
+        const { data, headers } = await this.send(page, { method: 'GET', ...options });
+        return { items: data, nextCursor: headers.get('X-Next-Cursor') };
+    },
+
+    /**
+     * Liste chargée page par page ("Charger plus")
+     * fetchPage(cursor) retourne { items, nextCursor }
+     */
+    createPager(fetchPage) {
+        return {
+            items: [],
+            nextCursor: null,
+
+            get hasMore() {
+                return !!this.nextCursor;
+            },
+
+            // Recharge la première page
+            async reset() {
+                this.items = [];
+                this.nextCursor = null;
+                return this.more();
+            },
+
+            // Ajoute la page suivante aux lignes déjà chargées
+            async more() {
+                const page = await fetchPage(this.nextCursor);
+                this.items.push(...page.items);
+                this.nextCursor = page.nextCursor;
+                return this.items;
+            }
+        };
+    },
+
     /**
      * POST Request
      */
@@ -173,6 +225,11 @@ const API = {
          * Déconnexion
          */
         logout() {
+            const refreshToken = localStorage.getItem('refreshToken');
+            if (refreshToken) {
+                // Révoque la session côté serveur (sans bloquer la déconnexion)
+                API.post('/auth/logout', { refreshToken }, { auth: false }).catch(() => {});
+            }
             API.removeToken();
             window.location.href = '/pages/login.html';
         },
@@ -223,10 +280,10 @@ const API = {
         },
 
         /**
-         * Liste tous les utilisateurs (admin)
+         * Page des utilisateurs (admin)
          */
-        async getAll() {
-            return API.get('/users');
+        async getAll(cursor) {
+            return API.getPage('/users', cursor);
         },
 
         /**
@@ -308,10 +365,31 @@ const API = {
         },
 
         /**
-         * Liste mes réservations
+         * Page de mes réservations
+         */
+        async getMy(cursor) {
+            return API.getPage('/reservations/my', cursor);
+        },
+
+        /**
+         * Mes réservations les plus récentes (une seule page)
          */
-        async getMy() {
-            return API.get('/reservations/my');
+        async getRecent(limit) {
+            return API.get(`/reservations/my?limit=${limit}`);
+        },
+
+        /**
+         * Calendrier du prestataire sur [from, to] (dates YYYY-MM-DD), jours vides omis
+         */
+        async getCalendar(from, to) {
+            return API.get(`/reservations/calendar?from=${from}&to=${to}`);
+        },
+
+        /**
+         * Nombre de mes réservations par statut
+         */
+        async getCounts() {
+            return API.get('/reservations/my/counts');
         },
 
         /**
@@ -343,10 +421,10 @@ const API = {
         },
 
         /**
-         * Liste toutes les réservations (admin)
+         * Page de toutes les réservations (admin)
          */
-        async getAll() {
-            return API.get('/reservations');
+        async getAll(cursor) {
+            return API.getPage('/reservations', cursor);
         }
     },
 
@@ -361,10 +439,10 @@ const API = {
         },
 
         /**
-         * Liste mes transactions
+         * Page de mes transactions
          */
-        async getMy() {
-            return API.get('/payments/my');
+        async getMy(cursor) {
+            return API.getPage('/payments/my', cursor);
         },
 
         /**
@@ -375,10 +453,10 @@ const API = {
         },
 
         /**
-         * Liste toutes les transactions (admin)
+         * Page de toutes les transactions (admin)
          */
-        async getAll() {
-            return API.get('/payments');
+        async getAll(cursor) {
+            return API.getPage('/payments', cursor);
         }
     },
 
@@ -400,24 +478,24 @@ const API = {
         },
 
         /**
-         * Liste tous les utilisateurs
+         * Page des utilisateurs
          */
-        async getUsers() {
-            return API.get('/admin/users');
+        async getUsers(cursor) {
+            return API.getPage('/admin/users', cursor);
         },
 
         /**
-         * Liste toutes les réservations
+         * Page des réservations
          */
-        async getReservations() {
-            return API.get('/admin/reservations');
+        async getReservations(cursor) {
+            return API.getPage('/admin/reservations', cursor);
         },
 
         /**
-         * Liste toutes les transactions
+         * Page des transactions
          */
-        async getTransactions() {
-            return API.get('/admin/transactions');
+        async getTransactions(cursor) {
+            return API.getPage('/admin/transactions', cursor);
         }
     }
 };